@@ -0,0 +1,137 @@
+package com.ltchen.compression.dedup;
+
+import com.ltchen.compression.Compressor;
+
+import java.io.*;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 本地块存储: 以块内容的 SHA-256 为键, 每个块压缩后存为一个文件 root/前 2 位十六进制/64 位十六进制.
+ *         相同内容的块只存一份; 先写临时文件再改名, 中断时不会留下不完整的块
+ */
+public class ChunkStore {
+
+    /**
+     * SHA-256 的字节数
+     */
+    public static final int HASH_SIZE = 32;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * 根目录
+     */
+    private final Path root;
+
+    /**
+     * 块的压缩器
+     */
+    private final Compressor compressor;
+
+    /**
+     * 构造块存储
+     * @param root 根目录, 不存在时创建
+     * @param compressor 块的压缩器
+     * @throws IOException
+     */
+    public ChunkStore(Path root, Compressor compressor) throws IOException {
+        this.root = Files.createDirectories(root);
+        this.compressor = compressor;
+    }
+
+    /**
+     * 计算 [off, off + len) 的 SHA-256
+     */
+    public static byte[] hash(byte[] bytes, int off, int len) {
+        MessageDigest digest = sha256();
+        digest.update(bytes, off, len);
+        return digest.digest();
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("不支持 SHA-256");
+        }
+    }
+
+    /**
+     * 块是否已存在
+     * @param hash 块的 SHA-256
+     * @return 是否已存在
+     */
+    public boolean contains(byte[] hash) {
+        return Files.exists(pathOf(hash));
+    }
+
+    /**
+     * 存入一个块, 已存在时不做任何事
+     * @param hash 块的 SHA-256
+     * @param bytes 数据
+     * @param off 起始位置
+     * @param len 字节数
+     * @return 是否新写入
+     * @throws IOException
+     */
+    public boolean put(byte[] hash, byte[] bytes, int off, int len) throws IOException {
+        Path path = pathOf(hash);
+        if (Files.exists(path)) {
+            return false;
+        }
+        // 压缩器内部捕获 IOException 而不抛出, 直接写文件时写入失败会留下不完整的块;
+        // 先压缩到内存, 再由 Files.write 写出, 写入失败时抛出异常, 不会改名为正式的块
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(len / 2 + 64);
+        compressor.compress(new ByteArrayInputStream(bytes, off, len), compressed);
+        Path dir = Files.createDirectories(path.getParent());
+        Path tmp = Files.createTempFile(dir, "chunk", ".tmp");
+        try {
+            Files.write(tmp, compressed.toByteArray());
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return true;
+    }
+
+    /**
+     * 读取一个块并校验内容
+     * @param hash 块的 SHA-256
+     * @return 块的内容
+     * @throws IOException
+     */
+    public byte[] get(byte[] hash) throws IOException {
+        Path path = pathOf(hash);
+        if (!Files.exists(path)) {
+            throw new FileNotFoundException("找不到块: " + toHex(hash));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            compressor.decompress(in, out);
+        }
+        byte[] bytes = out.toByteArray();
+        if (!Arrays.equals(hash, hash(bytes, 0, bytes.length))) {
+            throw new AssertionError("块已损坏: " + toHex(hash));
+        }
+        return bytes;
+    }
+
+    private Path pathOf(byte[] hash) {
+        String hex = toHex(hash);
+        return root.resolve(hex.substring(0, 2)).resolve(hex);
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >>> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+}
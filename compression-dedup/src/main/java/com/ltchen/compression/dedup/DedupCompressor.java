@@ -0,0 +1,187 @@
+package com.ltchen.compression.dedup;
+
+import com.ltchen.compression.Compressor;
+import com.ltchen.compression.lz77.LZ77Compressor;
+
+import java.io.*;
+import java.nio.file.Paths;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 去重压缩: 输入经 FastCDC 分块, 块存入 ChunkStore (已有的块不再压缩和存储), 输出只是块的清单.
+ *         清单格式:
+ *         +---+---+---+---+---+---+---+---+=======//=======+     +---+---+---+---+
+ *         |     MAGIC     |    块长度     |  SHA-256 (32)  | ... |       0       |
+ *         +---+---+---+---+---+---+---+---+=======//=======+     +---+---+---+---+
+ *         解压时按清单从块存储中取出各块并校验. 同一个块存储可以被任意多个文件共享
+ */
+public class DedupCompressor implements Compressor {
+
+    /**
+     * 魔法值: "DDUP"
+     */
+    private static final int MAGIC = 0x44445550;
+
+    /**
+     * 块存储
+     */
+    private final ChunkStore store;
+
+    /**
+     * 分块器
+     */
+    private final FastCDC chunker;
+
+    /**
+     * 最近一次压缩的统计: 块数, 新写入的块数, 字节数, 新写入的块的字节数
+     */
+    private long chunks;
+    private long newChunks;
+    private long bytes;
+    private long newBytes;
+
+    public DedupCompressor(ChunkStore store) {
+        this(store, new FastCDC());
+    }
+
+    public DedupCompressor(ChunkStore store, FastCDC chunker) {
+        this.store = store;
+        this.chunker = chunker;
+    }
+
+    @Override
+    public void compress(InputStream in, OutputStream out) {
+        chunks = newChunks = bytes = newBytes = 0;
+        try {
+            DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out));
+            dos.writeInt(MAGIC);
+            // 缓冲区中至少保留 maxSize 个字节再分块, 保证切分点与读入的方式无关
+            int maxSize = chunker.getMaxSize();
+            byte[] buf = new byte[maxSize * 4];
+            int pos = 0;
+            int limit = 0;
+            boolean eof = false;
+            while (true) {
+                if (!eof && limit - pos < maxSize) {
+                    System.arraycopy(buf, pos, buf, 0, limit - pos);
+                    limit -= pos;
+                    pos = 0;
+                    int n;
+                    while (limit < buf.length && (n = in.read(buf, limit, buf.length - limit)) > 0) {
+                        limit += n;
+                    }
+                    eof = limit < buf.length;
+                }
+                if (pos == limit) {
+                    break;
+                }
+                int len = chunker.cut(buf, pos, limit - pos);
+                byte[] hash = ChunkStore.hash(buf, pos, len);
+                if (store.put(hash, buf, pos, len)) {
+                    newChunks++;
+                    newBytes += len;
+                }
+                chunks++;
+                bytes += len;
+                dos.writeInt(len);
+                dos.write(hash);
+                pos += len;
+            }
+            dos.writeInt(0);
+            dos.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void decompress(InputStream in, OutputStream out) {
+        try {
+            DataInputStream dis = new DataInputStream(new BufferedInputStream(in));
+            if (dis.readInt() != MAGIC) {
+                throw new AssertionError("不是去重清单!");
+            }
+            byte[] hash = new byte[ChunkStore.HASH_SIZE];
+            int len;
+            while ((len = dis.readInt()) != 0) {
+                dis.readFully(hash);
+                byte[] chunk = store.get(hash);
+                if (chunk.length != len) {
+                    throw new AssertionError("块的长度不符: " + ChunkStore.toHex(hash));
+                }
+                out.write(chunk);
+            }
+            out.flush();
+        } catch (EOFException e) {
+            throw new AssertionError("数据意外结束!");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public long getChunks() {
+        return chunks;
+    }
+
+    public long getNewChunks() {
+        return newChunks;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getNewBytes() {
+        return newBytes;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 检查参数
+        if (args.length != 4) {
+            usage();
+        }
+        boolean verbose = args[0].contains("v");
+        boolean compress = args[0].contains("c");
+        boolean decompress = args[0].contains("d");
+        // 压缩参数和解压缩参数不可同时出现
+        if (!(compress ^ decompress)) {
+            usage();
+        }
+
+        File inFile = new File(args[2]);
+        File outFile = new File(args[3]);
+        try (InputStream in = new FileInputStream(inFile); OutputStream out = new FileOutputStream(outFile)) {
+            DedupCompressor compressor = new DedupCompressor(new ChunkStore(Paths.get(args[1]), new LZ77Compressor()));
+            long startTime = System.currentTimeMillis();
+            if (compress) {
+                compressor.compress(in, out);
+            } else {
+                compressor.decompress(in, out);
+            }
+            long endTime = System.currentTimeMillis();
+            if (verbose) {
+                System.out.println(String.format("%d 字节 -> %d 字节, 耗时 %.3f 秒",
+                        inFile.length(), outFile.length(), (endTime - startTime) / 1000.0));
+                if (compress) {
+                    System.out.println(String.format("%d 个块, 新增 %d 个块 (%d 字节), 重复 %d 字节",
+                            compressor.getChunks(), compressor.getNewChunks(), compressor.getNewBytes(),
+                            compressor.getBytes() - compressor.getNewBytes()));
+                }
+            }
+        }
+    }
+
+    /**
+     * 打印使用方法并退出
+     */
+    private static void usage() {
+        System.out.println("使用方法:");
+        System.out.println("\tjava DedupCompressor -vcd [storeDir] [inFilePath] [outFilePath]");
+        System.out.println("选项:");
+        System.out.println("\t-v  显示详情");
+        System.out.println("\t-c  压缩 (块存入 storeDir, 输出清单)");
+        System.out.println("\t-d  解压缩 (按清单从 storeDir 取出块)");
+        System.exit(1);
+    }
+}
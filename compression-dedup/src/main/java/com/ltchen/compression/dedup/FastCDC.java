@@ -0,0 +1,118 @@
+package com.ltchen.compression.dedup;
+
+import java.util.Random;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : FastCDC 内容定义分块: 以 gear 滚动哈希 (每字节左移 1 位并加上字节对应的随机数) 查找切分点,
+ *         切分点只取决于附近的内容, 数据中插入或删除字节后, 之后的切分点会重新对齐, 未改动的块保持不变.
+ *         跳过前 minSize 个字节; 未到平均大小时用较难满足的掩码, 之后用较易满足的掩码 (归一化分块), 块大小更集中
+ */
+public class FastCDC {
+
+    /**
+     * 默认的最小块大小: 2K
+     */
+    public static final int DEFAULT_MIN_SIZE = 1 << 11;
+
+    /**
+     * 默认的平均块大小: 8K
+     */
+    public static final int DEFAULT_AVG_SIZE = 1 << 13;
+
+    /**
+     * 默认的最大块大小: 64K
+     */
+    public static final int DEFAULT_MAX_SIZE = 1 << 16;
+
+    /**
+     * 归一化级别: 两个掩码的位数与平均大小的对数相差的位数
+     */
+    private static final int NORMALIZATION = 2;
+
+    /**
+     * 每个字节对应的随机数
+     */
+    private static final long[] GEAR = new long[256];
+
+    static {
+        Random random = new Random(0x46434443L);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    private final int minSize;
+
+    private final int avgSize;
+
+    private final int maxSize;
+
+    /**
+     * 未到平均大小时的掩码 (位数较多)
+     */
+    private final long maskS;
+
+    /**
+     * 超过平均大小后的掩码 (位数较少)
+     */
+    private final long maskL;
+
+    public FastCDC() {
+        this(DEFAULT_MIN_SIZE, DEFAULT_AVG_SIZE, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * 构造分块器
+     * @param minSize 最小块大小
+     * @param avgSize 平均块大小, 须为 2 的幂
+     * @param maxSize 最大块大小
+     */
+    public FastCDC(int minSize, int avgSize, int maxSize) {
+        if (Integer.bitCount(avgSize) != 1 || minSize <= 0 || minSize > avgSize || avgSize > maxSize) {
+            throw new AssertionError("非法的块大小: " + minSize + "/" + avgSize + "/" + maxSize);
+        }
+        this.minSize = minSize;
+        this.avgSize = avgSize;
+        this.maxSize = maxSize;
+        int bits = Integer.numberOfTrailingZeros(avgSize);
+        // 掩码取高位: 高位受最近 64 个字节的影响
+        maskS = -1L << (64 - bits - NORMALIZATION);
+        maskL = -1L << (64 - bits + NORMALIZATION);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 查找从 off 开始的块的长度
+     * @param bytes 数据
+     * @param off 起始位置
+     * @param len 可用的字节数, 不小于 maxSize 或者为剩余的全部数据
+     * @return 块的长度
+     */
+    public int cut(byte[] bytes, int off, int len) {
+        if (len <= minSize) {
+            return len;
+        }
+        int n = Math.min(len, maxSize);
+        int normal = Math.min(n, avgSize);
+        long h = 0;
+        int i = minSize;
+        for (; i < normal; i++) {
+            h = (h << 1) + GEAR[bytes[off + i] & 0xff];
+            if ((h & maskS) == 0) {
+                return i + 1;
+            }
+        }
+        for (; i < n; i++) {
+            h = (h << 1) + GEAR[bytes[off + i] & 0xff];
+            if ((h & maskL) == 0) {
+                return i + 1;
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,169 @@
+package com.ltchen.compression.dedup;
+
+import com.ltchen.compression.lz77.LZ77Compressor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc :
+ */
+public class DedupCompressorTest {
+
+    private Path root;
+
+    private ChunkStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("dedup");
+        store = new ChunkStore(root, new LZ77Compressor());
+    }
+
+    @After
+    public void tearDown() {
+        delete(root.toFile());
+    }
+
+    @Test
+    public void testRoundTrip() {
+        Random random = new Random(1);
+        byte[] noise = new byte[1 << 20];
+        random.nextBytes(noise);
+        // 后一半与前一半相同, 只存一份
+        byte[] repeated = new byte[noise.length * 2];
+        System.arraycopy(noise, 0, repeated, 0, noise.length);
+        System.arraycopy(noise, 0, repeated, noise.length, noise.length);
+        for (byte[] data : new byte[][]{new byte[0], {1, 2, 3}, new byte[100000], noise, repeated}) {
+            DedupCompressor compressor = new DedupCompressor(store);
+            byte[] manifest = compress(compressor, data);
+            Assert.assertArrayEquals(data, decompress(compressor, manifest));
+        }
+        Assert.assertEquals(0, countTempFiles(root.toFile()));
+    }
+
+    @Test
+    public void testSecondRun() {
+        byte[] data = new byte[2 << 20];
+        new Random(2).nextBytes(data);
+        DedupCompressor compressor = new DedupCompressor(store);
+        byte[] first = compress(compressor, data);
+        Assert.assertEquals(compressor.getChunks(), compressor.getNewChunks());
+        // 相同的数据再压缩一次不新增块, 清单相同
+        byte[] second = compress(compressor, data);
+        Assert.assertEquals(0, compressor.getNewChunks());
+        Assert.assertEquals(0, compressor.getNewBytes());
+        Assert.assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void testEdit() throws IOException {
+        byte[] data = new byte[2 << 20];
+        new Random(3).nextBytes(data);
+        DedupCompressor compressor = new DedupCompressor(store);
+        List<String> before = chunks(compress(compressor, data));
+
+        // 在中间插入 100 个字节
+        int at = data.length / 2;
+        byte[] edited = new byte[data.length + 100];
+        System.arraycopy(data, 0, edited, 0, at);
+        Arrays.fill(edited, at, at + 100, (byte) 'x');
+        System.arraycopy(data, at, edited, at + 100, data.length - at);
+        byte[] manifest = compress(compressor, edited);
+        List<String> after = chunks(manifest);
+        Assert.assertArrayEquals(edited, decompress(compressor, manifest));
+
+        // 只有插入位置附近的块改变, 其前后的块与原来相同
+        int prefix = 0;
+        while (prefix < Math.min(before.size(), after.size()) && before.get(prefix).equals(after.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < Math.min(before.size(), after.size()) - prefix
+                && before.get(before.size() - 1 - suffix).equals(after.get(after.size() - 1 - suffix))) {
+            suffix++;
+        }
+        Assert.assertTrue("changed = " + (after.size() - prefix - suffix), after.size() - prefix - suffix <= 2);
+        Assert.assertEquals(after.size() - prefix - suffix, compressor.getNewChunks());
+        Assert.assertTrue(compressor.getNewBytes() < 4 * FastCDC.DEFAULT_MAX_SIZE);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testCorruptChunk() throws IOException {
+        byte[] data = new byte[100000];
+        new Random(4).nextBytes(data);
+        DedupCompressor compressor = new DedupCompressor(store);
+        byte[] manifest = compress(compressor, data);
+        // 改动第一个块的文件
+        String hex = chunks(manifest).get(0);
+        Path path = root.resolve(hex.substring(0, 2)).resolve(hex);
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(path, bytes);
+        decompress(compressor, manifest);
+    }
+
+    /**
+     * 解析清单中各块的 SHA-256
+     */
+    private static List<String> chunks(byte[] manifest) throws IOException {
+        List<String> chunks = new ArrayList<>();
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(manifest));
+        dis.readInt();
+        byte[] hash = new byte[ChunkStore.HASH_SIZE];
+        while (dis.readInt() != 0) {
+            dis.readFully(hash);
+            chunks.add(ChunkStore.toHex(hash));
+        }
+        return chunks;
+    }
+
+    private static byte[] compress(DedupCompressor compressor, byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compressor.compress(new ByteArrayInputStream(data), out);
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(DedupCompressor compressor, byte[] manifest) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compressor.decompress(new ByteArrayInputStream(manifest), out);
+        return out.toByteArray();
+    }
+
+    private static int countTempFiles(File file) {
+        File[] children = file.listFiles();
+        if (children == null) {
+            return file.getName().endsWith(".tmp") ? 1 : 0;
+        }
+        int count = 0;
+        for (File child : children) {
+            count += countTempFiles(child);
+        }
+        return count;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -1,6 +1,9 @@
 package com.ltchen.compression;
 
+import com.ltchen.compression.deflate.BlockedGzipCompressor;
 import com.ltchen.compression.deflate.DeflateCompressor;
+import com.ltchen.compression.deflate.Deflater;
+import com.ltchen.compression.deflate.ParallelInflater;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -24,10 +27,23 @@ public class App {
         boolean showProgress = args[0].contains("p");
         boolean compress = args[0].contains("c");
         boolean decompress = args[0].contains("d");
+        boolean blocked = args[0].contains("b");
+        boolean filtered = args[0].contains("f");
+        boolean huffmanOnly = args[0].contains("h");
+        boolean rle = args[0].contains("r");
+        boolean parallel = args[0].contains("t");
         // 压缩参数和解压缩参数不可同时出现
         if (!(compress ^ decompress)) {
             usage();
         }
+        // 压缩策略至多指定一个
+        if ((filtered ? 1 : 0) + (huffmanOnly ? 1 : 0) + (rle ? 1 : 0) > 1) {
+            usage();
+        }
+        // 并行解压普通 gzip 文件只用于解压, 分块格式本身即并行解压
+        if (parallel && (compress || blocked)) {
+            usage();
+        }
 
         try {
             // 输入输出文件
@@ -37,7 +53,19 @@ public class App {
             FileOutputStream out = new FileOutputStream(outFile);
 
             // 霍夫曼压缩器
-            DeflateCompressor deflateCompressor = new DeflateCompressor(inFile.getPath(), inFile.getName(), inFile.length(), showProgress);
+            DeflateCompressor deflateCompressor;
+            if (blocked) {
+                deflateCompressor = new BlockedGzipCompressor(inFile.getPath(), inFile.getName(), inFile.length(), showProgress);
+            } else {
+                deflateCompressor = new DeflateCompressor(inFile.getPath(), inFile.getName(), inFile.length(), showProgress);
+            }
+            if (filtered) {
+                deflateCompressor.setStrategy(Deflater.FILTERED);
+            } else if (huffmanOnly) {
+                deflateCompressor.setStrategy(Deflater.HUFFMAN_ONLY);
+            } else if (rle) {
+                deflateCompressor.setStrategy(Deflater.RLE);
+            }
             String info;
 
             // 压缩/解压缩
@@ -53,7 +81,11 @@ public class App {
                     info = String.format("文件大小增加了 %s 字节, 压缩率为 %.1f%%", -diff, ratio);
                 }
             } else {
-                deflateCompressor.decompress(in, out);
+                if (parallel) {
+                    new ParallelInflater().decompress(inFile.toPath(), out);
+                } else {
+                    deflateCompressor.decompress(in, out);
+                }
                 // 解压缩统计
                 long diff = inFile.length() - outFile.length();
                 if (diff > 0) {
@@ -86,12 +118,17 @@ public class App {
      */
     private static void usage() {
         System.out.println("使用方法:");
-        System.out.println("\tjava HuffmanCompressor -vpcd [inFilePath] [outFilePath]");
+        System.out.println("\tjava HuffmanCompressor -vpcdbfhrt [inFilePath] [outFilePath]");
         System.out.println("选项:");
         System.out.println("\t-v  显示详情");
         System.out.println("\t-p  显示进度");
         System.out.println("\t-c  压缩");
         System.out.println("\t-d  解压缩");
+        System.out.println("\t-b  使用分块的 gzip 格式 (BGZF), 解压时并行");
+        System.out.println("\t-f  压缩策略: 过滤, 长度不超过 5 的匹配作为字面量");
+        System.out.println("\t-h  压缩策略: 只用霍夫曼编码, 不查找匹配");
+        System.out.println("\t-r  压缩策略: 只匹配距离为 1 的游程");
+        System.out.println("\t-t  并行解压普通的 gzip 文件 (多线程猜测数据块的边界)");
         System.exit(1);
     }
 }
@@ -0,0 +1,89 @@
+package com.ltchen.compression.deflate;
+
+import java.util.zip.Checksum;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 见 RFC 1950, 8.2 章节 (https://www.ietf.org/rfc/rfc1950.txt)
+ */
+public class Adler32 implements Checksum {
+
+    /**
+     * 小于 65536 的最大素数
+     */
+    private final static int BASE = 65521;
+
+    /**
+     * 在 s2 溢出 int 之前最多可累加的字节数 (zlib 中为 5552, 但 Java 的 int 是有符号的)
+     */
+    private final static int NMAX = 3800;
+
+    /**
+     * 所有字节之和 (加 1)
+     */
+    private int s1;
+
+    /**
+     * 每一步 s1 之和
+     */
+    private int s2;
+
+    public Adler32() {
+        reset();
+    }
+
+    /**
+     * 返回 Adler-32 的校验值
+     * @return
+     */
+    @Override
+    public long getValue() {
+        return ((long) s2 << 16) | s1;
+    }
+
+    /**
+     * 更新校验值
+     * @param b 字节
+     */
+    @Override
+    public void update(int b) {
+        s1 = (s1 + (b & 0xff)) % BASE;
+        s2 = (s2 + s1) % BASE;
+    }
+
+    /**
+     * 更新校验值
+     * @param bytes 字节数组
+     */
+    public void update(byte[] bytes) {
+        update(bytes, 0, bytes.length);
+    }
+
+    /**
+     * 更新校验值 (每 NMAX 个字节才取一次模)
+     * @param bytes 字节数组
+     * @param off 偏移
+     * @param len 长度
+     */
+    @Override
+    public void update(byte[] bytes, int off, int len) {
+        while (len > 0) {
+            int n = Math.min(len, NMAX);
+            for (int i = 0; i < n; i++) {
+                s1 += bytes[off + i] & 0xff;
+                s2 += s1;
+            }
+            s1 %= BASE;
+            s2 %= BASE;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void reset() {
+        s1 = 1;
+        s2 = 0;
+    }
+}
@@ -64,6 +64,19 @@ public class BitInputStream {
         return size;
     }
 
+    /**
+     * 读取输入流中单个字节, 与 readByte 不同, 输入流结束时不抛出异常
+     * @return 字节的值, 输入流结束时返回 -1
+     * @throws IOException
+     */
+    public int read() throws IOException {
+        int b = dis.read();
+        if (b >= 0) {
+            count++;
+        }
+        return b;
+    }
+
     /**
      * 读取输入流中单个字节
      * @return 字节的值
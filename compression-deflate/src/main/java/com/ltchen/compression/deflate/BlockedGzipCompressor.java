@@ -0,0 +1,297 @@
+package com.ltchen.compression.deflate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 分块的 gzip 格式 (BGZF), 由若干互相独立且不超过 64K 的 gzip 成员组成, 可并行解压和随机访问,
+ *         普通的 gzip 工具也可将其作为多成员 gzip 文件读取
+ */
+public class BlockedGzipCompressor extends DeflateCompressor {
+
+    /**
+     * 见 SAM/BAM 格式规范, 4.1 章节 (https://samtools.github.io/hts-specs/SAMv1.pdf)
+     * +---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+=====//=====+---+---+---+---+---+---+---+---+
+     * |ID1|ID2| CM|FLG|     MTIME     |XFL| OS| XLEN  |SI1|SI2| SLEN  | BSIZE |  压缩的数据  |      CRC      |     ISIZE     |
+     * +---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+---+=====//=====+---+---+---+---+---+---+---+---+
+     * 注: 一格为一字节, FLG 为 FEXTRA, BSIZE 为整个成员的字节数减 1
+     */
+
+    /**
+     * 扩展子字段的标识: 'B', 'C'
+     */
+    private final static int SI1 = 66;
+    private final static int SI2 = 67;
+
+    /**
+     * 成员头部的长度 (包含扩展字段)
+     */
+    public final static int HEADER_SIZE = 18;
+
+    /**
+     * 成员尾部的长度 (CRC + ISIZE)
+     */
+    public final static int TRAILER_SIZE = 8;
+
+    /**
+     * 成员的最大字节数
+     */
+    public final static int MAX_BLOCK_SIZE = 65536;
+
+    /**
+     * 每个成员最多压缩的字节数, 留出空间以防数据不可压缩时成员超过 MAX_BLOCK_SIZE
+     */
+    public final static int MAX_INPUT_SIZE = 0xff00;
+
+    /**
+     * 文件结束标记: 一个空的 BGZF 成员
+     */
+    private final static byte[] EOF_BLOCK = {
+            0x1f, (byte) 0x8b, 0x08, 0x04, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xff, 0x06, 0x00, 0x42, 0x43,
+            0x02, 0x00, 0x1b, 0x00, 0x03, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00
+    };
+
+    /**
+     * 解压时使用的线程数
+     */
+    private int threads;
+
+    public BlockedGzipCompressor(String filePath, String fileName, long fileSize, boolean showProgress) {
+        super(filePath, fileName, fileSize, showProgress);
+        threads = Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * 设置解压时使用的线程数
+     * @param threads 线程数
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    @Override
+    public void compress(InputStream in, OutputStream out) {
+        DataInputStream dis = new DataInputStream(in);
+        byte[] buffer = new byte[MAX_INPUT_SIZE];
+        long readBytes = 0;
+
+        try {
+            while (true) {
+                // 读满一个成员的数据
+                int len = 0;
+                int n;
+                while (len < MAX_INPUT_SIZE && (n = dis.read(buffer, len, MAX_INPUT_SIZE - len)) > 0) {
+                    len += n;
+                }
+                if (len == 0) {
+                    break;
+                }
+                writeBlock(out, buffer, 0, len);
+                // 显示进度
+                updateProgress(readBytes += len);
+            }
+            // 写出文件结束标记
+            out.write(EOF_BLOCK);
+            out.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 将数据压缩为一个或多个成员写出
+     * @param out 输出流
+     * @param bytes 数据
+     * @param off 偏移
+     * @param len 长度
+     * @throws IOException
+     */
+    private void writeBlock(OutputStream out, byte[] bytes, int off, int len) throws IOException {
+        byte[] block = compressBlock(bytes, off, len, getStrategy());
+        if (block.length > MAX_BLOCK_SIZE) {
+            // 压缩后超过成员最大字节数时 (数据不可压缩), 拆分为两个成员
+            int half = len / 2;
+            writeBlock(out, bytes, off, half);
+            writeBlock(out, bytes, off + half, len - half);
+            return;
+        }
+        out.write(block);
+    }
+
+    /**
+     * 将数据压缩为一个完整的成员
+     * @param bytes 数据
+     * @param off 偏移
+     * @param len 长度
+     * @param strategy 压缩策略
+     * @return 成员的全部字节
+     * @throws IOException
+     */
+    private static byte[] compressBlock(byte[] bytes, int off, int len, int strategy) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(len + HEADER_SIZE + TRAILER_SIZE);
+        BitOutputStream bos = new BitOutputStream(baos);
+
+        // 写出成员头, BSIZE 暂时写 0, 待压缩后回填
+        bos.writeByte(ID1);
+        bos.writeByte(ID2);
+        bos.writeByte(CM);
+        bos.writeByte(FEXTRA);
+        // MTIME, XFL
+        for (int i = 0; i < 5; i++) {
+            bos.writeByte(0);
+        }
+        // OS: 未知
+        bos.writeByte(255);
+        // XLEN
+        bos.writeShort(6);
+        bos.writeByte(SI1);
+        bos.writeByte(SI2);
+        // SLEN
+        bos.writeShort(2);
+        bos.writeShort(0);
+
+        // 压缩数据并写出 (每个成员使用独立的压缩器, 不显示进度)
+        DeflateCompressor dc = new DeflateCompressor(null, null, len, false);
+        dc.setStrategy(strategy);
+        Deflater deflater = new Deflater(dc, new BitInputStream(new ByteArrayInputStream(bytes, off, len)), bos);
+        deflater.process();
+
+        // 写出成员尾
+        bos.writeInt(deflater.getCRCValue());
+        bos.writeInt(len);
+
+        // 回填 BSIZE
+        byte[] block = baos.toByteArray();
+        int bsize = block.length - 1;
+        block[16] = (byte) bsize;
+        block[17] = (byte) (bsize >> 8);
+        return block;
+    }
+
+    @Override
+    public void decompress(InputStream in, OutputStream out) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        // 按顺序等待写出的解压任务
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        long readBytes = 0;
+
+        try {
+            byte[] block;
+            // 根据 BSIZE 切分成员, 无需解码即可找到成员边界
+            while ((block = readBlock(in)) != null) {
+                final byte[] member = block;
+                pending.add(pool.submit(() -> inflateBlock(member, 0, member.length)));
+                readBytes += block.length;
+                // 限制在途的成员数, 避免占用过多内存
+                if (pending.size() >= threads * 2) {
+                    out.write(pending.poll().get());
+                    updateProgress(readBytes);
+                }
+            }
+            while (!pending.isEmpty()) {
+                out.write(pending.poll().get());
+            }
+            updateProgress(readBytes);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AssertionError) {
+                throw (AssertionError) e.getCause();
+            }
+            e.printStackTrace();
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 从输入流中读取一个完整的成员
+     * @param in 输入流
+     * @return 成员的全部字节, 输入流结束时返回 null
+     * @throws IOException
+     */
+    static byte[] readBlock(InputStream in) throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        int n = in.read(header, 0, 1);
+        if (n <= 0) {
+            return null;
+        }
+        readFully(in, header, 1, HEADER_SIZE - 1);
+        int bsize = parseBlockSize(header);
+        byte[] block = new byte[bsize + 1];
+        System.arraycopy(header, 0, block, 0, HEADER_SIZE);
+        readFully(in, block, HEADER_SIZE, block.length - HEADER_SIZE);
+        return block;
+    }
+
+    /**
+     * 从成员头中解析 BSIZE
+     * @param header 成员头 (至少 HEADER_SIZE 个字节)
+     * @return BSIZE, 即成员的字节数减 1
+     */
+    static int parseBlockSize(byte[] header) {
+        if ((header[0] & 0xff) != ID1 || (header[1] & 0xff) != ID2 || (header[2] & 0xff) != CM) {
+            throw new AssertionError("非法的魔法值!");
+        }
+        int xlen = (header[10] & 0xff) | (header[11] & 0xff) << 8;
+        if ((header[3] & FEXTRA) == 0 || xlen != 6 || header[12] != SI1 || header[13] != SI2 || header[14] != 2 || header[15] != 0) {
+            throw new AssertionError("不是 BGZF 格式的成员!");
+        }
+        return (header[16] & 0xff) | (header[17] & 0xff) << 8;
+    }
+
+    /**
+     * 解压一个完整的成员, 并校验 CRC 和 ISIZE
+     * @param block 字节数组
+     * @param off 成员的起始偏移
+     * @param len 成员的字节数
+     * @return 解压后的数据
+     * @throws IOException
+     */
+    static byte[] inflateBlock(byte[] block, int off, int len) throws IOException {
+        int end = off + len;
+        int crc = (block[end - 8] & 0xff) | (block[end - 7] & 0xff) << 8 | (block[end - 6] & 0xff) << 16 | (block[end - 5] & 0xff) << 24;
+        int isize = (block[end - 4] & 0xff) | (block[end - 3] & 0xff) << 8 | (block[end - 2] & 0xff) << 16 | (block[end - 1] & 0xff) << 24;
+
+        BitInputStream bis = new BitInputStream(new ByteArrayInputStream(block, off, len));
+        readHeader(bis);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(isize);
+        Inflater inflater = new Inflater(new DeflateCompressor(null, null, len, false), bis, new BitOutputStream(baos));
+        inflater.process();
+
+        if (crc != inflater.getCRCValue()) {
+            throw new AssertionError(String.format("循环冗余校验失配, 期望值 = %08X, 实际值 = %08X", inflater.getCRCValue(), crc));
+        }
+        if (isize != baos.size()) {
+            throw new AssertionError(String.format("数据长度失配, 期望值 = %d, 实际值 = %d", baos.size(), isize));
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * 从输入流中读满 len 个字节
+     */
+    private static void readFully(InputStream in, byte[] bytes, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = in.read(bytes, off, len);
+            if (n < 0) {
+                throw new EOFException("成员不完整!");
+            }
+            off += n;
+            len -= n;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.ltchen.compression.deflate;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 可随机访问的 BGZF 文件输入流, 位置使用虚拟偏移表示:
+ *         高 48 位为成员在文件中的偏移 (coffset), 低 16 位为数据在成员解压后的偏移 (uoffset)
+ */
+public class BlockedGzipInputStream extends InputStream {
+
+    /**
+     * BGZF 文件
+     */
+    private RandomAccessFile file;
+
+    /**
+     * 当前成员在文件中的偏移
+     */
+    private long blockAddress;
+
+    /**
+     * 下一个成员在文件中的偏移
+     */
+    private long nextBlockAddress;
+
+    /**
+     * 当前成员解压后的数据
+     */
+    private byte[] blockData;
+
+    /**
+     * 当前成员中下一个读取的位置
+     */
+    private int blockOffset;
+
+    /**
+     * 构造 BGZF 文件输入流
+     * @param file BGZF 文件
+     * @throws IOException
+     */
+    public BlockedGzipInputStream(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        blockData = new byte[0];
+        blockOffset = 0;
+        blockAddress = 0;
+        nextBlockAddress = 0;
+    }
+
+    /**
+     * 生成虚拟偏移
+     * @param blockAddress 成员在文件中的偏移
+     * @param blockOffset 数据在成员解压后的偏移
+     * @return 虚拟偏移
+     */
+    public static long makeVirtualOffset(long blockAddress, int blockOffset) {
+        return (blockAddress << 16) | (blockOffset & 0xffff);
+    }
+
+    /**
+     * 返回下一个读取字节的虚拟偏移
+     * @return 虚拟偏移
+     */
+    public long getVirtualOffset() {
+        // 当前成员已读完时, 指向下一个成员的开头
+        if (blockOffset == blockData.length) {
+            return makeVirtualOffset(nextBlockAddress, 0);
+        }
+        return makeVirtualOffset(blockAddress, blockOffset);
+    }
+
+    /**
+     * 跳转到虚拟偏移处, 只需解压一个成员
+     * @param virtualOffset 虚拟偏移
+     * @throws IOException
+     */
+    public void seek(long virtualOffset) throws IOException {
+        long address = virtualOffset >>> 16;
+        int offset = (int) (virtualOffset & 0xffff);
+        if (address != blockAddress || blockData.length == 0) {
+            loadBlock(address);
+        }
+        if (offset > blockData.length) {
+            throw new IOException(String.format("非法的虚拟偏移: %016X", virtualOffset));
+        }
+        blockOffset = offset;
+    }
+
+    /**
+     * 扫描文件中全部成员的偏移, 只读取成员头中的 BSIZE 而不解码
+     * @return 成员在文件中的偏移
+     * @throws IOException
+     */
+    public List<Long> getBlockAddresses() throws IOException {
+        List<Long> addresses = new ArrayList<>();
+        byte[] header = new byte[BlockedGzipCompressor.HEADER_SIZE];
+        long address = 0;
+        long length = file.length();
+        while (address < length) {
+            file.seek(address);
+            file.readFully(header);
+            addresses.add(address);
+            address += BlockedGzipCompressor.parseBlockSize(header) + 1;
+        }
+        // 最后一个成员超出文件结尾时, 文件被截断
+        if (address > length) {
+            throw new EOFException("成员不完整!");
+        }
+        return addresses;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureData()) {
+            return -1;
+        }
+        return blockData[blockOffset++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureData()) {
+            return -1;
+        }
+        int n = Math.min(len, blockData.length - blockOffset);
+        System.arraycopy(blockData, blockOffset, bytes, off, n);
+        blockOffset += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /**
+     * 确保当前成员中还有未读取的数据, 必要时加载后续成员 (跳过空成员)
+     * @return 是否还有数据
+     * @throws IOException
+     */
+    private boolean ensureData() throws IOException {
+        while (blockOffset == blockData.length) {
+            if (nextBlockAddress >= file.length()) {
+                return false;
+            }
+            loadBlock(nextBlockAddress);
+        }
+        return true;
+    }
+
+    /**
+     * 加载并解压文件中偏移为 address 的成员
+     * @param address 成员在文件中的偏移
+     * @throws IOException
+     */
+    private void loadBlock(long address) throws IOException {
+        byte[] header = new byte[BlockedGzipCompressor.HEADER_SIZE];
+        file.seek(address);
+        file.readFully(header);
+        int bsize = BlockedGzipCompressor.parseBlockSize(header);
+        byte[] block = new byte[bsize + 1];
+        System.arraycopy(header, 0, block, 0, header.length);
+        file.readFully(block, header.length, block.length - header.length);
+
+        blockData = BlockedGzipCompressor.inflateBlock(block, 0, block.length);
+        blockAddress = address;
+        nextBlockAddress = address + block.length;
+        blockOffset = 0;
+    }
+}
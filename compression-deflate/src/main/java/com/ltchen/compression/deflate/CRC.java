@@ -44,6 +44,13 @@ public class CRC {
         return ~value;
     }
 
+    /**
+     * 重置校验值
+     */
+    public void reset() {
+        value = 0xffffffff;
+    }
+
     /**
      * 更新校验值
      * @param b 字节
@@ -72,6 +79,66 @@ public class CRC {
         }
     }
 
+    /**
+     * 合并两段数据的 CRC 校验值 (同 zlib 的 crc32_combine), 使多段数据可以分别计算校验值
+     * @param crc1 前一段数据的校验值
+     * @param crc2 后一段数据的校验值
+     * @param len2 后一段数据的字节数
+     * @return 两段数据拼接后的校验值
+     */
+    public static int combine(int crc1, int crc2, long len2) {
+        if (len2 <= 0) {
+            return crc1;
+        }
+        // 偶数次幂与奇数次幂的零比特运算矩阵
+        int[] even = new int[32];
+        int[] odd = new int[32];
+        // 一个零比特的运算矩阵
+        odd[0] = 0xedb88320;
+        int row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        // 两个零比特
+        gf2MatrixSquare(even, odd);
+        // 四个零比特
+        gf2MatrixSquare(odd, even);
+        // 对 crc1 追加 len2 个零字节
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((len2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(even, crc1);
+            }
+            len2 >>= 1;
+            if (len2 == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((len2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(odd, crc1);
+            }
+            len2 >>= 1;
+        } while (len2 != 0);
+        return crc1 ^ crc2;
+    }
+
+    private static int gf2MatrixTimes(int[] mat, int vec) {
+        int sum = 0;
+        for (int i = 0; vec != 0; i++, vec >>>= 1) {
+            if ((vec & 1) != 0) {
+                sum ^= mat[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(int[] square, int[] mat) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+        }
+    }
+
     public static void main(String[] args) {
         String str = "Hello World!";
         CRC crc = new CRC();
@@ -0,0 +1,633 @@
+package com.ltchen.compression.deflate;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 从任意比特偏移开始解压一段 deflate 数据的解压器, 供 ParallelInflater 使用.
+ *         输出为 16 位的符号: 小于 256 的为字节, 其余为标记, 表示数据块开始前窗口中尚未知道的字节
+ */
+class ChunkInflater {
+
+    /**
+     * 窗口大小
+     */
+    static final int WINDOW_SIZE = 32768;
+
+    /**
+     * 标记的起始值: 标记 MARKER + k 表示数据块开始前第 WINDOW_SIZE - k 个字节
+     */
+    static final int MARKER = 256;
+
+    /**
+     * 查找表的比特数, 码长度不超过此值的码可一次查表解出
+     */
+    private static final int TABLE_BITS = 10;
+
+    /**
+     * 码的最大长度
+     */
+    private static final int MAX_BITS = 15;
+
+    /**
+     * 终止标记字符
+     */
+    private static final int END_OF_BLOCK = 256;
+
+    /**
+     * 码长度的频次排序
+     * 见 RFC 1951, 3.2.7 章节 (https://www.ietf.org/rfc/rfc1951.txt)
+     */
+    private static final int[] CODE_LENGTH_ORDER = {16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1, 15};
+
+    /**
+     * 固定霍夫曼码
+     * 见 RFC 1951, 3.2.6 章节 (https://www.ietf.org/rfc/rfc1951.txt)
+     */
+    private static final Huffman FIXED_LIT;
+    private static final Huffman FIXED_DIST;
+    static {
+        int[] lengths = new int[288];
+        Arrays.fill(lengths, 0, 144, 8);
+        Arrays.fill(lengths, 144, 256, 9);
+        Arrays.fill(lengths, 256, 280, 7);
+        Arrays.fill(lengths, 280, 288, 8);
+        FIXED_LIT = new Huffman(288);
+        int[] distLengths = new int[30];
+        Arrays.fill(distLengths, 5);
+        FIXED_DIST = new Huffman(30);
+        try {
+            FIXED_LIT.build(lengths, 288, Huffman.COMPLETE);
+            // 固定 distance 码中 30, 31 未被使用, 码是不完整的
+            FIXED_DIST.build(distLengths, 30, Huffman.INCOMPLETE);
+        } catch (DataFormatException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * 压缩数据
+     */
+    private MappedInput data;
+
+    /**
+     * 压缩数据的结束位置 (不包含)
+     */
+    private long end;
+
+    /**
+     * 下一个读入比特缓冲区的字节位置
+     */
+    private long bytePos;
+
+    /**
+     * 比特缓冲区, 低位为先读入的比特
+     */
+    private long bitBuf;
+
+    /**
+     * 比特缓冲区中的比特数
+     */
+    private int bitCount;
+
+    /**
+     * 动态霍夫曼码, 每个解压器复用
+     */
+    private Huffman lit = new Huffman(288);
+    private Huffman dist = new Huffman(30);
+    private Huffman clen = new Huffman(19);
+    private int[] lengths = new int[286 + 30];
+    private int[] clenLengths = new int[19];
+
+    /**
+     * 输出的符号, 交给 Chunk 后置为 null; 猜测失败时复用 (前 WINDOW_SIZE 个标记不会被改写)
+     */
+    private char[] out;
+
+    /**
+     * 输出的符号数
+     */
+    private int outPos;
+
+    ChunkInflater(MappedInput data, long end) {
+        this.data = data;
+        this.end = end;
+    }
+
+    /**
+     * 从 startBit 开始解压, 直到最后一个压缩数据块或者第一个不小于 stopBit 的块边界
+     * @param startBit 起始比特偏移 (须为块的开头)
+     * @param stopBit 停止比特偏移
+     * @param window 已知的窗口, 为 null 时使用标记代替
+     * @return 解压结果
+     * @throws DataFormatException 数据无效
+     */
+    Chunk inflate(long startBit, long stopBit, byte[] window) throws DataFormatException {
+        seek(startBit);
+        int prefix;
+        if (window == null) {
+            prefix = WINDOW_SIZE;
+            out = new char[prefix + (WINDOW_SIZE << 2)];
+            for (int i = 0; i < prefix; i++) {
+                out[i] = (char) (MARKER + i);
+            }
+        } else {
+            prefix = window.length;
+            out = new char[prefix + (WINDOW_SIZE << 2)];
+            for (int i = 0; i < prefix; i++) {
+                out[i] = (char) (window[i] & 0xff);
+            }
+        }
+        outPos = prefix;
+        return inflateBlocks(startBit, stopBit, prefix, inflateBlock());
+    }
+
+    /**
+     * 猜测 bit 处是一个动态霍夫曼码数据块的开头: 校验块头并以标记窗口试解压这个数据块,
+     * 成功时接着解压到第一个不小于 stopBit 的块边界. 块头和第一个数据块只解码一次
+     * @param bit 比特偏移
+     * @param stopBit 停止比特偏移
+     * @return 解压结果, bit 处不是合法的数据块开头时返回 null
+     * @throws DataFormatException 第一个数据块之后的数据无效
+     */
+    Chunk inflateGuess(long bit, long stopBit) throws DataFormatException {
+        if (bit + 17 > end << 3) {
+            return null;
+        }
+        // 快速过滤: BFINAL = 0, BTYPE = 2, HLIT <= 29, HDIST <= 29
+        long b = bit >>> 3;
+        int shift = (int) (bit & 7);
+        int v = (data.get(b) | data.get(b + 1) << 8 | (b + 2 < end ? data.get(b + 2) << 16 : 0)) >>> shift;
+        if ((v & 7) != 4 || ((v >>> 3) & 31) > 29 || ((v >>> 8) & 31) > 29) {
+            return null;
+        }
+        try {
+            seek(bit);
+            bits(3);
+            loadDynamicHuffmanCodes();
+            // 使用标记窗口试解压此数据块
+            if (out == null) {
+                out = new char[WINDOW_SIZE + (WINDOW_SIZE << 2)];
+                for (int i = 0; i < WINDOW_SIZE; i++) {
+                    out[i] = (char) (MARKER + i);
+                }
+            }
+            outPos = WINDOW_SIZE;
+            inflateHuffmanBlock(lit, dist);
+        } catch (DataFormatException e) {
+            return null;
+        }
+        return inflateBlocks(bit, stopBit, WINDOW_SIZE, false);
+    }
+
+    /**
+     * 接着解压, 直到最后一个压缩数据块或者第一个不小于 stopBit 的块边界
+     * @param startBit 起始比特偏移
+     * @param stopBit 停止比特偏移
+     * @param prefix 窗口的符号数
+     * @param last 已解压的数据块是否为最后一个
+     * @return 解压结果
+     * @throws DataFormatException 数据无效
+     */
+    private Chunk inflateBlocks(long startBit, long stopBit, int prefix, boolean last) throws DataFormatException {
+        while (!last && position() < stopBit) {
+            last = inflateBlock();
+        }
+        Chunk chunk = new Chunk(startBit, position(), last, out, prefix, outPos);
+        out = null;
+        return chunk;
+    }
+
+    /**
+     * 返回当前的比特偏移
+     * @return 比特偏移
+     */
+    long position() {
+        return (bytePos << 3) - bitCount;
+    }
+
+    /**
+     * 移动到比特偏移处
+     * @param bit 比特偏移
+     */
+    private void seek(long bit) {
+        bytePos = bit >>> 3;
+        bitBuf = 0;
+        bitCount = 0;
+        int skip = (int) (bit & 7);
+        if (skip > 0) {
+            refill();
+            bitBuf >>>= skip;
+            bitCount -= skip;
+        }
+    }
+
+    /**
+     * 向比特缓冲区中读入字节
+     */
+    private void refill() {
+        // 一次读入 8 个字节, 只保留能放入缓冲区的整字节
+        if (bitCount <= 56 && bytePos + 8 <= end && data.hasLong(bytePos)) {
+            int n = (63 - bitCount) >>> 3;
+            bitBuf |= data.getLong(bytePos) << bitCount;
+            bytePos += n;
+            bitCount += n << 3;
+            if (bitCount < 64) {
+                bitBuf &= (1L << bitCount) - 1;
+            }
+            return;
+        }
+        while (bitCount <= 56 && bytePos < end) {
+            bitBuf |= (long) data.get(bytePos++) << bitCount;
+            bitCount += 8;
+        }
+    }
+
+    /**
+     * 读取 n 个比特
+     * @param n 比特数
+     * @return 比特的值
+     * @throws DataFormatException 数据不足
+     */
+    private int bits(int n) throws DataFormatException {
+        if (bitCount < n) {
+            refill();
+            if (bitCount < n) {
+                throw new DataFormatException("数据意外结束");
+            }
+        }
+        int val = (int) (bitBuf & ((1L << n) - 1));
+        bitBuf >>>= n;
+        bitCount -= n;
+        return val;
+    }
+
+    /**
+     * 解码一个符号
+     * @param h 霍夫曼码
+     * @return 符号
+     * @throws DataFormatException 无效的码
+     */
+    private int decode(Huffman h) throws DataFormatException {
+        if (bitCount < MAX_BITS) {
+            refill();
+        }
+        int entry = h.table[(int) (bitBuf & ((1 << TABLE_BITS) - 1))];
+        if (entry != 0) {
+            int len = entry & 15;
+            if (len > bitCount) {
+                throw new DataFormatException("数据意外结束");
+            }
+            bitBuf >>>= len;
+            bitCount -= len;
+            return entry >>> 4;
+        }
+        // 码长度超过查找表时逐比特按范式霍夫曼码解码
+        int code = 0;
+        int first = 0;
+        int index = 0;
+        for (int len = 1; len <= MAX_BITS && len <= bitCount; len++) {
+            code |= (int) (bitBuf >>> (len - 1)) & 1;
+            int count = h.counts[len];
+            if (code - count < first) {
+                bitBuf >>>= len;
+                bitCount -= len;
+                return h.symbols[index + (code - first)];
+            }
+            index += count;
+            first += count;
+            first <<= 1;
+            code <<= 1;
+        }
+        throw new DataFormatException("找不到对应的码");
+    }
+
+    /**
+     * 解压一个压缩数据块
+     * @return 是否为最后一个压缩数据块
+     * @throws DataFormatException 数据无效
+     */
+    private boolean inflateBlock() throws DataFormatException {
+        int bFinal = bits(1);
+        int bType = bits(2);
+        if (bType == 0) {
+            inflateStoredBlock();
+        } else if (bType == 1) {
+            inflateHuffmanBlock(FIXED_LIT, FIXED_DIST);
+        } else if (bType == 2) {
+            loadDynamicHuffmanCodes();
+            inflateHuffmanBlock(lit, dist);
+        } else {
+            throw new DataFormatException("无效的数据块类型!");
+        }
+        return bFinal == 1;
+    }
+
+    /**
+     * 处理非压缩数据块
+     * 见 RFC 1951, 3.2.4 章节 (https://www.ietf.org/rfc/rfc1951.txt)
+     */
+    private void inflateStoredBlock() throws DataFormatException {
+        // 对齐到字节边界
+        bits(bitCount & 7);
+        int len = bits(16);
+        int nLen = bits(16);
+        if (len != (nLen ^ 0xffff)) {
+            throw new DataFormatException("无效的非压缩数据块类型!");
+        }
+        // 退回比特缓冲区中尚未使用的字节, 直接拷贝
+        long pos = position() >>> 3;
+        if (pos + len > end) {
+            throw new DataFormatException("数据意外结束");
+        }
+        ensureCapacity(len);
+        for (int i = 0; i < len; i++) {
+            out[outPos++] = (char) data.get(pos + i);
+        }
+        seek((pos + len) << 3);
+    }
+
+    /**
+     * 使用霍夫曼码处理压缩数据块
+     * @param litCodes literal/length 码
+     * @param distCodes distance 码
+     * @throws DataFormatException 数据无效
+     */
+    private void inflateHuffmanBlock(Huffman litCodes, Huffman distCodes) throws DataFormatException {
+        while (true) {
+            int sym = decode(litCodes);
+            if (sym < END_OF_BLOCK) {
+                if (outPos == out.length) {
+                    ensureCapacity(1);
+                }
+                out[outPos++] = (char) sym;
+            } else if (sym == END_OF_BLOCK) {
+                return;
+            } else {
+                // 计算长度码并转换为长度值
+                sym -= 257;
+                if (sym >= 29) {
+                    throw new DataFormatException("无效的长度码");
+                }
+                int len = LZ77Pair.LEN_LOWS[sym] + bits(LZ77Pair.LEN_EXTRA_BITS[sym]);
+                // 计算距离码并转换为距离值
+                int distCode = decode(distCodes);
+                if (distCode >= 30) {
+                    throw new DataFormatException("无效的距离码");
+                }
+                int d = LZ77Pair.DIST_LOWS[distCode] + bits(LZ77Pair.DIST_EXTRA_BITS[distCode]);
+                if (d > outPos) {
+                    throw new DataFormatException("距离超出窗口");
+                }
+                ensureCapacity(len);
+                // 逐个拷贝, 源与目标可能重叠
+                int from = outPos - d;
+                for (int i = 0; i < len; i++) {
+                    out[outPos++] = out[from + i];
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取动态霍夫曼码
+     * 见 RFC 1951, 3.2.7 章节 (https://www.ietf.org/rfc/rfc1951.txt)
+     */
+    private void loadDynamicHuffmanCodes() throws DataFormatException {
+        int hLit = 257 + bits(5);
+        int hDist = 1 + bits(5);
+        int hCLen = 4 + bits(4);
+        if (hLit > 286 || hDist > 30) {
+            throw new DataFormatException("码的个数过多");
+        }
+        Arrays.fill(clenLengths, 0);
+        for (int i = 0; i < hCLen; i++) {
+            clenLengths[CODE_LENGTH_ORDER[i]] = bits(3);
+        }
+        clen.build(clenLengths, 19, Huffman.COMPLETE);
+
+        // 解压 literal/distance 的码的长度序列
+        int n = hLit + hDist;
+        for (int i = 0; i < n; ) {
+            int code = decode(clen);
+            if (code < 16) {
+                lengths[i++] = code;
+                continue;
+            }
+            int c = 0;
+            int repeat;
+            if (code == 16) {
+                if (i == 0) {
+                    throw new DataFormatException("没有可重复的码长度");
+                }
+                c = lengths[i - 1];
+                repeat = 3 + bits(2);
+            } else if (code == 17) {
+                repeat = 3 + bits(3);
+            } else {
+                repeat = 11 + bits(7);
+            }
+            if (i + repeat > n) {
+                throw new DataFormatException("码长度过多");
+            }
+            for (int j = 0; j < repeat; j++) {
+                lengths[i++] = c;
+            }
+        }
+        if (lengths[END_OF_BLOCK] == 0) {
+            throw new DataFormatException("缺少块结束标记的码");
+        }
+
+        // 构建 literal 码和 distance 码 (只有一个码时允许不完整)
+        lit.build(lengths, hLit, Huffman.SINGLE);
+        System.arraycopy(lengths, hLit, lengths, 0, hDist);
+        dist.build(lengths, hDist, Huffman.SINGLE);
+    }
+
+    /**
+     * 确保输出中还能放入 n 个符号
+     * @param n 符号数
+     */
+    private void ensureCapacity(int n) {
+        if (outPos + n > out.length) {
+            out = Arrays.copyOf(out, Math.max(out.length << 1, outPos + n));
+        }
+    }
+
+    /**
+     * 范式霍夫曼码的解码表
+     */
+    private static class Huffman {
+
+        /**
+         * 码必须完整
+         */
+        static final int COMPLETE = 0;
+
+        /**
+         * 只有一个码 (或没有码) 时允许不完整, 同 zlib
+         */
+        static final int SINGLE = 1;
+
+        /**
+         * 允许不完整
+         */
+        static final int INCOMPLETE = 2;
+
+        /**
+         * 查找表, 以码的前 TABLE_BITS 个比特 (逆序) 为下标, 值为 (符号 << 4 | 码长度), 0 表示码长度超过查找表
+         */
+        int[] table = new int[1 << TABLE_BITS];
+
+        /**
+         * 每种长度的码的个数
+         */
+        int[] counts = new int[MAX_BITS + 1];
+
+        /**
+         * 按码排序的符号
+         */
+        int[] symbols;
+
+        /**
+         * 码的最大长度
+         */
+        int maxLen;
+
+        private int[] offsets = new int[MAX_BITS + 2];
+
+        Huffman(int n) {
+            symbols = new int[n];
+        }
+
+        /**
+         * 利用码长度构建解码表, 先校验码长度再填充查找表, 使猜测数据块开头时能尽早排除
+         * @param lengths 码长度
+         * @param n 符号数
+         * @param mode 对不完整的码的处理方式
+         * @throws DataFormatException 码长度过多 (超出 Kraft 不等式) 或码不完整
+         */
+        void build(int[] lengths, int n, int mode) throws DataFormatException {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                counts[lengths[i]]++;
+            }
+            counts[0] = 0;
+            maxLen = 0;
+            int left = 1;
+            for (int len = 1; len <= MAX_BITS; len++) {
+                left <<= 1;
+                left -= counts[len];
+                if (left < 0) {
+                    throw new DataFormatException("码长度过多");
+                }
+                if (counts[len] > 0) {
+                    maxLen = len;
+                }
+            }
+            if (left > 0 && (mode == COMPLETE || (mode == SINGLE && maxLen > 1))) {
+                throw new DataFormatException("码不完整");
+            }
+
+            // 按码长度和符号排序
+            offsets[1] = 0;
+            for (int len = 1; len <= MAX_BITS; len++) {
+                offsets[len + 1] = offsets[len] + counts[len];
+            }
+            for (int i = 0; i < n; i++) {
+                if (lengths[i] != 0) {
+                    symbols[offsets[lengths[i]]++] = i;
+                }
+            }
+
+            // 填充查找表
+            Arrays.fill(table, 0);
+            int code = 0;
+            int index = 0;
+            for (int len = 1; len <= TABLE_BITS; len++) {
+                for (int i = 0; i < counts[len]; i++) {
+                    int entry = symbols[index++] << 4 | len;
+                    int reversed = Integer.reverse(code++) >>> (32 - len);
+                    for (int j = reversed; j < table.length; j += 1 << len) {
+                        table[j] = entry;
+                    }
+                }
+                code <<= 1;
+            }
+        }
+    }
+
+    /**
+     * 解压出的一段数据
+     */
+    static class Chunk {
+
+        /**
+         * 起始比特偏移
+         */
+        final long startBit;
+
+        /**
+         * 结束比特偏移
+         */
+        final long endBit;
+
+        /**
+         * 是否包含最后一个压缩数据块
+         */
+        final boolean last;
+
+        /**
+         * 输出的符号, 前 prefix 个为窗口
+         */
+        final char[] symbols;
+
+        final int prefix;
+
+        final int length;
+
+        Chunk(long startBit, long endBit, boolean last, char[] symbols, int prefix, int length) {
+            this.startBit = startBit;
+            this.endBit = endBit;
+            this.last = last;
+            this.symbols = symbols;
+            this.prefix = prefix;
+            this.length = length;
+        }
+
+        /**
+         * 返回数据的字节数 (不包括窗口)
+         * @return 字节数
+         */
+        int size() {
+            return length - prefix;
+        }
+
+        /**
+         * 利用前一段数据末尾的窗口替换标记, 得到 [from, to) 范围内的字节
+         * @param window 窗口 (至多 WINDOW_SIZE 个字节)
+         * @param from 起始位置 (相对于数据开头)
+         * @param to 结束位置 (相对于数据开头)
+         * @return 字节
+         */
+        byte[] resolve(byte[] window, int from, int to) {
+            byte[] bytes = new byte[to - from];
+            int base = WINDOW_SIZE - window.length;
+            for (int i = from; i < to; i++) {
+                int c = symbols[prefix + i];
+                if (c < MARKER) {
+                    bytes[i - from] = (byte) c;
+                } else {
+                    int k = c - MARKER - base;
+                    if (k < 0) {
+                        throw new AssertionError("距离超出数据开头!");
+                    }
+                    bytes[i - from] = window[k];
+                }
+            }
+            return bytes;
+        }
+    }
+}
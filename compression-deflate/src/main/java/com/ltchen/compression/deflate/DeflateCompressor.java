@@ -24,16 +24,16 @@ public class DeflateCompressor implements Compressor {
     /**
      * 第一个魔法值: 0x1f
      */
-    private final static int ID1 = 31;
+    protected final static int ID1 = 31;
     /**
      * 第二个魔法值: 0x8b
      */
-    private final static int ID2 = 139;
+    protected final static int ID2 = 139;
 
     /**
      * 压缩方法标识, 8 既是 deflate 压缩
      */
-    private final static int CM = 8;
+    protected final static int CM = 8;
 
     /**
      * 头标识标志
@@ -102,6 +102,11 @@ public class DeflateCompressor implements Compressor {
      */
     private long lastPercent;
 
+    /**
+     * 压缩策略, 见 Deflater.DEFAULT_STRATEGY, FILTERED, HUFFMAN_ONLY, RLE
+     */
+    private int strategy = Deflater.DEFAULT_STRATEGY;
+
 
     @Override
     public void compress(InputStream in, OutputStream out) {
@@ -143,49 +148,117 @@ public class DeflateCompressor implements Compressor {
         BitOutputStream bos = new BitOutputStream(out);
 
         try {
-            // 读取文件头中的魔法值并校验
+            // 依次解压每个成员 (如 cat a.gz b.gz 拼接的文件), 各成员共用一个解压器
+            Inflater inflater = new Inflater(this, bis, bos);
             int id1 = bis.readByte();
-            int id2 = bis.readByte();
-            if (id1 != ID1 || id2 != ID2) {
-                throw new AssertionError("非法的魔法值!");
-            }
-            // 读取文件头中的压缩方法标记并校验
-            int cm = bis.readByte();
-            if (cm != CM) {
-                throw new AssertionError("不支持的压缩方法!");
-            }
-            // 读取文件头中的文件标记
-            int flg = bis.readByte();
-            if ((flg & (FTEXT | FHCRC | FEXTRA | FNAME | FCOMMENT)) != 0) {
-                //throw new AssertionError("不支持的扩展标记");
-            }
-            // 跳过文件头后续 6 个字节
-            bis.skipBytes(6);
-
-            if ((flg & FNAME) != 0) {
-                int b;
-                do {
-                    b = bis.readByte();
-                } while (b != 0);
-            }
+            do {
+                // 读取文件头
+                readHeader(bis, id1);
 
-            // 解压数据并写出
-            Inflater inflater = new Inflater(this, bis, bos);
-            inflater.process();
+                // 解压数据并写出
+                long start = bos.getCount();
+                inflater.reset();
+                inflater.process();
 
-            // 读取文件尾
-            int crc = bis.readInt();
-            if (crc != inflater.getCRCValue()) {
-                throw new AssertionError(String.format("循环冗余校验失配, 期望值 = %08X, 实际值 = %08X", inflater.getCRCValue(), crc));
-            }
-            bis.readUnsignedInt();
-            // 显示处理进度
-            updateProgress(bis.getCount());
+                // 读取文件尾
+                int crc = bis.readInt();
+                if (crc != inflater.getCRCValue()) {
+                    throw new AssertionError(String.format("循环冗余校验失配, 期望值 = %08X, 实际值 = %08X", inflater.getCRCValue(), crc));
+                }
+                int isize = bis.readInt();
+                if (isize != (int) (bos.getCount() - start)) {
+                    throw new AssertionError(String.format("数据长度失配, 期望值 = %d, 实际值 = %d", (int) (bos.getCount() - start), isize));
+                }
+                // 显示处理进度
+                updateProgress(bis.getCount());
+            } while ((id1 = nextMember(bis)) != -1);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * 读取下一个成员的第一个字节. 最后一个成员之后全为 0 的填充 (如按块对齐写入磁带) 同 gzip 和 GZIPInputStream 一样忽略
+     * @param bis 比特输入流
+     * @return 下一个成员的第一个字节, 没有下一个成员时返回 -1
+     * @throws IOException
+     */
+    private static int nextMember(BitInputStream bis) throws IOException {
+        int b = bis.read();
+        if (b != 0) {
+            return b;
+        }
+        while ((b = bis.read()) == 0) {
+        }
+        if (b != -1) {
+            throw new AssertionError("成员之后的填充中有非零字节!");
+        }
+        return -1;
+    }
+
+    /**
+     * 读取并校验文件头, 跳过其中的扩展字段, 文件名, 注释和头部校验值
+     * @param bis 比特输入流
+     * @return 文件头标识
+     * @throws IOException
+     */
+    protected static int readHeader(BitInputStream bis) throws IOException {
+        return readHeader(bis, bis.readByte());
+    }
+
+    /**
+     * 读取并校验第一个字节已被读取的文件头
+     * @param bis 比特输入流
+     * @param id1 已读取的第一个字节
+     * @return 文件头标识
+     * @throws IOException
+     */
+    protected static int readHeader(BitInputStream bis, int id1) throws IOException {
+        // 读取文件头中的魔法值并校验
+        int id2 = bis.readByte();
+        if (id1 != ID1 || id2 != ID2) {
+            throw new AssertionError("非法的魔法值!");
+        }
+        // 读取文件头中的压缩方法标记并校验
+        int cm = bis.readByte();
+        if (cm != CM) {
+            throw new AssertionError("不支持的压缩方法!");
+        }
+        // 读取文件头中的文件标记
+        int flg = bis.readByte();
+        // 跳过文件头后续 6 个字节
+        bis.skipBytes(6);
+
+        // 跳过扩展字段: XLEN (2 字节) + 扩展数据
+        if ((flg & FEXTRA) != 0) {
+            bis.skipBytes(bis.readShort());
+        }
+        // 跳过以 0 结尾的文件名和注释
+        if ((flg & FNAME) != 0) {
+            skipZeroTerminated(bis);
+        }
+        if ((flg & FCOMMENT) != 0) {
+            skipZeroTerminated(bis);
+        }
+        // 跳过 2 字节的头部校验值
+        if ((flg & FHCRC) != 0) {
+            bis.skipBytes(2);
+        }
+        return flg;
+    }
+
+    /**
+     * 跳过以 0 结尾的字符串
+     * @param bis 比特输入流
+     * @throws IOException
+     */
+    private static void skipZeroTerminated(BitInputStream bis) throws IOException {
+        int b;
+        do {
+            b = bis.readByte();
+        } while (b != 0);
+    }
+
     public DeflateCompressor(String filePath, String fileName, long fileSize, boolean showProgress) {
         this.filePath = filePath;
         this.fileName = fileName;
@@ -194,6 +267,22 @@ public class DeflateCompressor implements Compressor {
         lastPercent = -1;
     }
 
+    /**
+     * 设置压缩策略 (与 zlib 相同): 默认; 过滤, 短匹配作为字面量, 适用于经过预测滤波的数据;
+     * 只用霍夫曼编码, 最快, 适用于几乎没有重复串的数据; 只匹配游程, 适用于大段相同字节的数据 (如图像)
+     * @param strategy Deflater.DEFAULT_STRATEGY, FILTERED, HUFFMAN_ONLY 或 RLE
+     */
+    public void setStrategy(int strategy) {
+        if (strategy < Deflater.DEFAULT_STRATEGY || strategy > Deflater.RLE) {
+            throw new AssertionError("非法的压缩策略: " + strategy);
+        }
+        this.strategy = strategy;
+    }
+
+    public int getStrategy() {
+        return strategy;
+    }
+
     public void updateProgress(long readBytes){
         if (showProgress) {
             long percent = readBytes * 100 / fileSize;
@@ -43,6 +43,20 @@ public class Deflater {
      */
     private static boolean ENABLE_LZ77 = true;
 
+    /**
+     * 压缩策略 (与 zlib 的 strategy 参数相同): 默认, 过滤 (短匹配作为字面量), 只用霍夫曼编码, 只匹配距离为 1 的游程
+     */
+    public final static int DEFAULT_STRATEGY = 0;
+    public final static int FILTERED = 1;
+    public final static int HUFFMAN_ONLY = 2;
+    public final static int RLE = 3;
+
+    /**
+     * 过滤策略下的最小匹配长度: 与 zlib 相同, 长度不超过 5 的匹配作为字面量写出.
+     * 适用于经过预测滤波 (如 PNG 的行滤波) 的数据, 这类数据中的短匹配多为偶然, 其代价常高于字面量
+     */
+    private final static int FILTERED_MIN_MATCH = 6;
+
     /**
      * 缓冲区大小
      */
@@ -84,12 +98,23 @@ public class Deflater {
      */
     private int remainBits;
 
+    /**
+     * 预置字典, 压缩前预先加载到滑动窗口中
+     */
+    private byte[] dictionary;
+
+    /**
+     * 压缩策略
+     */
+    private int strategy;
+
     private DeflateCompressor dc;
 
     public Deflater(DeflateCompressor dc, BitInputStream in, BitOutputStream out) {
         this.dc = dc;
         this.in = in;
         this.out = out;
+        strategy = dc.getStrategy();
         crc = new CRC();
         remainBits = 0;
     }
@@ -98,13 +123,22 @@ public class Deflater {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         BitOutputStream bos = new BitOutputStream(baos);
 
-        // 创建缓冲区和滑动窗口
-        byte[] buffer = new byte[BUFFER_SIZE];
+        // 创建滑动窗口, 输入直接读入窗口的缓冲区 (大小为窗口的 2 倍), 匹配在原处引用, 不再逐字节拷贝
         LZ77Window window = new LZ77Window(WINDOW_SIZE);
+        byte[] buffer = window.getBuffer();
+        // 只用霍夫曼编码和只匹配游程时不会查询哈希链, 无需维护匹配索引
+        boolean lz77 = ENABLE_LZ77 && strategy != HUFFMAN_ONLY;
+        window.setIndexed(lz77 && strategy != RLE);
+        // 预先加载字典, 使数据开头即可引用字典中的串
+        if (dictionary != null) {
+            window.add(dictionary);
+        }
 
         // 最大为 BUFFER_SIZE, 即 2^16
+        int start;
         int len;
-        while ((len = in.read(buffer, 0, BUFFER_SIZE)) > 0) {
+        while ((len = in.read(buffer, start = window.reserve(BUFFER_SIZE), BUFFER_SIZE)) > 0) {
+            int end = start + len;
             // 显示进度
             dc.updateProgress(in.getCount());
 
@@ -117,7 +151,7 @@ public class Deflater {
             }
 
             // 更新冗余循环校验
-            crc.update(buffer, 0, len);
+            crc.update(buffer, start, len);
 
             /*
              * 无压缩写出
@@ -126,9 +160,9 @@ public class Deflater {
             if (BTYPE == 0) {
                 bos.writeShort(len);
                 bos.writeShort(len ^ 0xffff);
-                bos.write(buffer, 0, len);
-                // TODO 不懂这里窗口是用于做什么 ???
-                window.add(buffer, 0 , len);
+                bos.write(buffer, start, len);
+                // 之后的块仍可以引用这些字节
+                window.advance(len);
                 remainBits = 0;
                 continue;
             }
@@ -140,17 +174,22 @@ public class Deflater {
             int[] clenFreq = new int[CODE_LENGTH_COUNT];
 
             // 查询匹配串, 并统计 literal, distance 的频次
-            for (int i = 0; i < len; i++) {
+            for (int i = start; i < end; i++) {
                 LZ77Pair pair = null;
-                if (ENABLE_LZ77) {
-                    // 在滑动窗口中匹配
-                    pair = window.find(buffer, i, len);
+                if (lz77) {
+                    if (strategy == RLE) {
+                        // 只匹配与前一个字节相同的游程
+                        pair = window.findRun(buffer, i, end);
+                    } else {
+                        // 在滑动窗口中匹配
+                        pair = window.find(buffer, i, end, strategy == FILTERED ? FILTERED_MIN_MATCH : LZ77Window.MIN_MATCH);
+                    }
                 }
                 if (pair != null) {
-                    // 在 buffer 的第 i 个字节匹配到的
-                    pairs[i] = pair;
-                    // 将匹配到的字节添加到滑动窗口中
-                    window.add(buffer, i, pair.len);
+                    // 在本块的第 i - start 个字节匹配到的
+                    pairs[i - start] = pair;
+                    // 将匹配到的字节加入滑动窗口 (已在缓冲区中)
+                    window.advance(pair.len);
                     // 向后移动已匹配的字节数
                     i += (pair.len - 1);
                     // 更新距离码的频次
@@ -159,7 +198,7 @@ public class Deflater {
                     litFreq[pair.lenCode]++;
                 } else {
                     // 将字节加入窗口
-                    window.add(buffer[i]);
+                    window.advance(1);
                     // 更新字符频次
                     litFreq[buffer[i] & 0xff]++;
                 }
@@ -274,7 +313,7 @@ public class Deflater {
                     i += (pair.len - 1);
                 } else {
                     // 为匹配的字节, 无符号写出
-                    int litCode = buffer[i] & 0xff;
+                    int litCode = buffer[start + i] & 0xff;
                     bos.writeBitsR(litCodes[litCode], litCodeLens[litCode]);
                 }
             }
@@ -340,6 +379,14 @@ public class Deflater {
         }
     }
 
+    /**
+     * 设置预置字典 (需在 process 之前调用, 超过窗口大小时只有最后的部分有效)
+     * @param dictionary 字典
+     */
+    public void setDictionary(byte[] dictionary) {
+        this.dictionary = dictionary;
+    }
+
     /**
      * 获取 CRC 校验值
      * @return
@@ -0,0 +1,324 @@
+package com.ltchen.compression.deflate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 预置字典训练器, 使用 COVER 算法 (同 zstd) 从样本中挑选覆盖高频子串最多的片段组成字典
+ */
+public class DictionaryTrainer {
+
+    /**
+     * 字典最大大小 (deflate 的窗口大小)
+     */
+    public static final int MAX_DICT_SIZE = 32768;
+
+    /**
+     * 调参时尝试的片段长度
+     */
+    private static final int[] SEGMENT_SIZES = {64, 128, 256, 512, 1024};
+
+    /**
+     * 调参时尝试的 d-mer 长度 (最大为 8, 以便将 d-mer 装入一个 long)
+     */
+    private static final int[] DMER_SIZES = {6, 8};
+
+    /**
+     * 每 HOLD_OUT_STRIDE 个样本中取一个作为验证样本 (用于挑选参数), 一个作为留出样本 (只用于统计压缩效果)
+     */
+    private static final int HOLD_OUT_STRIDE = 10;
+
+    /**
+     * 连续多少次选不出有效片段后停止
+     */
+    private static final int MAX_ZERO_SCORE_EPOCHS = 10;
+
+    /**
+     * 字典大小
+     */
+    private int dictSize;
+
+    /**
+     * 片段长度 k
+     */
+    private int segmentSize;
+
+    /**
+     * d-mer 长度 d
+     */
+    private int dmerSize;
+
+    /**
+     * 构造字典训练器
+     * @param dictSize 字典大小
+     * @param segmentSize 片段长度
+     * @param dmerSize d-mer 长度
+     */
+    public DictionaryTrainer(int dictSize, int segmentSize, int dmerSize) {
+        if (dictSize <= 0 || dictSize > MAX_DICT_SIZE) {
+            throw new AssertionError("字典大小必须在 1 - " + MAX_DICT_SIZE + " 之间!");
+        }
+        if (dmerSize < 2 || dmerSize > 8 || segmentSize < dmerSize) {
+            throw new AssertionError("非法的片段长度或 d-mer 长度!");
+        }
+        this.dictSize = dictSize;
+        this.segmentSize = segmentSize;
+        this.dmerSize = dmerSize;
+    }
+
+    /**
+     * 从样本中训练字典
+     * @param samples 样本
+     * @return 字典 (越有价值的片段越靠近字典末尾, 即距离数据越近)
+     */
+    public byte[] train(List<byte[]> samples) {
+        // 拼接样本
+        int total = 0;
+        for (byte[] sample : samples) {
+            total += sample.length;
+        }
+        byte[] data = new byte[total];
+        // 每个位置上 d-mer 的编号, -1 表示 d-mer 跨越了样本边界
+        int[] ids = new int[total];
+        Arrays.fill(ids, -1);
+        Map<Long, Integer> idMap = new HashMap<>();
+        int off = 0;
+        for (byte[] sample : samples) {
+            System.arraycopy(sample, 0, data, off, sample.length);
+            long dmer = 0;
+            for (int i = 0; i < sample.length; i++) {
+                dmer = (dmer << 8) | (sample[i] & 0xff);
+                if (i >= dmerSize - 1) {
+                    if (dmerSize < 8) {
+                        dmer &= (1L << (dmerSize * 8)) - 1;
+                    }
+                    Integer id = idMap.get(dmer);
+                    if (id == null) {
+                        id = idMap.size();
+                        idMap.put(dmer, id);
+                    }
+                    ids[off + i - dmerSize + 1] = id;
+                }
+            }
+            off += sample.length;
+        }
+
+        // 统计每个 d-mer 出现的频次
+        int[] freqs = new int[idMap.size()];
+        for (int id : ids) {
+            if (id >= 0) {
+                freqs[id]++;
+            }
+        }
+
+        /*
+         * 将数据划分为若干轮次 (epoch), 每轮从对应区间中选出得分最高的片段放入字典,
+         * 片段得分为其中不重复 d-mer 的频次之和, 被选中的 d-mer 频次置零避免重复覆盖
+         */
+        byte[] dict = new byte[dictSize];
+        int tail = dictSize;
+        int epochs = Math.max(1, dictSize / segmentSize);
+        int epochSize = Math.max(segmentSize, total / epochs);
+        epochs = Math.max(1, total / epochSize);
+        int[] activeCounts = new int[freqs.length];
+        int zeroScoreEpochs = 0;
+        for (int epoch = 0; tail > 0 && zeroScoreEpochs < MAX_ZERO_SCORE_EPOCHS; epoch = (epoch + 1) % epochs) {
+            int begin = epoch * epochSize;
+            int end = epoch == epochs - 1 ? total : begin + epochSize;
+            int[] segment = selectSegment(ids, freqs, activeCounts, begin, end);
+            if (segment == null) {
+                zeroScoreEpochs++;
+                continue;
+            }
+            zeroScoreEpochs = 0;
+            // 从字典末尾向前填充
+            int len = Math.min(segment[1] - segment[0], tail);
+            tail -= len;
+            System.arraycopy(data, segment[1] - len, dict, tail, len);
+        }
+        // 样本不足以填满字典时返回实际大小
+        return tail == 0 ? dict : Arrays.copyOfRange(dict, tail, dictSize);
+    }
+
+    /**
+     * 在区间 [begin, end) 中选出得分最高的片段, 并将片段中 d-mer 的频次置零
+     * @return [片段起始, 片段结束), 得分为 0 时返回 null
+     */
+    private int[] selectSegment(int[] ids, int[] freqs, int[] activeCounts, int begin, int end) {
+        // 一个片段中 d-mer 的个数
+        int dmers = segmentSize - dmerSize + 1;
+        long score = 0;
+        long bestScore = 0;
+        int bestBegin = -1;
+        for (int i = begin; i < end; i++) {
+            // 加入新的 d-mer
+            int id = ids[i];
+            if (id >= 0 && activeCounts[id]++ == 0) {
+                score += freqs[id];
+            }
+            // 移出滑出片段的 d-mer
+            int j = i - dmers;
+            if (j >= begin) {
+                int old = ids[j];
+                if (old >= 0 && --activeCounts[old] == 0) {
+                    score -= freqs[old];
+                }
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestBegin = Math.max(begin, i - dmers + 1);
+            }
+        }
+        // 复原计数
+        for (int i = Math.max(begin, end - dmers); i < end; i++) {
+            if (ids[i] >= 0) {
+                activeCounts[ids[i]] = 0;
+            }
+        }
+        if (bestScore == 0) {
+            return null;
+        }
+
+        // 去掉片段两端频次为 0 的 d-mer
+        int bestEnd = Math.min(bestBegin + dmers, end);
+        while (bestBegin < bestEnd && (ids[bestBegin] < 0 || freqs[ids[bestBegin]] == 0)) {
+            bestBegin++;
+        }
+        while (bestEnd > bestBegin && (ids[bestEnd - 1] < 0 || freqs[ids[bestEnd - 1]] == 0)) {
+            bestEnd--;
+        }
+        // 已被字典覆盖的 d-mer 不再计分
+        for (int i = bestBegin; i < bestEnd; i++) {
+            if (ids[i] >= 0) {
+                freqs[ids[i]] = 0;
+            }
+        }
+        return new int[]{bestBegin, bestEnd - 1 + dmerSize};
+    }
+
+    /**
+     * 逐个压缩样本, 返回压缩后的总字节数
+     * @param samples 样本
+     * @param dictionary 字典 (为 null 时不使用字典)
+     * @return 压缩后的总字节数
+     */
+    public static long compressedSize(List<byte[]> samples, byte[] dictionary) {
+        long size = 0;
+        for (byte[] sample : samples) {
+            ZlibCompressor zc = new ZlibCompressor("", "", sample.length, false);
+            zc.setDictionary(dictionary);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            zc.compress(new ByteArrayInputStream(sample), out);
+            size += out.size();
+        }
+        return size;
+    }
+
+    /**
+     * 尝试不同的片段长度和 d-mer 长度, 返回在验证样本上压缩效果最好的字典.
+     * 验证样本参与了参数的挑选, 字典的实际效果须在另外的留出样本上统计
+     * @param trainSamples 训练样本
+     * @param validationSamples 验证样本
+     * @param dictSize 字典大小
+     * @return 字典
+     */
+    public static byte[] optimize(List<byte[]> trainSamples, List<byte[]> validationSamples, int dictSize) {
+        byte[] best = null;
+        long bestSize = Long.MAX_VALUE;
+        for (int d : DMER_SIZES) {
+            for (int k : SEGMENT_SIZES) {
+                if (k > dictSize) {
+                    continue;
+                }
+                byte[] dict = new DictionaryTrainer(dictSize, k, d).train(trainSamples);
+                long size = compressedSize(validationSamples, dict);
+                if (size < bestSize) {
+                    bestSize = size;
+                    best = dict;
+                }
+            }
+        }
+        return best;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 检查参数
+        if (args.length != 2 && args.length != 3) {
+            usage();
+        }
+        int dictSize = args.length == 3 ? Integer.parseInt(args[2]) : MAX_DICT_SIZE;
+
+        // 读入样本, 按文件名排序后每 HOLD_OUT_STRIDE 个取一个作为验证样本, 一个作为留出样本
+        List<Path> paths;
+        try (Stream<Path> stream = Files.walk(Paths.get(args[0]))) {
+            paths = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        List<byte[]> trainSamples = new ArrayList<>();
+        List<byte[]> validationSamples = new ArrayList<>();
+        List<byte[]> testSamples = new ArrayList<>();
+        for (int i = 0; i < paths.size(); i++) {
+            byte[] sample = Files.readAllBytes(paths.get(i));
+            if (i % HOLD_OUT_STRIDE == HOLD_OUT_STRIDE - 1) {
+                testSamples.add(sample);
+            } else if (i % HOLD_OUT_STRIDE == HOLD_OUT_STRIDE - 2) {
+                validationSamples.add(sample);
+            } else {
+                trainSamples.add(sample);
+            }
+        }
+        if (trainSamples.isEmpty() || validationSamples.isEmpty() || testSamples.isEmpty()) {
+            System.out.println("样本数量不足, 至少需要 " + HOLD_OUT_STRIDE + " 个样本");
+            System.exit(1);
+        }
+
+        // 训练字典
+        long startTime = System.currentTimeMillis();
+        byte[] dict = optimize(trainSamples, validationSamples, dictSize);
+        long endTime = System.currentTimeMillis();
+        try (FileOutputStream out = new FileOutputStream(new File(args[1]))) {
+            out.write(dict);
+        }
+
+        // 在训练和调参都未使用过的留出样本上统计压缩效果
+        long rawSize = 0;
+        for (byte[] sample : testSamples) {
+            rawSize += sample.length;
+        }
+        long plainSize = compressedSize(testSamples, null);
+        long dictCompressedSize = compressedSize(testSamples, dict);
+        System.out.println(String.format("训练样本 %d 个, 验证样本 %d 个, 留出样本 %d 个, 字典大小 %d 字节",
+                trainSamples.size(), validationSamples.size(), testSamples.size(), dict.length));
+        System.out.println(String.format("无字典: %d -> %d 字节, 压缩率为 %.1f%%", rawSize, plainSize, plainSize * 100.0 / rawSize));
+        System.out.println(String.format("有字典: %d -> %d 字节, 压缩率为 %.1f%%", rawSize, dictCompressedSize, dictCompressedSize * 100.0 / rawSize));
+        System.out.println(String.format("字典使压缩后大小减小了 %.2f 倍", (double) plainSize / dictCompressedSize));
+        System.out.println(String.format("耗时 %.3f 秒", (endTime - startTime) / 1000.0));
+    }
+
+    /**
+     * 打印使用方法并退出
+     */
+    private static void usage() {
+        System.out.println("使用方法:");
+        System.out.println("\tjava DictionaryTrainer [sampleDir] [dictPath] [dictSize]");
+        System.out.println("参数:");
+        System.out.println("\tsampleDir  样本目录, 每个文件为一个样本");
+        System.out.println("\tdictPath   输出的字典文件");
+        System.out.println("\tdictSize   字典大小, 默认且最大为 " + MAX_DICT_SIZE);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,324 @@
+package com.ltchen.compression.deflate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : gzip 文件的随机访问索引 (同 zlib 的 zran), 每隔一段解压数据在块边界处记录一个检查点,
+ *         检查点保存压缩数据的比特偏移, 解压数据的偏移和滑动窗口的快照
+ */
+public class GzipIndex {
+
+    /**
+     * 索引文件的魔法值: "GZIX"
+     */
+    private final static int MAGIC = 0x475a4958;
+
+    /**
+     * 默认的检查点间隔: 1M
+     */
+    public final static long DEFAULT_SPAN = 1 << 20;
+
+    /**
+     * 检查点间隔 (解压数据的字节数)
+     */
+    private long span;
+
+    /**
+     * 解压后的数据总字节数
+     */
+    private long totalSize;
+
+    /**
+     * gzip 文件的字节数
+     */
+    private long fileSize;
+
+    /**
+     * gzip 文件最后 8 个字节 (CRC + ISIZE), 与 fileSize 一起用于确认索引属于该文件
+     */
+    private long trailer;
+
+    /**
+     * 检查点, 按解压数据的偏移升序排列
+     */
+    private List<Checkpoint> checkpoints;
+
+    private GzipIndex(long span) {
+        this.span = span;
+        checkpoints = new ArrayList<>();
+    }
+
+    /**
+     * 解压一遍 gzip 文件, 构建索引
+     * @param file gzip 文件
+     * @param span 检查点间隔
+     * @return 索引
+     * @throws IOException
+     */
+    public static GzipIndex build(File file, long span) throws IOException {
+        GzipIndex index = new GzipIndex(span);
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            BitInputStream bis = new BitInputStream(in);
+            DeflateCompressor.readHeader(bis);
+            // 只需统计解压数据的字节数, 数据本身丢弃
+            BitOutputStream bos = new BitOutputStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+            });
+            Inflater inflater = new Inflater(new DeflateCompressor(null, null, file.length(), false), bis, bos);
+
+            // 第一个检查点位于压缩数据的开头, 窗口为空
+            index.checkpoints.add(new Checkpoint(0, bis.getCount(), 0, new byte[0]));
+            long last = 0;
+            while (!inflater.processBlock()) {
+                long outOffset = bos.getCount();
+                if (outOffset - last >= span) {
+                    // 当前字节已被部分读取时, 记录该字节的偏移和已读取的比特数
+                    long inOffset = bis.bitPos > 0 ? bis.getCount() - 1 : bis.getCount();
+                    index.checkpoints.add(new Checkpoint(outOffset, inOffset, bis.bitPos, inflater.getWindow()));
+                    last = outOffset;
+                }
+            }
+            index.totalSize = bos.getCount();
+        }
+        index.fileSize = file.length();
+        index.trailer = readTrailer(file);
+        return index;
+    }
+
+    /**
+     * 将索引写出到文件, 窗口快照使用 deflate 压缩
+     * @param file 索引文件
+     * @throws IOException
+     */
+    public void save(File file) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            dos.writeInt(MAGIC);
+            dos.writeLong(span);
+            dos.writeLong(totalSize);
+            dos.writeLong(fileSize);
+            dos.writeLong(trailer);
+            dos.writeInt(checkpoints.size());
+            for (Checkpoint checkpoint : checkpoints) {
+                dos.writeLong(checkpoint.outOffset);
+                dos.writeLong(checkpoint.inOffset);
+                dos.writeByte(checkpoint.bits);
+                dos.writeInt(checkpoint.windowSize);
+                dos.writeInt(checkpoint.window.length);
+                dos.write(checkpoint.window);
+            }
+        }
+    }
+
+    /**
+     * 从文件读入索引
+     * @param file 索引文件
+     * @return 索引
+     * @throws IOException
+     */
+    public static GzipIndex load(File file) throws IOException {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (dis.readInt() != MAGIC) {
+                throw new AssertionError("非法的索引文件!");
+            }
+            GzipIndex index = new GzipIndex(dis.readLong());
+            index.totalSize = dis.readLong();
+            index.fileSize = dis.readLong();
+            index.trailer = dis.readLong();
+            int count = dis.readInt();
+            for (int i = 0; i < count; i++) {
+                long outOffset = dis.readLong();
+                long inOffset = dis.readLong();
+                int bits = dis.readByte();
+                int windowSize = dis.readInt();
+                byte[] window = new byte[dis.readInt()];
+                dis.readFully(window);
+                index.checkpoints.add(new Checkpoint(outOffset, inOffset, bits, windowSize, window));
+            }
+            return index;
+        }
+    }
+
+    /**
+     * 索引是否由该 gzip 文件构建: 比较文件的字节数和最后 8 个字节
+     * @param file gzip 文件
+     * @return 是否匹配
+     * @throws IOException
+     */
+    public boolean matches(File file) throws IOException {
+        return file.length() == fileSize && readTrailer(file) == trailer;
+    }
+
+    /**
+     * 读取 gzip 文件最后 8 个字节
+     */
+    private static long readTrailer(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            if (raf.length() < 8) {
+                return -1;
+            }
+            raf.seek(raf.length() - 8);
+            return raf.readLong();
+        }
+    }
+
+    /**
+     * 查找解压数据偏移不超过 offset 的最后一个检查点
+     * @param offset 解压数据的偏移
+     * @return 检查点
+     */
+    public Checkpoint find(long offset) {
+        int low = 0;
+        int high = checkpoints.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (checkpoints.get(mid).outOffset <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return checkpoints.get(low);
+    }
+
+    public long getSpan() {
+        return span;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public List<Checkpoint> getCheckpoints() {
+        return checkpoints;
+    }
+
+    /**
+     * 检查点
+     */
+    public static class Checkpoint {
+
+        /**
+         * 解压数据的偏移
+         */
+        public final long outOffset;
+
+        /**
+         * 压缩数据的字节偏移 (相对于文件开头)
+         */
+        public final long inOffset;
+
+        /**
+         * inOffset 处的字节中已被读取的比特数, 0 表示位于字节边界
+         */
+        public final int bits;
+
+        /**
+         * 窗口快照的字节数
+         */
+        private final int windowSize;
+
+        /**
+         * 压缩后的窗口快照
+         */
+        private final byte[] window;
+
+        private Checkpoint(long outOffset, long inOffset, int bits, byte[] window) throws IOException {
+            this(outOffset, inOffset, bits, window.length, deflate(window));
+        }
+
+        private Checkpoint(long outOffset, long inOffset, int bits, int windowSize, byte[] window) {
+            this.outOffset = outOffset;
+            this.inOffset = inOffset;
+            this.bits = bits;
+            this.windowSize = windowSize;
+            this.window = window;
+        }
+
+        /**
+         * 返回解压后的窗口快照
+         * @return 窗口快照
+         * @throws IOException
+         */
+        public byte[] getWindow() throws IOException {
+            if (windowSize == 0) {
+                return new byte[0];
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(windowSize);
+            Inflater inflater = new Inflater(new DeflateCompressor(null, null, window.length, false),
+                    new BitInputStream(new ByteArrayInputStream(window)), new BitOutputStream(baos));
+            inflater.process();
+            if (baos.size() != windowSize) {
+                throw new AssertionError("窗口快照已损坏!");
+            }
+            return baos.toByteArray();
+        }
+
+        /**
+         * 压缩窗口快照
+         * @param window 窗口快照
+         * @return 压缩后的窗口快照
+         * @throws IOException
+         */
+        private static byte[] deflate(byte[] window) throws IOException {
+            if (window.length == 0) {
+                return window;
+            }
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            Deflater deflater = new Deflater(new DeflateCompressor(null, null, window.length, false),
+                    new BitInputStream(new ByteArrayInputStream(window)), new BitOutputStream(baos));
+            deflater.process();
+            return baos.toByteArray();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 检查参数
+        if (args.length != 2 && args.length != 3) {
+            usage();
+        }
+        long span = args.length == 3 ? Long.parseLong(args[2]) << 20 : DEFAULT_SPAN;
+        File gzFile = new File(args[0]);
+        File indexFile = new File(args[1]);
+
+        long startTime = System.currentTimeMillis();
+        GzipIndex index = build(gzFile, span);
+        index.save(indexFile);
+        long endTime = System.currentTimeMillis();
+
+        System.out.println(String.format("解压数据 %d 字节, 检查点 %d 个, 索引文件 %d 字节", index.getTotalSize(), index.getCheckpoints().size(), indexFile.length()));
+        System.out.println(String.format("耗时 %.3f 秒", (endTime - startTime) / 1000.0));
+    }
+
+    /**
+     * 打印使用方法并退出
+     */
+    private static void usage() {
+        System.out.println("使用方法:");
+        System.out.println("\tjava GzipIndex [gzFilePath] [indexFilePath] [spanMB]");
+        System.out.println("参数:");
+        System.out.println("\tspanMB  检查点间隔 (单位 M), 默认为 1");
+        System.exit(1);
+    }
+}
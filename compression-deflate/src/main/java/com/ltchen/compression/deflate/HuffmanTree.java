@@ -88,7 +88,7 @@ public class HuffmanTree {
             } else {
                 parentTwo.right = leafB;
                 parentTwo.right.parent = parentTwo;
-                parentTwo.side = 1;
+                parentTwo.right.side = 1;
             }
             // 平衡一次霍夫曼树
             boolean moved = false;
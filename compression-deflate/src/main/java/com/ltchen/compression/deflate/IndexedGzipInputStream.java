@@ -0,0 +1,196 @@
+package com.ltchen.compression.deflate;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 借助 GzipIndex 随机访问 gzip 文件的输入流, 跳转时从最近的检查点开始解压
+ */
+public class IndexedGzipInputStream extends InputStream {
+
+    /**
+     * gzip 文件
+     */
+    private File file;
+
+    /**
+     * gzip 文件的索引
+     */
+    private GzipIndex index;
+
+    /**
+     * 当前打开的文件流
+     */
+    private FileInputStream fis;
+
+    /**
+     * 解压器
+     */
+    private Inflater inflater;
+
+    /**
+     * 解压器的输出
+     */
+    private ByteArrayOutputStream baos;
+
+    /**
+     * 已解压但未读取的数据
+     */
+    private byte[] pending;
+
+    /**
+     * pending 中下一个读取的位置
+     */
+    private int pendingPos;
+
+    /**
+     * 是否已解压完最后一个压缩数据块
+     */
+    private boolean finished;
+
+    /**
+     * 下一个读取字节在解压数据中的偏移
+     */
+    private long position;
+
+    /**
+     * 构造输入流, 位于解压数据的开头
+     * @param file gzip 文件
+     * @param index gzip 文件的索引
+     * @throws IOException
+     */
+    public IndexedGzipInputStream(File file, GzipIndex index) throws IOException {
+        // 其他文件的索引会把解压器恢复到错误的比特偏移, 得到错误的数据
+        if (!index.matches(file)) {
+            throw new AssertionError("索引与 gzip 文件不符!");
+        }
+        this.file = file;
+        this.index = index;
+        seek(0);
+    }
+
+    /**
+     * 跳转到解压数据的 offset 处: 将最近的检查点恢复到新的解压器中, 只解压检查点之后的数据
+     * @param offset 解压数据的偏移
+     * @throws IOException
+     */
+    public void seek(long offset) throws IOException {
+        if (offset < 0 || offset > index.getTotalSize()) {
+            throw new IOException("偏移超出范围: " + offset);
+        }
+        // 目标位置在已解压的数据中时直接移动
+        if (pending != null && offset >= position - pendingPos && offset <= position + pending.length - pendingPos) {
+            long start = position - pendingPos;
+            pendingPos = (int) (offset - start);
+            position = offset;
+            return;
+        }
+        if (inflater == null || offset < position || index.find(offset).outOffset > position) {
+            restore(index.find(offset));
+        }
+        skipFully(offset - position);
+    }
+
+    /**
+     * 返回下一个读取字节在解压数据中的偏移
+     * @return 偏移
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureData()) {
+            return -1;
+        }
+        position++;
+        return pending[pendingPos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureData()) {
+            return -1;
+        }
+        int n = Math.min(len, pending.length - pendingPos);
+        System.arraycopy(pending, pendingPos, bytes, off, n);
+        pendingPos += n;
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fis != null) {
+            fis.close();
+        }
+    }
+
+    /**
+     * 将检查点恢复到新的解压器中
+     * @param checkpoint 检查点
+     * @throws IOException
+     */
+    private void restore(GzipIndex.Checkpoint checkpoint) throws IOException {
+        close();
+        fis = new FileInputStream(file);
+        fis.getChannel().position(checkpoint.inOffset);
+        BitInputStream bis = new BitInputStream(new BufferedInputStream(fis));
+        // 丢弃检查点所在字节中已被读取的比特
+        if (checkpoint.bits > 0) {
+            bis.readBits(checkpoint.bits);
+        }
+        baos = new ByteArrayOutputStream();
+        inflater = new Inflater(new DeflateCompressor(null, null, file.length(), false), bis, new BitOutputStream(baos));
+        inflater.setDictionary(checkpoint.getWindow());
+        pending = new byte[0];
+        pendingPos = 0;
+        finished = false;
+        position = checkpoint.outOffset;
+    }
+
+    /**
+     * 向后解压并丢弃 n 个字节
+     * @param n 字节数
+     * @throws IOException
+     */
+    private void skipFully(long n) throws IOException {
+        while (n > 0) {
+            if (!ensureData()) {
+                throw new IOException("数据意外结束");
+            }
+            int m = (int) Math.min(n, pending.length - pendingPos);
+            pendingPos += m;
+            position += m;
+            n -= m;
+        }
+    }
+
+    /**
+     * 确保还有未读取的数据, 必要时再解压一个数据块
+     * @return 是否还有数据
+     * @throws IOException
+     */
+    private boolean ensureData() throws IOException {
+        while (pendingPos == pending.length) {
+            if (finished) {
+                return false;
+            }
+            finished = inflater.processBlock();
+            pending = baos.toByteArray();
+            pendingPos = 0;
+            baos.reset();
+        }
+        return true;
+    }
+}
@@ -97,44 +97,51 @@ public class Inflater {
         this.out = out;
         crc = new CRC();
         window = new LZ77Window(WINDOW_SIZE);
+        // 解压时只按距离拷贝, 不查找匹配, 无需维护匹配索引
+        window.setIndexed(false);
     }
 
     public long process() throws IOException {
-        // 处理压缩块数据块
-        while (true){
-            // 读取文件头标记
-            int bFinal = in.readBits(1);
-            int bType = in.readBits(2);
-            if (bType == 0) {
-                // 清除文件头标记
-                in.clearBits();
-                // 处理未压缩数据块
-                processUnCompressedBlock();
-            } else if (bType == 1) {
-                // 加载固定霍夫曼码
-                loadFixedHuffmanCodes();
-                // 处理压缩数据块
-                processHuffmanCompressedBlock();
-            } else if (bType == 2) {
-                // 加载动态霍夫曼码
-                loadDynamicHuffmanCodes();
-                // 处理压缩数据块
-                processHuffmanCompressedBlock();
-            } else {
-                throw new AssertionError("无效的数据块类型!");
-            }
-            // 更新处理进度
-            dc.updateProgress(in.getCount());
-
-            // 是否为最后一个压缩数据块
-            if (bFinal == BFINAL) {
-                break;
-            }
+        // 处理压缩块数据块, 直到最后一个压缩数据块
+        while (!processBlock()) {
         }
         // 返回处理字节数
         return out.getCount();
     }
 
+    /**
+     * 处理一个压缩数据块, 块与块之间只有滑动窗口是需要保留的状态
+     * @return 是否为最后一个压缩数据块
+     * @throws IOException
+     */
+    public boolean processBlock() throws IOException {
+        // 读取文件头标记
+        int bFinal = in.readBits(1);
+        int bType = in.readBits(2);
+        if (bType == 0) {
+            // 清除文件头标记
+            in.clearBits();
+            // 处理未压缩数据块
+            processUnCompressedBlock();
+        } else if (bType == 1) {
+            // 加载固定霍夫曼码
+            loadFixedHuffmanCodes();
+            // 处理压缩数据块
+            processHuffmanCompressedBlock();
+        } else if (bType == 2) {
+            // 加载动态霍夫曼码
+            loadDynamicHuffmanCodes();
+            // 处理压缩数据块
+            processHuffmanCompressedBlock();
+        } else {
+            throw new AssertionError("无效的数据块类型!");
+        }
+        // 更新处理进度
+        dc.updateProgress(in.getCount());
+
+        // 是否为最后一个压缩数据块
+        return bFinal == BFINAL;
+    }
 
     /**
      * 处理非压缩数据块
@@ -379,6 +386,32 @@ public class Inflater {
         return lenCodes.indexOf(code);
     }
 
+    /**
+     * 重置解压器以解压下一段 deflate 数据 (如 gzip 的下一个成员), 复用滑动窗口等缓冲区
+     */
+    public void reset() {
+        crc.reset();
+        window.reset();
+        // 丢弃上一段数据最后一个字节中剩余的比特
+        in.clearBits();
+    }
+
+    /**
+     * 设置预置字典, 需与压缩时使用的字典一致 (需在 process 之前调用)
+     * @param dictionary 字典
+     */
+    public void setDictionary(byte[] dictionary) {
+        window.add(dictionary);
+    }
+
+    /**
+     * 获取滑动窗口中的数据, 即最近解压出的至多 32K 字节
+     * @return 窗口数据
+     */
+    public byte[] getWindow() {
+        return window.getBytes(window.getSize(), window.getSize());
+    }
+
     /**
      * 获取 CRC 校验值
      * @return
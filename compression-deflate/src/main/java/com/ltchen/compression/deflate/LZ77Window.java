@@ -1,5 +1,9 @@
 package com.ltchen.compression.deflate;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
 /**
  * @author : ltchen
  * @date : 2017/12/23
@@ -23,10 +27,21 @@ public class LZ77Window {
     private int maxSize;
 
     /**
-     * 窗口字典, 用于存储字节
+     * 窗口字典, 用于存储字节: 大小为窗口的 2 倍, 线性存放, 写满后把后一半整体前移 (不回绕, 便于按字比较)
      */
     private byte[] dict;
 
+    /**
+     * dict 的小端序视图, 用于一次比较 8 个字节
+     */
+    private ByteBuffer dictView;
+
+    /**
+     * 最近一次查找的字节数组及其小端序视图 (同一数组反复查找时复用)
+     */
+    private byte[] lastBytes;
+    private ByteBuffer bytesView;
+
     /**
      * 窗口字典当前已存放的字节数
      */
@@ -38,10 +53,50 @@ public class LZ77Window {
     private int pos;
 
     /**
-     * 窗口当前字节位置的掩码, 为了是 pos 到达 maxSize 是置零
+     * 哈希链下标的掩码 (绝对位置对窗口大小取模)
      */
     private int mask;
 
+    /**
+     * 匹配索引的哈希位数
+     */
+    private static final int HASH_BITS = 15;
+
+    /**
+     * 沿哈希链最多比较的位置个数 (与 zlib 默认级别的 max_chain 相同), 要求的最小匹配长度较大时链可能很长
+     */
+    private static final int MAX_CHAIN = 128;
+
+    /**
+     * 匹配索引中的空位置
+     */
+    private static final int NIL = -1;
+
+    /**
+     * 绝对位置的重定基准阈值, 防止 total 溢出
+     */
+    private static final int REBASE_LIMIT = 1 << 30;
+
+    /**
+     * 匹配索引: 以 3 字节前缀的哈希值为下标, 存放最近一次出现的绝对位置
+     */
+    private int[] head;
+
+    /**
+     * 匹配索引: 以窗口下标为下标, 存放同一哈希值上一次出现的绝对位置 (哈希链)
+     */
+    private int[] prev;
+
+    /**
+     * 已加入窗口的字节总数 (绝对位置)
+     */
+    private int total;
+
+    /**
+     * 是否维护匹配索引 (只查找游程时不需要)
+     */
+    private boolean indexed;
+
 
     /**
      * 构造 LZ77Window
@@ -54,9 +109,24 @@ public class LZ77Window {
         }
         maxSize = size;
         mask = maxSize - 1;
-        dict = new byte[maxSize];
+        dict = new byte[maxSize << 1];
+        dictView = ByteBuffer.wrap(dict).order(ByteOrder.LITTLE_ENDIAN);
         pos = 0;
-        this.size = size;
+        // 窗口初始为空, 否则会匹配到并不存在的 0 字节
+        this.size = 0;
+        head = new int[1 << HASH_BITS];
+        Arrays.fill(head, NIL);
+        prev = new int[maxSize];
+        total = 0;
+        indexed = true;
+    }
+
+    /**
+     * 设置是否维护匹配索引, 不维护时 find 只能找到距离为 1, 2 的匹配 (需在加入字节之前调用)
+     * @param indexed 是否维护匹配索引
+     */
+    public void setIndexed(boolean indexed) {
+        this.indexed = indexed;
     }
 
     /**
@@ -64,11 +134,11 @@ public class LZ77Window {
      * @param b 被添加的字节
      */
     public void add(byte b) {
-        dict[pos] = b;
-        pos = (pos + 1) & mask;
-        if (size < maxSize) {
-            size++;
+        if (pos == dict.length) {
+            slide();
         }
+        dict[pos] = b;
+        advance(1);
     }
 
     /**
@@ -86,8 +156,73 @@ public class LZ77Window {
      * @param len 长度
      */
     public void add (byte[] bytes, int off, int len) {
-        for (int i = 0; i < len; i++) {
-            add(bytes[off + i]);
+        while (len > 0) {
+            if (pos == dict.length) {
+                slide();
+            }
+            int n = Math.min(len, dict.length - pos);
+            System.arraycopy(bytes, off, dict, pos, n);
+            advance(n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * 获取窗口的缓冲区, 调用 reserve 后可以直接读入数据, 再以 advance 加入窗口 (输入即窗口, 不再逐字节拷贝)
+     * @return 缓冲区
+     */
+    public byte[] getBuffer() {
+        return dict;
+    }
+
+    /**
+     * 保证缓冲区中 pos 之后还有 n 个字节的空间, 不足时前移缓冲区
+     * @param n 字节数, 不超过窗口大小
+     * @return 可以写入数据的起始位置, 即当前的 pos
+     */
+    public int reserve(int n) {
+        if (n > maxSize) {
+            throw new AssertionError("预留的空间不能超过窗口大小!");
+        }
+        if (pos + n > dict.length) {
+            slide();
+        }
+        return pos;
+    }
+
+    /**
+     * 把缓冲区中 pos 之后已写入的 n 个字节加入窗口, 并更新匹配索引
+     * @param n 字节数
+     */
+    public void advance(int n) {
+        for (int i = 0; i < n; i++) {
+            pos++;
+            if (size < maxSize) {
+                size++;
+            }
+            total++;
+            // 新字节使 3 个字节前的位置拥有完整的前缀, 将其加入匹配索引
+            if (indexed && size >= MIN_MATCH) {
+                int p = total - MIN_MATCH;
+                int h = hash(dict[pos - 3], dict[pos - 2], dict[pos - 1]);
+                prev[p & mask] = head[h];
+                head[h] = p;
+            }
+            if (total == REBASE_LIMIT) {
+                rebase();
+            }
+        }
+    }
+
+    /**
+     * 缓冲区前移: 只保留最近的窗口大小个字节, 一个窗口只需一次数组拷贝
+     */
+    private void slide() {
+        int delta = pos - maxSize;
+        if (delta > 0) {
+            System.arraycopy(dict, delta, dict, 0, maxSize);
+            pos = maxSize;
         }
     }
 
@@ -99,42 +234,158 @@ public class LZ77Window {
      * @return LZ77Pair
      */
     public LZ77Pair find(byte[] bytes, int off, int len) {
-        // 如果滑动窗口为空则返回 null
-        if (size == 0) {
+        return find(bytes, off, len, MIN_MATCH);
+    }
+
+    /**
+     * 在滑动窗口中查找与 bytes 中相同且不短于 minLen 的串, 较短的匹配被忽略
+     * @param bytes 字节数组
+     * @param off 起始偏移
+     * @param len 查找的字节数
+     * @param minLen 最小匹配长度, 不小于 MIN_MATCH
+     * @return LZ77Pair
+     */
+    public LZ77Pair find(byte[] bytes, int off, int len, int minLen) {
+        // 如果滑动窗口为空或剩余字节不足则返回 null
+        if (size == 0 || off + minLen > len) {
             return null;
         }
-        // 在滑动窗口中从后向前做匹配
-        for (int i = 1; i <= size; i++) {
-            // 已匹配的长度
-            int matchLen = 0;
-            int start = (pos - i) & mask;
-            // 匹配的起始下标
-            int x = start;
-            int y = off;
-            // 确定匹配的字节个数
-            while (matchLen < MAX_MATCH && y < len) {
-                if (dict[x] != bytes[y]) {
-                    break;
-                }
-                matchLen++;
-                x = (x + 1) & mask;
-                /*
-                 * 当 x 匹配到达 pos 位置时重置 x 为 start,
-                 * 可认为将 bytes 中已匹配的字符也加入到了滑动窗口中
-                 */
-                if (x == pos) {
-                    x = start;
-                }
-                y++;
+        // 距离为 1, 2 时前缀会跨过 pos, 不在匹配索引中, 单独匹配
+        for (int i = 1; i < MIN_MATCH && i <= size; i++) {
+            int matchLen = matchLength(i, bytes, off, len);
+            if (matchLen >= minLen) {
+                return new LZ77Pair(matchLen, i);
             }
+        }
+        if (!indexed) {
+            return null;
+        }
+        // 沿哈希链由近到远查找, 与从后向前逐个比较得到的结果一致
+        int p = head[hash(bytes[off], bytes[off + 1], bytes[off + 2])];
+        int lastDist = 0;
+        for (int chain = MAX_CHAIN; p != NIL && chain > 0; chain--) {
+            int dist = total - p;
+            // 超出窗口或链上的位置已被覆盖
+            if (dist <= lastDist || dist > size) {
+                break;
+            }
+            int matchLen = matchLength(dist, bytes, off, len);
             // 当大于最小匹配时返回第一个匹配的 LZ77Pair
-            if (matchLen >= MIN_MATCH) {
-                return new LZ77Pair(matchLen, i);
+            if (matchLen >= minLen) {
+                return new LZ77Pair(matchLen, dist);
             }
+            lastDist = dist;
+            p = prev[p & mask];
         }
         return null;
     }
 
+    /**
+     * 查找距离为 1 的匹配 (与前一个字节相同的游程), 不查询匹配索引
+     * @param bytes 字节数组
+     * @param off 起始偏移
+     * @param len 查找的字节数
+     * @return LZ77Pair, 游程不足 MIN_MATCH 时为 null
+     */
+    public LZ77Pair findRun(byte[] bytes, int off, int len) {
+        if (size == 0 || off + MIN_MATCH > len) {
+            return null;
+        }
+        int matchLen = matchLength(1, bytes, off, len);
+        return matchLen >= MIN_MATCH ? new LZ77Pair(matchLen, 1) : null;
+    }
+
+    /**
+     * 计算滑动窗口中距离为 dist 的串与 bytes 中从 off 开始的串的匹配长度
+     * @param dist 距离
+     * @param bytes 字节数组
+     * @param off 起始偏移
+     * @param len 查找的字节数
+     * @return 匹配长度
+     */
+    private int matchLength(int dist, byte[] bytes, int off, int len) {
+        if (bytes != lastBytes) {
+            lastBytes = bytes;
+            bytesView = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        int max = Math.min(MAX_MATCH, len - off);
+        // 先与窗口中 [pos - dist, pos) 比较
+        int matchLen = matchLength(dictView, pos - dist, bytesView, off, Math.min(max, dist));
+        /*
+         * 窗口中的 dist 个字节全部匹配时, 可认为 bytes 中已匹配的字符也加入到了滑动窗口中,
+         * 之后的字节与 bytes 中 dist 之前的字节比较
+         */
+        if (matchLen == dist && matchLen < max) {
+            matchLen += matchLength(bytesView, off, bytesView, off + dist, max - dist);
+        }
+        return matchLen;
+    }
+
+    /**
+     * 比较 a 中从 i 开始和 b 中从 j 开始的字节, 每次比较 8 个字节, 不相等时由异或值末尾 0 的个数得到第一个不同的字节
+     * @param a 小端序的字节缓冲区
+     * @param i a 中的起始下标
+     * @param b 小端序的字节缓冲区
+     * @param j b 中的起始下标
+     * @param max 最多比较的字节数
+     * @return 公共前缀长度
+     */
+    static int matchLength(ByteBuffer a, int i, ByteBuffer b, int j, int max) {
+        int n = 0;
+        while (n + 8 <= max) {
+            long diff = a.getLong(i + n) ^ b.getLong(j + n);
+            if (diff != 0) {
+                return n + (Long.numberOfTrailingZeros(diff) >>> 3);
+            }
+            n += 8;
+        }
+        while (n < max && a.get(i + n) == b.get(j + n)) {
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * 计算 3 字节前缀的哈希值
+     * @return 哈希值
+     */
+    private static int hash(byte b0, byte b1, byte b2) {
+        int v = (b0 & 0xff) << 16 | (b1 & 0xff) << 8 | (b2 & 0xff);
+        return (v * 0x9E3779B1) >>> (32 - HASH_BITS);
+    }
+
+    /**
+     * 将匹配索引中的绝对位置整体前移, 防止 total 溢出 (前移量为窗口大小的整数倍, 以保持 p & mask 不变)
+     */
+    private void rebase() {
+        int delta = total - maxSize;
+        for (int i = 0; i < head.length; i++) {
+            head[i] = head[i] < delta ? NIL : head[i] - delta;
+        }
+        for (int i = 0; i < prev.length; i++) {
+            prev[i] = prev[i] < delta ? NIL : prev[i] - delta;
+        }
+        total -= delta;
+    }
+
+    /**
+     * 清空滑动窗口, 复用已分配的缓冲区 (prev 只经由 head 访问, 无需清空)
+     */
+    public void reset() {
+        pos = 0;
+        size = 0;
+        total = 0;
+        Arrays.fill(head, NIL);
+    }
+
+    /**
+     * 返回窗口当前已存放的字节数
+     * @return 字节数
+     */
+    public int getSize() {
+        return size;
+    }
+
     /**
      * 从滑动窗口中拷贝字节
      * @param dist 距离
@@ -143,16 +394,10 @@ public class LZ77Window {
      */
     public byte[] getBytes(int dist, int len) {
         byte[] bytes = new byte[len];
-        int start = (pos - dist) & mask;
-        int x = start;
-        for (int i = 0; i < len; i++) {
-            // 从滑动窗口中拷贝数据
-            bytes[i]  =  dict[x];
-            x = (x + 1) & mask;
-            // 重定位到起始位置, 循环拷贝
-            if (x == pos) {
-                x = start;
-            }
+        int start = pos - dist;
+        // 长度超过距离时循环拷贝
+        for (int i = 0; i < len; i += dist) {
+            System.arraycopy(dict, start, bytes, i, Math.min(dist, len - i));
         }
         return bytes;
     }
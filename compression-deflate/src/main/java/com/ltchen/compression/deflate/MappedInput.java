@@ -0,0 +1,108 @@
+package com.ltchen.compression.deflate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 以内存映射只读访问文件, 偏移为 long. 单个映射不能超过 2G, 文件按固定大小分段映射,
+ *         读取时由偏移的高位选出段. 数据由操作系统按页载入, 内存占用不随文件大小增长; 各线程可同时读取
+ */
+class MappedInput {
+
+    /**
+     * 默认每段大小的对数: 1G
+     */
+    static final int DEFAULT_SEGMENT_BITS = 30;
+
+    /**
+     * 各段的映射
+     */
+    private final ByteBuffer[] segments;
+
+    private final int segmentBits;
+
+    private final long segmentMask;
+
+    /**
+     * 字节数
+     */
+    private final long size;
+
+    /**
+     * 映射文件中从 start 开始的全部数据
+     * @param channel 文件通道
+     * @param start 起始位置
+     * @throws IOException
+     */
+    MappedInput(FileChannel channel, long start) throws IOException {
+        this(channel, start, DEFAULT_SEGMENT_BITS);
+    }
+
+    MappedInput(FileChannel channel, long start, int segmentBits) throws IOException {
+        this.segmentBits = segmentBits;
+        segmentMask = (1L << segmentBits) - 1;
+        size = Math.max(0, channel.size() - start);
+        segments = new ByteBuffer[(int) ((size + segmentMask) >>> segmentBits)];
+        for (int i = 0; i < segments.length; i++) {
+            long pos = (long) i << segmentBits;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start + pos, Math.min(segmentMask + 1, size - pos))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * 返回字节数
+     * @return 字节数
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * 读取 pos 处的字节
+     * @param pos 偏移, 小于 size
+     * @return 无符号的字节值
+     */
+    int get(long pos) {
+        return segments[(int) (pos >>> segmentBits)].get((int) (pos & segmentMask)) & 0xff;
+    }
+
+    /**
+     * pos 开始的 8 个字节是否在同一段内, 可以由 getLong 一次读取
+     * @param pos 偏移
+     * @return 是否可以一次读取
+     */
+    boolean hasLong(long pos) {
+        return (pos & segmentMask) + 8 <= segments[(int) (pos >>> segmentBits)].limit();
+    }
+
+    /**
+     * 读取 pos 开始的 8 个字节 (小端序), 须先由 hasLong 确认
+     * @param pos 偏移
+     * @return 8 个字节的值
+     */
+    long getLong(long pos) {
+        return segments[(int) (pos >>> segmentBits)].getLong((int) (pos & segmentMask));
+    }
+
+    /**
+     * 返回从 pos 开始读取的输入流
+     * @param pos 偏移
+     * @return 输入流
+     */
+    InputStream stream(long pos) {
+        return new InputStream() {
+            private long next = pos;
+
+            @Override
+            public int read() {
+                return next < size ? get(next++) : -1;
+            }
+        };
+    }
+}
@@ -0,0 +1,346 @@
+package com.ltchen.compression.deflate;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 普通 gzip 文件的并行解压器 (同 rapidgzip):
+ *         1. 将压缩数据按固定大小划分为若干段, 每段从其起始偏移开始逐比特猜测动态霍夫曼码数据块的开头 (校验块头并试解压)
+ *         2. 各段并行解压, 引用段开始前数据的字节先以标记代替
+ *         3. 按顺序确认每段的起点恰好是前一段的终点, 再用前一段末尾的窗口替换标记; 猜错时从前一段的终点顺序解压
+ *         压缩数据以内存映射读取, 偏移为 long, 可处理超过 2G 的文件
+ */
+public class ParallelInflater {
+
+    /**
+     * 默认每段压缩数据的大小: 1M
+     */
+    public final static int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * 成员尾部的长度 (CRC + ISIZE)
+     */
+    private final static int TRAILER_SIZE = 8;
+
+    /**
+     * 线程数
+     */
+    private int threads;
+
+    /**
+     * 每段压缩数据的大小
+     */
+    private int chunkSize;
+
+    /**
+     * 内存映射每段大小的对数
+     */
+    private int segmentBits = MappedInput.DEFAULT_SEGMENT_BITS;
+
+    /**
+     * 上一次解压的段数, 以及其中采用了猜测结果的段数 (供测试确认猜测确实生效, 而不是全部退回顺序解压)
+     */
+    private int chunks;
+    private int acceptedGuesses;
+
+    public ParallelInflater() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * 构造并行解压器
+     * @param threads 线程数
+     * @param chunkSize 每段压缩数据的大小
+     */
+    public ParallelInflater(int threads, int chunkSize) {
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 设置内存映射每段大小的对数 (测试时以较小的段覆盖跨段读取)
+     * @param segmentBits 每段大小的对数
+     */
+    void setSegmentBits(int segmentBits) {
+        this.segmentBits = segmentBits;
+    }
+
+    int getChunks() {
+        return chunks;
+    }
+
+    int getAcceptedGuesses() {
+        return acceptedGuesses;
+    }
+
+    /**
+     * 解压 gzip 文件 (可包含多个成员)
+     * @param path 文件路径
+     * @param out 输出流
+     * @throws IOException
+     */
+    public void decompress(Path path, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            decompress(channel, 0, out);
+        }
+    }
+
+    /**
+     * 解压 gzip 数据 (可包含多个成员). 文件输入流直接映射其余部分, 其他输入流先写入临时文件
+     * @param in 输入流
+     * @param out 输出流
+     * @throws IOException
+     */
+    public void decompress(InputStream in, OutputStream out) throws IOException {
+        if (in instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) in).getChannel();
+            decompress(channel, channel.position(), out);
+            return;
+        }
+        Path tmp = Files.createTempFile("pgz", ".gz");
+        try {
+            Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            decompress(tmp, out);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 解压文件通道中从 start 开始的 gzip 数据
+     */
+    private void decompress(FileChannel channel, long start, OutputStream out) throws IOException {
+        MappedInput data = new MappedInput(channel, start, segmentBits);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        chunks = 0;
+        acceptedGuesses = 0;
+        try {
+            long pos = 0;
+            while (pos < data.size() && !isZeroPadding(data, pos)) {
+                pos = inflateMember(data, pos, out, pool);
+            }
+            out.flush();
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AssertionError) {
+                throw (AssertionError) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 解压一个 gzip 成员
+     * @param data 压缩数据
+     * @param off 成员的起始偏移
+     * @param out 输出流
+     * @param pool 线程池
+     * @return 下一个成员的起始偏移
+     */
+    private long inflateMember(MappedInput data, long off, OutputStream out, ExecutorService pool)
+            throws IOException, InterruptedException, ExecutionException {
+        // 读取成员头
+        BitInputStream bis = new BitInputStream(data.stream(off));
+        DeflateCompressor.readHeader(bis);
+        long end = data.size();
+        long startBit = (off + bis.getCount()) << 3;
+        long chunkBits = (long) chunkSize << 3;
+
+        // 各段的猜测结果
+        Map<Integer, Future<ChunkInflater.Chunk>> guesses = new HashMap<>();
+        // 按顺序等待写出的段
+        Deque<Future<Resolved>> pending = new ArrayDeque<>();
+        byte[] window = new byte[0];
+        int crc = 0;
+        long size = 0;
+        long pos = startBit;
+
+        while (true) {
+            int index = (int) ((pos - startBit) / chunkBits);
+            // 提前提交后续若干段的猜测任务 (单线程时猜测只是额外的开销, 直接顺序解压)
+            for (int i = index + 1; threads > 1 && i <= index + threads * 2; i++) {
+                final long from = startBit + i * chunkBits;
+                final long to = from + chunkBits;
+                if (from >= end << 3) {
+                    break;
+                }
+                if (!guesses.containsKey(i)) {
+                    guesses.put(i, pool.submit(() -> guess(data, end, from, to)));
+                }
+            }
+            // 丢弃已经越过的段的猜测
+            for (Iterator<Map.Entry<Integer, Future<ChunkInflater.Chunk>>> it = guesses.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<Integer, Future<ChunkInflater.Chunk>> entry = it.next();
+                if (entry.getKey() < index) {
+                    entry.getValue().cancel(true);
+                    it.remove();
+                }
+            }
+
+            // 猜测的起点恰好是当前位置时采用猜测的结果, 否则从当前位置顺序解压
+            ChunkInflater.Chunk chunk = null;
+            Future<ChunkInflater.Chunk> guess = guesses.remove(index);
+            if (guess != null) {
+                ChunkInflater.Chunk guessed = guess.get();
+                if (guessed != null && guessed.startBit == pos) {
+                    chunk = guessed;
+                    acceptedGuesses++;
+                }
+            }
+            if (chunk == null) {
+                try {
+                    chunk = new ChunkInflater(data, end).inflate(pos, startBit + (index + 1) * chunkBits, window);
+                } catch (DataFormatException e) {
+                    throw new AssertionError("无效的压缩数据: " + e.getMessage());
+                }
+            }
+
+            chunks++;
+
+            // 替换标记的工作并行进行, 这里只需计算下一段所需的窗口
+            final ChunkInflater.Chunk resolving = chunk;
+            final byte[] previous = window;
+            pending.add(pool.submit(() -> new Resolved(resolving.resolve(previous, 0, resolving.size()))));
+            window = nextWindow(window, chunk);
+
+            // 按顺序写出, 限制在途的段数
+            while (!pending.isEmpty() && (pending.size() > threads || pending.peek().isDone())) {
+                Resolved resolved = pending.poll().get();
+                out.write(resolved.bytes);
+                crc = CRC.combine(crc, resolved.crc, resolved.bytes.length);
+                size += resolved.bytes.length;
+            }
+
+            pos = chunk.endBit;
+            if (chunk.last) {
+                break;
+            }
+        }
+        for (Future<ChunkInflater.Chunk> guess : guesses.values()) {
+            guess.cancel(true);
+        }
+        while (!pending.isEmpty()) {
+            Resolved resolved = pending.poll().get();
+            out.write(resolved.bytes);
+            crc = CRC.combine(crc, resolved.crc, resolved.bytes.length);
+            size += resolved.bytes.length;
+        }
+
+        // 读取成员尾并校验
+        long trailer = (pos + 7) >>> 3;
+        if (trailer + TRAILER_SIZE > end) {
+            throw new AssertionError("数据意外结束!");
+        }
+        int expectedCrc = readInt(data, trailer);
+        int isize = readInt(data, trailer + 4);
+        if (expectedCrc != crc) {
+            throw new AssertionError(String.format("循环冗余校验失配, 期望值 = %08X, 实际值 = %08X", crc, expectedCrc));
+        }
+        if (isize != (int) size) {
+            throw new AssertionError(String.format("数据长度失配, 期望值 = %d, 实际值 = %d", (int) size, isize));
+        }
+        return trailer + TRAILER_SIZE;
+    }
+
+    /**
+     * 在 [from, to) 中猜测数据块的开头, 并从该处以标记窗口解压到不小于 to 的块边界
+     * @return 解压结果, 找不到数据块的开头时返回 null
+     */
+    private static ChunkInflater.Chunk guess(MappedInput data, long end, long from, long to) {
+        ChunkInflater inflater = new ChunkInflater(data, end);
+        long limit = Math.min(to, end << 3);
+        for (long bit = from; bit < limit; bit++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            try {
+                ChunkInflater.Chunk chunk = inflater.inflateGuess(bit, to);
+                if (chunk != null) {
+                    return chunk;
+                }
+            } catch (DataFormatException e) {
+                // 误判的数据块开头, 继续向后猜测
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 计算解压完一段数据后的窗口
+     * @param window 该段之前的窗口
+     * @param chunk 该段数据
+     * @return 该段之后的窗口
+     */
+    private static byte[] nextWindow(byte[] window, ChunkInflater.Chunk chunk) {
+        int n = chunk.size();
+        if (n >= ChunkInflater.WINDOW_SIZE) {
+            return chunk.resolve(window, n - ChunkInflater.WINDOW_SIZE, n);
+        }
+        int keep = Math.min(window.length, ChunkInflater.WINDOW_SIZE - n);
+        byte[] next = new byte[keep + n];
+        System.arraycopy(window, window.length - keep, next, 0, keep);
+        System.arraycopy(chunk.resolve(window, 0, n), 0, next, keep, n);
+        return next;
+    }
+
+    /**
+     * 从 pos 到结尾是否全为 0 (最后一个成员之后的填充, 同 gzip 一样忽略)
+     */
+    private static boolean isZeroPadding(MappedInput data, long pos) {
+        if (data.get(pos) != 0) {
+            return false;
+        }
+        for (long i = pos + 1; i < data.size(); i++) {
+            if (data.get(i) != 0) {
+                throw new AssertionError("成员之后的填充中有非零字节!");
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 以小端序读取 int
+     */
+    private static int readInt(MappedInput data, long off) {
+        return data.get(off) | data.get(off + 1) << 8 | data.get(off + 2) << 16 | data.get(off + 3) << 24;
+    }
+
+    /**
+     * 替换完标记的一段数据及其 CRC 校验值
+     */
+    private static class Resolved {
+
+        final byte[] bytes;
+
+        final int crc;
+
+        Resolved(byte[] bytes) {
+            this.bytes = bytes;
+            CRC c = new CRC();
+            c.update(bytes);
+            this.crc = c.getValue();
+        }
+    }
+}
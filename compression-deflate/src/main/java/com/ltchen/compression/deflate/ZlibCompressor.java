@@ -0,0 +1,161 @@
+package com.ltchen.compression.deflate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : zlib 格式的压缩器, 支持预置字典 (适用于大量结构相似的小数据)
+ */
+public class ZlibCompressor extends DeflateCompressor {
+
+    /**
+     * 见 RFC 1950, 2.2 章节 (https://www.ietf.org/rfc/rfc1950.txt)
+     * +---+---+=====================+===========//==========+---+---+---+---+
+     * |CMF|FLG|   (DICTID, 4 字节)   |        压缩的数据       |    ADLER32    |
+     * +---+---+=====================+===========//==========+---+---+---+---+
+     * 注: 一格为一字节, 多字节整数均为大端序
+     */
+
+    /**
+     * 压缩方法与信息: CM = 8 (deflate), CINFO = 7 (32K 窗口)
+     */
+    private final static int CMF = 0x78;
+
+    /**
+     * 预置字典标记 (FLG 的第 5 位)
+     */
+    public final static int FDICT = 0x20;
+
+    /**
+     * 压缩级别标记 (FLG 的第 6, 7 位), 2 为默认级别
+     */
+    private final static int FLEVEL = 2 << 6;
+
+    /**
+     * 预置字典
+     */
+    private byte[] dictionary;
+
+    /**
+     * 预置字典的 Adler-32 校验值, 即 DICTID
+     */
+    private int dictId;
+
+    public ZlibCompressor(String filePath, String fileName, long fileSize, boolean showProgress) {
+        super(filePath, fileName, fileSize, showProgress);
+    }
+
+    /**
+     * 设置预置字典, 压缩和解压缩需使用同一字典
+     * @param dictionary 字典 (为 null 时不使用字典)
+     */
+    public void setDictionary(byte[] dictionary) {
+        this.dictionary = dictionary;
+        if (dictionary != null) {
+            Adler32 adler = new Adler32();
+            adler.update(dictionary);
+            dictId = (int) adler.getValue();
+        }
+    }
+
+    @Override
+    public void compress(InputStream in, OutputStream out) {
+        Adler32 adler = new Adler32();
+        BitInputStream bis = new BitInputStream(new CheckedInputStream(in, adler));
+        BitOutputStream bos = new BitOutputStream(out);
+
+        try {
+            // 写出头部, FCHECK 使 (CMF * 256 + FLG) 为 31 的倍数
+            int flg = FLEVEL | (dictionary != null ? FDICT : 0);
+            flg |= (31 - (CMF << 8 | flg) % 31) % 31;
+            bos.writeByte(CMF);
+            bos.writeByte(flg);
+            if (dictionary != null) {
+                writeIntBE(bos, dictId);
+            }
+
+            // 压缩数据并写出
+            Deflater deflater = new Deflater(this, bis, bos);
+            deflater.setDictionary(dictionary);
+            deflater.process();
+
+            // 写出未压缩数据的 Adler-32 校验值
+            writeIntBE(bos, (int) adler.getValue());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void decompress(InputStream in, OutputStream out) {
+        Adler32 adler = new Adler32();
+        BitInputStream bis = new BitInputStream(in);
+        BitOutputStream bos = new BitOutputStream(new CheckedOutputStream(out, adler));
+
+        try {
+            // 读取头部并校验
+            int cmf = bis.readByte();
+            int flg = bis.readByte();
+            if ((cmf & 0x0f) != 8 || (cmf >> 4) > 7) {
+                throw new AssertionError("不支持的压缩方法!");
+            }
+            if ((cmf << 8 | flg) % 31 != 0) {
+                throw new AssertionError("非法的头部校验值!");
+            }
+            Inflater inflater = new Inflater(this, bis, bos);
+            if ((flg & FDICT) != 0) {
+                // 校验数据使用的字典是否与设置的字典一致
+                int id = readIntBE(bis);
+                if (dictionary == null) {
+                    throw new AssertionError(String.format("数据需要预置字典, DICTID = %08X", id));
+                }
+                if (id != dictId) {
+                    throw new AssertionError(String.format("预置字典失配, 期望值 = %08X, 实际值 = %08X", dictId, id));
+                }
+                inflater.setDictionary(dictionary);
+            }
+
+            // 解压数据并写出
+            inflater.process();
+
+            // 读取尾部并校验
+            bis.clearBits();
+            int checksum = readIntBE(bis);
+            if (checksum != (int) adler.getValue()) {
+                throw new AssertionError(String.format("Adler-32 校验失配, 期望值 = %08X, 实际值 = %08X", (int) adler.getValue(), checksum));
+            }
+            // 显示处理进度
+            updateProgress(bis.getCount());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 以大端序写出 int, 四个字节
+     * @param bos 比特输出流
+     * @param val 值
+     * @throws IOException
+     */
+    private static void writeIntBE(BitOutputStream bos, int val) throws IOException {
+        bos.writeByte(val >>> 24);
+        bos.writeByte(val >>> 16);
+        bos.writeByte(val >>> 8);
+        bos.writeByte(val);
+    }
+
+    /**
+     * 以大端序读取 int, 四个字节
+     * @param bis 比特输入流
+     * @return 四个字节的值
+     * @throws IOException
+     */
+    private static int readIntBE(BitInputStream bis) throws IOException {
+        return bis.readByte() << 24 | bis.readByte() << 16 | bis.readByte() << 8 | bis.readByte();
+    }
+}
@@ -0,0 +1,202 @@
+package com.ltchen.compression.deflate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc :
+ */
+public class BlockedGzipTest {
+
+    private static final byte[] EOF_BLOCK = {
+            0x1f, (byte) 0x8b, 0x08, 0x04, 0x00, 0x00, 0x00, 0x00, 0x00, (byte) 0xff, 0x06, 0x00, 0x42, 0x43,
+            0x02, 0x00, 0x1b, 0x00, 0x03, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00
+    };
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        byte[] data = data(300000, new Random(1));
+        byte[] bgzf = compress(data);
+
+        // 普通的 gzip 实现将其作为多成员文件读取
+        ByteArrayOutputStream jdk = new ByteArrayOutputStream();
+        try (GZIPInputStream gis = new GZIPInputStream(new ByteArrayInputStream(bgzf))) {
+            copy(gis, jdk);
+        }
+        Assert.assertArrayEquals(data, jdk.toByteArray());
+
+        BlockedGzipCompressor compressor = new BlockedGzipCompressor(null, "test", bgzf.length, false);
+        compressor.setThreads(2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compressor.decompress(new ByteArrayInputStream(bgzf), out);
+        Assert.assertArrayEquals(data, out.toByteArray());
+    }
+
+    @Test
+    public void testLayout() {
+        byte[] data = data(300000, new Random(2));
+        byte[] bgzf = compress(data);
+
+        // 文件以空成员结束
+        Assert.assertArrayEquals(EOF_BLOCK, Arrays.copyOfRange(bgzf, bgzf.length - EOF_BLOCK.length, bgzf.length));
+        // 按 BSIZE 可以从头到尾切分全部成员, 每个成员不超过 64K, ISIZE 之和为原始长度
+        int address = 0;
+        long total = 0;
+        int blocks = 0;
+        while (address < bgzf.length) {
+            int size = BlockedGzipCompressor.parseBlockSize(Arrays.copyOfRange(bgzf, address, address + BlockedGzipCompressor.HEADER_SIZE)) + 1;
+            Assert.assertTrue(size <= BlockedGzipCompressor.MAX_BLOCK_SIZE);
+            int isize = readInt(bgzf, address + size - 4);
+            Assert.assertTrue(isize <= BlockedGzipCompressor.MAX_INPUT_SIZE);
+            total += isize;
+            address += size;
+            blocks++;
+        }
+        Assert.assertEquals(bgzf.length, address);
+        Assert.assertEquals(data.length, total);
+        Assert.assertTrue(blocks >= data.length / BlockedGzipCompressor.MAX_INPUT_SIZE + 2);
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        byte[] data = data(300000, new Random(3));
+        Path path = Files.createTempFile("bgzf", ".gz");
+        try {
+            Files.write(path, compress(data));
+            try (BlockedGzipInputStream in = new BlockedGzipInputStream(path.toFile())) {
+                List<Long> addresses = in.getBlockAddresses();
+                Assert.assertEquals(0L, (long) addresses.get(0));
+                Assert.assertEquals(Files.size(path) - EOF_BLOCK.length, (long) addresses.get(addresses.size() - 1));
+
+                // 顺序读取, 记录每个成员开头对应的原始数据偏移 (一次读取不跨越成员)
+                int last = addresses.size() - 1;
+                long[] starts = new long[last];
+                byte[] buffer = new byte[1000];
+                int pos = 0;
+                for (int i = 0; i < last; i++) {
+                    Assert.assertEquals(BlockedGzipInputStream.makeVirtualOffset(addresses.get(i), 0), in.getVirtualOffset());
+                    starts[i] = pos;
+                    while (in.getVirtualOffset() >>> 16 == addresses.get(i)) {
+                        pos += in.read(buffer, 0, buffer.length);
+                    }
+                }
+                Assert.assertEquals(BlockedGzipInputStream.makeVirtualOffset(addresses.get(last), 0), in.getVirtualOffset());
+                Assert.assertEquals(data.length, pos);
+                Assert.assertEquals(-1, in.read());
+
+                // 跳转到成员边界和成员中间, 倒序进行
+                for (int i = last - 1; i >= 0; i--) {
+                    for (int offset : new int[]{0, 1, 12345}) {
+                        long virtualOffset = BlockedGzipInputStream.makeVirtualOffset(addresses.get(i), offset);
+                        in.seek(virtualOffset);
+                        Assert.assertEquals(virtualOffset, in.getVirtualOffset());
+                        int n = in.read(buffer, 0, buffer.length);
+                        int from = (int) starts[i] + offset;
+                        Assert.assertArrayEquals(Arrays.copyOfRange(data, from, from + n), Arrays.copyOf(buffer, n));
+                    }
+                }
+                // 跳转到结束标记
+                in.seek(BlockedGzipInputStream.makeVirtualOffset(addresses.get(last), 0));
+                Assert.assertEquals(-1, in.read());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidVirtualOffset() throws IOException {
+        Path path = Files.createTempFile("bgzf", ".gz");
+        try {
+            Files.write(path, compress(data(1000, new Random(4))));
+            try (BlockedGzipInputStream in = new BlockedGzipInputStream(path.toFile())) {
+                // 成员解压后只有 1000 个字节
+                in.seek(BlockedGzipInputStream.makeVirtualOffset(0, 1001));
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        byte[] data = data(200000, new Random(5));
+        byte[] bgzf = compress(data);
+        Path path = Files.createTempFile("bgzf", ".gz");
+        try {
+            // 截断在最后一个数据成员的中间
+            Files.write(path, Arrays.copyOf(bgzf, bgzf.length - EOF_BLOCK.length - 100));
+            File file = path.toFile();
+            try (BlockedGzipInputStream in = new BlockedGzipInputStream(file)) {
+                boolean failed = false;
+                try {
+                    in.getBlockAddresses();
+                } catch (EOFException e) {
+                    failed = true;
+                }
+                Assert.assertTrue("扫描截断的文件未报错", failed);
+            }
+            try (BlockedGzipInputStream in = new BlockedGzipInputStream(file)) {
+                boolean failed = false;
+                try {
+                    copy(in, new ByteArrayOutputStream());
+                } catch (EOFException e) {
+                    failed = true;
+                }
+                Assert.assertTrue("读取截断的文件未报错", failed);
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static byte[] compress(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new BlockedGzipCompressor(null, "test", data.length, false).compress(new ByteArrayInputStream(data), out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 制表符分隔的记录, 中间夹杂一段随机字节
+     */
+    private static byte[] data(int size, Random random) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 64);
+        while (out.size() < size) {
+            String record = String.format("chr%d\t%d\t%c%c\t%d\n", 1 + random.nextInt(22), random.nextInt(1 << 28),
+                    "ACGT".charAt(random.nextInt(4)), "ACGT".charAt(random.nextInt(4)), random.nextInt(60));
+            out.write(record.getBytes(), 0, record.length());
+        }
+        byte[] bytes = Arrays.copyOf(out.toByteArray(), size);
+        byte[] noise = new byte[Math.min(size / 3, 70000)];
+        random.nextBytes(noise);
+        System.arraycopy(noise, 0, bytes, size / 3, noise.length);
+        return bytes;
+    }
+
+    private static int readInt(byte[] bytes, int off) {
+        return (bytes[off] & 0xff) | (bytes[off + 1] & 0xff) << 8 | (bytes[off + 2] & 0xff) << 16 | (bytes[off + 3] & 0xff) << 24;
+    }
+
+    private static void copy(InputStream in, ByteArrayOutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+    }
+}
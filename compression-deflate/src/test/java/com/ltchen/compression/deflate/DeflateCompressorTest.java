@@ -0,0 +1,126 @@
+package com.ltchen.compression.deflate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc :
+ */
+public class DeflateCompressorTest {
+
+    @Test
+    public void testMultiMember() throws IOException {
+        Random random = new Random();
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        // 拼接若干个成员, 包含一个空成员
+        for (int i = 0; i < 4; i++) {
+            byte[] bytes = new byte[i == 2 ? 0 : random.nextInt(50000)];
+            for (int j = 0; j < bytes.length; j++) {
+                bytes[j] = (byte) ('a' + random.nextInt(8));
+            }
+            GZIPOutputStream gos = new GZIPOutputStream(gz);
+            gos.write(bytes);
+            gos.finish();
+            expected.write(bytes);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DeflateCompressor(null, null, gz.size(), false).decompress(new ByteArrayInputStream(gz.toByteArray()), out);
+        Assert.assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    }
+
+    @Test
+    public void testTrailingZeros() throws IOException {
+        byte[] data = "trailing zeros after the last member\n".getBytes();
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        try (GZIPOutputStream gos = new GZIPOutputStream(gz)) {
+            gos.write(data);
+        }
+        int length = gz.size();
+        // 按 512 字节的块补齐
+        gz.write(new byte[512 - length % 512]);
+        byte[] padded = gz.toByteArray();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new DeflateCompressor(null, null, padded.length, false).decompress(new ByteArrayInputStream(padded), out);
+        Assert.assertArrayEquals(data, out.toByteArray());
+
+        out.reset();
+        new ParallelInflater(2, 1 << 16).decompress(new ByteArrayInputStream(padded), out);
+        Assert.assertArrayEquals(data, out.toByteArray());
+
+        // 填充中有非零字节时报错
+        padded[length + 10] = 1;
+        for (int i = 0; i < 2; i++) {
+            boolean failed = false;
+            try {
+                if (i == 0) {
+                    new DeflateCompressor(null, null, padded.length, false).decompress(new ByteArrayInputStream(padded), new ByteArrayOutputStream());
+                } else {
+                    new ParallelInflater(2, 1 << 16).decompress(new ByteArrayInputStream(padded), new ByteArrayOutputStream());
+                }
+            } catch (AssertionError e) {
+                failed = true;
+            }
+            Assert.assertTrue(failed);
+        }
+    }
+
+    @Test
+    public void testStrategies() throws IOException {
+        Random random = new Random();
+        // 游程, 重复的短串和随机字节交替出现, 跨越多个块
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        while (data.size() < 200000) {
+            int b = random.nextInt(256);
+            int n = random.nextInt(300);
+            switch (random.nextInt(3)) {
+                case 0:
+                    for (int i = 0; i < n; i++) {
+                        data.write(b);
+                    }
+                    break;
+                case 1:
+                    for (int i = 0; i < n; i++) {
+                        data.write("abcd".charAt(i % 4) + b % 3);
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < n; i++) {
+                        data.write(random.nextInt(256));
+                    }
+            }
+        }
+        byte[] bytes = data.toByteArray();
+
+        int[] strategies = {Deflater.DEFAULT_STRATEGY, Deflater.FILTERED, Deflater.HUFFMAN_ONLY, Deflater.RLE};
+        for (int strategy : strategies) {
+            DeflateCompressor dc = new DeflateCompressor(null, "test", bytes.length, false);
+            dc.setStrategy(strategy);
+            ByteArrayOutputStream gz = new ByteArrayOutputStream();
+            dc.compress(new ByteArrayInputStream(bytes), gz);
+
+            // 由 JDK 解压校验
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (GZIPInputStream gis = new GZIPInputStream(new ByteArrayInputStream(gz.toByteArray()))) {
+                byte[] buf = new byte[8192];
+                int n;
+                while ((n = gis.read(buf)) > 0) {
+                    out.write(buf, 0, n);
+                }
+            }
+            Assert.assertArrayEquals("strategy = " + strategy, bytes, out.toByteArray());
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.ltchen.compression.deflate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc :
+ */
+public class DictionaryTrainerTest {
+
+    private static final String[] TYPES = {"view", "click", "purchase", "refund"};
+
+    private static final String[] COUNTRIES = {"CN", "US", "FR", "DE", "JP"};
+
+    private static final String[] DEVICES = {"web", "ios", "android"};
+
+    @Test
+    public void testDictSize() {
+        List<byte[]> samples = samples(200, new Random(1));
+        for (int dictSize : new int[]{100, 1000, 4096, DictionaryTrainer.MAX_DICT_SIZE}) {
+            for (int k : new int[]{16, 64, 256}) {
+                byte[] dict = new DictionaryTrainer(dictSize, k, 6).train(samples);
+                Assert.assertTrue("dictSize = " + dictSize + ", k = " + k, dict.length <= dictSize);
+                Assert.assertTrue(dict.length > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testFewSamples() {
+        DictionaryTrainer trainer = new DictionaryTrainer(4096, 64, 8);
+        // 没有样本, 或样本短于 d-mer 时得到空字典
+        Assert.assertEquals(0, trainer.train(Collections.emptyList()).length);
+        Assert.assertEquals(0, trainer.train(Collections.singletonList("{\"a\"}".getBytes())).length);
+
+        // 样本不足以填满字典时返回实际大小, 字典覆盖样本本身
+        byte[] sample = samples(1, new Random(2)).get(0);
+        byte[] dict = trainer.train(Collections.singletonList(sample));
+        Assert.assertTrue(dict.length > 0 && dict.length < 4096);
+        List<byte[]> list = Collections.singletonList(sample);
+        Assert.assertTrue(DictionaryTrainer.compressedSize(list, dict) * 2 < DictionaryTrainer.compressedSize(list, null));
+    }
+
+    @Test
+    public void testSelectSegment() {
+        // 每个样本中都有同一个标记, 其余为随机字节 (d-mer 只出现一次)
+        String token = "\"traceparent\": \"00-4bf92f3577b34da6-00f067aa0b\"";
+        Random random = new Random(3);
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            byte[] sample = new byte[200 + token.length()];
+            random.nextBytes(sample);
+            System.arraycopy(token.getBytes(), 0, sample, 100, token.length());
+            samples.add(sample);
+        }
+
+        // 只有一轮时选出的片段包含频次最高的标记
+        String single = new String(new DictionaryTrainer(64, 64, 8).train(samples), StandardCharsets.ISO_8859_1);
+        Assert.assertTrue(single.contains(token));
+        // 被选中的 d-mer 不再计分, 标记在字典中只出现一次
+        String dict = new String(new DictionaryTrainer(1024, 64, 8).train(samples), StandardCharsets.ISO_8859_1);
+        Assert.assertTrue(dict.contains(token));
+        Assert.assertEquals(dict.indexOf(token), dict.lastIndexOf(token));
+    }
+
+    @Test
+    public void testOptimize() {
+        List<byte[]> samples = samples(300, new Random(4));
+        List<byte[]> trainSamples = new ArrayList<>();
+        List<byte[]> validationSamples = new ArrayList<>();
+        List<byte[]> testSamples = new ArrayList<>();
+        for (int i = 0; i < samples.size(); i++) {
+            (i % 10 == 9 ? testSamples : i % 10 == 8 ? validationSamples : trainSamples).add(samples.get(i));
+        }
+        byte[] dict = DictionaryTrainer.optimize(trainSamples, validationSamples, 8192);
+        Assert.assertTrue(dict.length <= 8192);
+        // 在留出样本上, 字典显著减小压缩后的大小
+        long plain = DictionaryTrainer.compressedSize(testSamples, null);
+        long preset = DictionaryTrainer.compressedSize(testSamples, dict);
+        Assert.assertTrue("plain = " + plain + ", preset = " + preset, preset * 3 < plain * 2);
+    }
+
+    @Test
+    public void testInvalidParameters() {
+        int[][] parameters = {
+                {0, 64, 8}, {DictionaryTrainer.MAX_DICT_SIZE + 1, 64, 8},
+                {4096, 64, 1}, {4096, 64, 9}, {4096, 4, 6}
+        };
+        for (int[] p : parameters) {
+            boolean failed = false;
+            try {
+                new DictionaryTrainer(p[0], p[1], p[2]);
+            } catch (AssertionError e) {
+                failed = true;
+            }
+            Assert.assertTrue(String.format("dictSize = %d, k = %d, d = %d", p[0], p[1], p[2]), failed);
+        }
+    }
+
+    /**
+     * 结构相同, 字段值不同的 JSON 事件
+     */
+    private static List<byte[]> samples(int count, Random random) {
+        List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("{\"eventId\": %d, \"type\": \"%s\", \"user\": {\"id\": %d, \"country\": \"%s\", \"device\": \"%s\"}, \"items\": [",
+                    random.nextInt(1 << 30), TYPES[random.nextInt(TYPES.length)], random.nextInt(1000000),
+                    COUNTRIES[random.nextInt(COUNTRIES.length)], DEVICES[random.nextInt(DEVICES.length)]));
+            int items = 1 + random.nextInt(5);
+            for (int j = 0; j < items; j++) {
+                sb.append(String.format("%s{\"sku\": \"SKU-%05d\", \"price\": %d.%02d, \"currency\": \"USD\"}",
+                        j == 0 ? "" : ", ", random.nextInt(100000), random.nextInt(100), random.nextInt(100)));
+            }
+            sb.append(String.format("], \"ts\": \"2026-10-%02dT%02d:%02d:%02dZ\"}\n",
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60)));
+            samples.add(sb.toString().getBytes());
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,188 @@
+package com.ltchen.compression.deflate;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc :
+ */
+public class GzipIndexTest {
+
+    private static final long SPAN = 64 << 10;
+
+    private Path dir;
+
+    private byte[] data;
+
+    private File gzFile;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("gzindex");
+        data = data(2 << 20, new Random(1));
+        gzFile = gzip(dir.resolve("data.gz"), data);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (File file : dir.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void testBuild() throws IOException {
+        GzipIndex index = GzipIndex.build(gzFile, SPAN);
+        Assert.assertEquals(data.length, index.getTotalSize());
+        List<GzipIndex.Checkpoint> checkpoints = index.getCheckpoints();
+        Assert.assertTrue(checkpoints.size() >= data.length / SPAN / 2);
+        Assert.assertEquals(0, checkpoints.get(0).outOffset);
+        for (int i = 1; i < checkpoints.size(); i++) {
+            GzipIndex.Checkpoint checkpoint = checkpoints.get(i);
+            // 检查点的间隔不小于 span, 窗口快照为检查点之前的 32K 数据
+            Assert.assertTrue(checkpoint.outOffset - checkpoints.get(i - 1).outOffset >= SPAN);
+            Assert.assertTrue(checkpoint.inOffset > checkpoints.get(i - 1).inOffset);
+            int from = (int) checkpoint.outOffset - 32768;
+            Assert.assertArrayEquals(Arrays.copyOfRange(data, from, from + 32768), checkpoint.getWindow());
+        }
+        Assert.assertTrue(index.matches(gzFile));
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        GzipIndex index = GzipIndex.build(gzFile, SPAN);
+        File indexFile = dir.resolve("data.gzi").toFile();
+        index.save(indexFile);
+        GzipIndex loaded = GzipIndex.load(indexFile);
+
+        Assert.assertEquals(index.getSpan(), loaded.getSpan());
+        Assert.assertEquals(index.getTotalSize(), loaded.getTotalSize());
+        Assert.assertEquals(index.getCheckpoints().size(), loaded.getCheckpoints().size());
+        for (int i = 0; i < index.getCheckpoints().size(); i++) {
+            GzipIndex.Checkpoint expected = index.getCheckpoints().get(i);
+            GzipIndex.Checkpoint actual = loaded.getCheckpoints().get(i);
+            Assert.assertEquals(expected.outOffset, actual.outOffset);
+            Assert.assertEquals(expected.inOffset, actual.inOffset);
+            Assert.assertEquals(expected.bits, actual.bits);
+            Assert.assertArrayEquals(expected.getWindow(), actual.getWindow());
+        }
+        Assert.assertTrue(loaded.matches(gzFile));
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        GzipIndex built = GzipIndex.build(gzFile, SPAN);
+        File indexFile = dir.resolve("data.gzi").toFile();
+        built.save(indexFile);
+        GzipIndex index = GzipIndex.load(indexFile);
+
+        // 开头, 结尾, 恰好位于检查点, 检查点前后, 以及随机的偏移 (前后跳转)
+        Random random = new Random(2);
+        long[] offsets = new long[index.getCheckpoints().size() * 3 + 50];
+        int count = 0;
+        offsets[count++] = 0;
+        offsets[count++] = data.length;
+        for (GzipIndex.Checkpoint checkpoint : index.getCheckpoints()) {
+            offsets[count++] = checkpoint.outOffset;
+            offsets[count++] = Math.max(0, checkpoint.outOffset - 1);
+            offsets[count++] = checkpoint.outOffset + 1;
+        }
+        while (count < offsets.length) {
+            offsets[count++] = random.nextInt(data.length);
+        }
+        for (int i = offsets.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long t = offsets[i];
+            offsets[i] = offsets[j];
+            offsets[j] = t;
+        }
+
+        byte[] buffer = new byte[5000];
+        try (IndexedGzipInputStream in = new IndexedGzipInputStream(gzFile, index)) {
+            for (long offset : offsets) {
+                in.seek(offset);
+                Assert.assertEquals(offset, in.getPosition());
+                int n = 0;
+                int m;
+                while (n < buffer.length && (m = in.read(buffer, n, buffer.length - n)) > 0) {
+                    n += m;
+                }
+                int expected = (int) Math.min(buffer.length, data.length - offset);
+                Assert.assertEquals("offset = " + offset, expected, n);
+                Assert.assertArrayEquals("offset = " + offset,
+                        Arrays.copyOfRange(data, (int) offset, (int) offset + n), Arrays.copyOf(buffer, n));
+                Assert.assertEquals(offset + n, in.getPosition());
+            }
+            in.seek(data.length);
+            Assert.assertEquals(-1, in.read());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testSeekOutOfRange() throws IOException {
+        GzipIndex index = GzipIndex.build(gzFile, SPAN);
+        try (IndexedGzipInputStream in = new IndexedGzipInputStream(gzFile, index)) {
+            in.seek(data.length + 1);
+        }
+    }
+
+    @Test
+    public void testMismatch() throws IOException {
+        GzipIndex index = GzipIndex.build(gzFile, SPAN);
+        // 相同长度的另一份数据, 以及追加了一个成员的同一文件
+        byte[] other = data(data.length, new Random(3));
+        File[] files = {gzip(dir.resolve("other.gz"), other), gzip(dir.resolve("appended.gz"), data)};
+        try (OutputStream out = Files.newOutputStream(files[1].toPath(), StandardOpenOption.APPEND);
+             GZIPOutputStream gos = new GZIPOutputStream(out)) {
+            gos.write(other, 0, 100);
+        }
+        for (File file : files) {
+            Assert.assertFalse(index.matches(file));
+            boolean failed = false;
+            try {
+                new IndexedGzipInputStream(file, index).close();
+            } catch (AssertionError e) {
+                failed = true;
+            }
+            Assert.assertTrue("未拒绝不匹配的文件: " + file.getName(), failed);
+        }
+    }
+
+    private static File gzip(Path path, byte[] data) throws IOException {
+        try (GZIPOutputStream gos = new GZIPOutputStream(Files.newOutputStream(path))) {
+            gos.write(data);
+        }
+        return path.toFile();
+    }
+
+    /**
+     * CSV 格式的订单记录
+     */
+    private static byte[] data(int size, Random random) {
+        String[] cities = {"Beijing", "Shanghai", "Shenzhen", "Hangzhou", "Chengdu", "Wuhan"};
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 64);
+        for (int id = 0; out.size() < size; id++) {
+            String line = String.format("%d,%s,%d.%02d,%s\n", 100000 + id, cities[random.nextInt(cities.length)],
+                    random.nextInt(1000), random.nextInt(100), Long.toHexString(random.nextLong()));
+            out.write(line.getBytes(), 0, line.length());
+        }
+        return Arrays.copyOf(out.toByteArray(), size);
+    }
+}
@@ -2,7 +2,9 @@ package com.ltchen.compression.deflate;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author : ltchen
@@ -28,6 +30,41 @@ public class LZ77WindowTest {
         testLZ77("These blah is blah blah blah!", "These blah is<8,6><5,9>!");
     }
 
+    @Test
+    public void testSlideAndLongMatch() {
+        // 窗口只有 64 个字节, 数据远超窗口的 2 倍, 覆盖缓冲区前移和按字比较的各个分支
+        StringBuffer input = new StringBuffer();
+        for (int i = 0; i < 200; i++) {
+            input.append("pattern-").append(i % 7).append("-0123456789abcdefghijklmnopqrstuvwxyz;");
+            if (i % 13 == 0) {
+                input.append("zzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzzz");
+            }
+        }
+        byte[] buffer = input.toString().getBytes();
+        LZ77Window window = new LZ77Window(64);
+        LZ77Window decoder = new LZ77Window(64);
+        byte[] output = new byte[buffer.length];
+        int matched = 0;
+        for (int i = 0; i < buffer.length; i++) {
+            LZ77Pair pair = window.find(buffer, i, buffer.length);
+            if (pair != null) {
+                assertTrue(pair.dist <= 64);
+                byte[] bytes = decoder.getBytes(pair.dist, pair.len);
+                System.arraycopy(bytes, 0, output, i, pair.len);
+                decoder.add(bytes);
+                window.add(buffer, i, pair.len);
+                matched += pair.len;
+                i += (pair.len - 1);
+            } else {
+                output[i] = buffer[i];
+                decoder.add(buffer[i]);
+                window.add(buffer[i]);
+            }
+        }
+        assertArrayEquals(buffer, output);
+        assertTrue(matched > buffer.length / 2);
+    }
+
     private void testLZ77(String input, String expected) {
         byte[] buffer = input.getBytes();
         StringBuffer output = new StringBuffer();
@@ -0,0 +1,107 @@
+package com.ltchen.compression.deflate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc :
+ */
+public class ParallelInflaterTest {
+
+    private static final String[] PATHS = {"/index.html", "/static/app.js", "/static/style.css", "/api/cart", "/api/search?q=",
+            "/favicon.ico", "/login"};
+
+    private static final int[] STATUS = {200, 200, 200, 200, 304, 404, 500};
+
+    @Test
+    public void testJdkGzip() throws IOException {
+        byte[] data = accessLog(3 << 20, new Random(1));
+        byte[] gz = gzip(data, -1);
+        Path path = Files.createTempFile("pgz", ".gz");
+        try {
+            Files.write(path, gz);
+            // 较小的段和映射分段, 覆盖猜测数据块开头和跨段读取
+            ParallelInflater inflater = new ParallelInflater(4, 1 << 15);
+            inflater.setSegmentBits(16);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            inflater.decompress(path, out);
+            Assert.assertArrayEquals(data, out.toByteArray());
+            // 猜测结果确实被采用, 而不是全部退回顺序解压: 第一段不需要猜测,
+            // 最后一段从最后一个数据块开始时不会被猜中 (猜测只接受 BFINAL = 0 的块头), 其余各段的起点都由猜测找到
+            Assert.assertTrue(inflater.getChunks() > 10);
+            Assert.assertTrue(inflater.getAcceptedGuesses() >= inflater.getChunks() - 2);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testMultiMemberStream() throws IOException {
+        Random random = new Random(2);
+        byte[] first = accessLog(500000, random);
+        byte[] second = new byte[200000];
+        random.nextBytes(second);
+        byte[] third = accessLog(800000, random);
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        gz.write(gzip(first, -1));
+        // 非压缩数据块
+        gz.write(gzip(second, 0));
+        gz.write(gzip(third, 9));
+
+        // 非文件的输入流先写入临时文件
+        ParallelInflater inflater = new ParallelInflater(3, 1 << 15);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        inflater.decompress(new ByteArrayInputStream(gz.toByteArray()), out);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(first);
+        expected.write(second);
+        expected.write(third);
+        Assert.assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testCorrupt() throws IOException {
+        byte[] gz = gzip(accessLog(1 << 20, new Random(3)), -1);
+        // 改动 CRC
+        gz[gz.length - 8] ^= 1;
+        new ParallelInflater(2, 1 << 16).decompress(new ByteArrayInputStream(gz), new ByteArrayOutputStream());
+    }
+
+    /**
+     * Web 服务器的访问日志, 压缩后由多个动态霍夫曼码数据块组成
+     */
+    private static byte[] accessLog(int size, Random random) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 200);
+        for (int second = 0; out.size() < size; second += random.nextInt(3)) {
+            String line = String.format("10.0.%d.%d - - [19/Oct/2026:%02d:%02d:%02d +0800] \"GET %s HTTP/1.1\" %d %d\n",
+                    random.nextInt(16), random.nextInt(256), second / 3600 % 24, second / 60 % 60, second % 60,
+                    PATHS[random.nextInt(PATHS.length)], STATUS[random.nextInt(STATUS.length)], random.nextInt(50000));
+            out.write(line.getBytes(), 0, line.length());
+        }
+        return Arrays.copyOf(out.toByteArray(), size);
+    }
+
+    private static byte[] gzip(byte[] data, int level) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (OutputStream gos = new GZIPOutputStream(baos) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gos.write(data);
+        }
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,63 @@
+package com.ltchen.compression.deflate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc :
+ */
+public class ZlibCompressorTest {
+
+    private static final byte[] DICTIONARY = "{\"id\":,\"name\":\"user\",\"tags\":[\"alpha\",\"beta\"],\"active\":true}".getBytes();
+
+    @Test
+    public void testDictionary() throws DataFormatException {
+        byte[] data = "{\"id\":42,\"name\":\"user7\",\"tags\":[\"alpha\",\"gamma\"],\"active\":false}".getBytes();
+
+        byte[] plain = compress(data, null);
+        byte[] preset = compress(data, DICTIONARY);
+        Assert.assertTrue(preset.length < plain.length);
+
+        // 自身解压
+        ZlibCompressor zc = new ZlibCompressor("", "", preset.length, false);
+        zc.setDictionary(DICTIONARY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        zc.decompress(new ByteArrayInputStream(preset), out);
+        Assert.assertArrayEquals(data, out.toByteArray());
+
+        // 与 JDK 的 zlib 实现互通
+        java.util.zip.Inflater inflater = new java.util.zip.Inflater();
+        inflater.setInput(preset);
+        byte[] buffer = new byte[data.length * 2];
+        Assert.assertEquals(0, inflater.inflate(buffer));
+        Assert.assertTrue(inflater.needsDictionary());
+        inflater.setDictionary(DICTIONARY);
+        int n = inflater.inflate(buffer);
+        Assert.assertTrue(inflater.finished());
+        Assert.assertArrayEquals(data, Arrays.copyOf(buffer, n));
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testDictionaryMismatch() {
+        byte[] data = "{\"id\":1,\"name\":\"user1\"}".getBytes();
+        byte[] preset = compress(data, DICTIONARY);
+        ZlibCompressor zc = new ZlibCompressor("", "", preset.length, false);
+        zc.setDictionary("another dictionary".getBytes());
+        zc.decompress(new ByteArrayInputStream(preset), new ByteArrayOutputStream());
+    }
+
+    private byte[] compress(byte[] data, byte[] dictionary) {
+        ZlibCompressor zc = new ZlibCompressor("", "", data.length, false);
+        zc.setDictionary(dictionary);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        zc.compress(new ByteArrayInputStream(data), out);
+        return out.toByteArray();
+    }
+}
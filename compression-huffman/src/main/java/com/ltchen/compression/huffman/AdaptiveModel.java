@@ -0,0 +1,88 @@
+package com.ltchen.compression.huffman;
+
+import java.util.Arrays;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 自适应霍夫曼码的模型: 统计已处理字节的频次, 每处理 interval 个字节用衰减后的频次重建一次范式霍夫曼码.
+ *         压缩和解压时在相同的位置以相同的频次重建, 因此无需传输码表, 压缩时也无需预读数据
+ */
+public class AdaptiveModel {
+
+    /**
+     * 默认的重建间隔: 16K
+     */
+    public static final int DEFAULT_INTERVAL = 16 << 10;
+
+    /**
+     * 重建间隔
+     */
+    private int interval;
+
+    /**
+     * 距离下次重建的字节数
+     */
+    private int remaining;
+
+    /**
+     * 衰减后的字节频次, 初始均为 1, 保证任何字节都有码
+     */
+    private int[] freqs;
+
+    /**
+     * 当前的范式霍夫曼码
+     */
+    private HuffmanCode huffmanCode;
+
+    /**
+     * 构造自适应模型
+     * @param interval 重建间隔
+     */
+    public AdaptiveModel(int interval) {
+        if (interval <= 0) {
+            throw new AssertionError("非法的重建间隔: " + interval);
+        }
+        this.interval = interval;
+        remaining = interval;
+        freqs = new int[HuffmanCode.SYMBOL_COUNT];
+        Arrays.fill(freqs, 1);
+        huffmanCode = HuffmanCode.build(freqs);
+    }
+
+    /**
+     * 获取距离下次重建的字节数, 这些字节使用当前的码
+     * @return 字节数
+     */
+    public int remaining() {
+        return remaining;
+    }
+
+    /**
+     * 统计 [off, off + len) 中的字节, len 不超过 remaining(); 到达重建位置时重建范式霍夫曼码
+     * @param bytes 字节数组
+     * @param off 起始偏移
+     * @param len 字节数
+     * @return 是否重建了码
+     */
+    public boolean update(byte[] bytes, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            freqs[bytes[i] & 0xFF]++;
+        }
+        remaining -= len;
+        if (remaining > 0) {
+            return false;
+        }
+        huffmanCode = HuffmanCode.build(freqs);
+        // 频次减半, 使较早的数据逐渐失去影响, 跟随数据分布的变化 (保持至少为 1)
+        for (int i = 0; i < freqs.length; i++) {
+            freqs[i] = (freqs[i] + 1) >> 1;
+        }
+        remaining = interval;
+        return true;
+    }
+
+    public HuffmanCode getHuffmanCode() {
+        return huffmanCode;
+    }
+}
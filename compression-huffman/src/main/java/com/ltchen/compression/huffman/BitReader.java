@@ -0,0 +1,159 @@
+package com.ltchen.compression.huffman;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 高位在前的比特输入, 与 BitWriter 对应, 比特缓冲区的最高位为下一个读取的比特
+ */
+public class BitReader {
+
+    /**
+     * 字节缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 基础输入流, 为 null 时只读取字节数组
+     */
+    private InputStream in;
+
+    /**
+     * 字节缓冲区
+     */
+    private byte[] buffer;
+
+    /**
+     * 字节缓冲区中下一个读取的位置
+     */
+    private int pos;
+
+    /**
+     * 字节缓冲区的结束位置 (不包含)
+     */
+    private int limit;
+
+    /**
+     * 比特缓冲区, 高 bitCount 位为尚未读取的比特
+     */
+    private long bitBuf;
+
+    /**
+     * 比特缓冲区中的比特数
+     */
+    private int bitCount;
+
+    /**
+     * 已读入比特缓冲区的字节数
+     */
+    private long count;
+
+    /**
+     * 从输入流读取比特
+     * @param in 输入流
+     */
+    public BitReader(InputStream in) {
+        this.in = in;
+        buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * 从字节数组读取比特
+     * @param bytes 字节数组
+     * @param off 起始偏移
+     * @param len 字节数
+     */
+    public BitReader(byte[] bytes, int off, int len) {
+        buffer = bytes;
+        pos = off;
+        limit = off + len;
+    }
+
+    /**
+     * 从字节数组读取比特, 比特缓冲区中已有部分比特 (用于接续其它解码器的状态)
+     * @param bytes 字节数组
+     * @param off 起始偏移
+     * @param len 字节数
+     * @param bitBuf 比特缓冲区, 高 bitCount 位有效
+     * @param bitCount 比特缓冲区中的比特数
+     */
+    BitReader(byte[] bytes, int off, int len, long bitBuf, int bitCount) {
+        this(bytes, off, len);
+        this.bitBuf = bitBuf;
+        this.bitCount = bitCount;
+    }
+
+    /**
+     * 向比特缓冲区中读入字节, 直到至少有 57 个比特或输入结束 (结束后 peekBits 读到的比特为 0, 但不能被跳过)
+     * @throws IOException
+     */
+    public void refill() throws IOException {
+        while (bitCount <= 56) {
+            if (pos == limit) {
+                if (in == null || (limit = in.read(buffer, 0, BUFFER_SIZE)) <= 0) {
+                    limit = pos = 0;
+                    return;
+                }
+                pos = 0;
+            }
+            bitBuf |= (long) (buffer[pos++] & 0xff) << (56 - bitCount);
+            bitCount += 8;
+            count++;
+        }
+    }
+
+    /**
+     * 获取已读入的字节数 (包含比特缓冲区中尚未读取的字节)
+     * @return 字节数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 查看接下来的 n 个比特, 不移动读取位置
+     * @param n 比特数 (1 到 32)
+     * @return 比特的值
+     * @throws IOException
+     */
+    public int peekBits(int n) throws IOException {
+        if (bitCount < n) {
+            refill();
+        }
+        return (int) (bitBuf >>> (64 - n));
+    }
+
+    /**
+     * 跳过 n 个比特 (须先通过 peekBits 读入)
+     * @param n 比特数
+     */
+    public void skipBits(int n) {
+        bitBuf <<= n;
+        bitCount -= n;
+        // 输入结束后 peekBits 补的 0 只能用于查表, 被当作码使用说明数据被截断
+        if (bitCount < 0) {
+            throw new AssertionError("数据意外结束!");
+        }
+    }
+
+    /**
+     * 跳过当前字节中剩余的比特, 使读取位置对齐到字节边界 (对应 BitWriter.flush 补的 0)
+     */
+    public void alignToByte() {
+        skipBits(bitCount & 7);
+    }
+
+    /**
+     * 读取 n 个比特
+     * @param n 比特数 (1 到 32)
+     * @return 比特的值
+     * @throws IOException
+     */
+    public int readBits(int n) throws IOException {
+        int val = peekBits(n);
+        skipBits(n);
+        return val;
+    }
+}
@@ -0,0 +1,122 @@
+package com.ltchen.compression.huffman;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 高位在前的比特输出, 比特先累积在 64 位的缓冲区中, 每满 32 位一次写出 4 个字节
+ */
+public class BitWriter {
+
+    /**
+     * 字节缓冲区大小
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * 基础输出流
+     */
+    private OutputStream out;
+
+    /**
+     * 字节缓冲区
+     */
+    private byte[] buffer;
+
+    /**
+     * 字节缓冲区中的字节数
+     */
+    private int pos;
+
+    /**
+     * 比特缓冲区, 低 bitCount 位为尚未写出的比特
+     */
+    private long bitBuf;
+
+    /**
+     * 比特缓冲区中的比特数 (小于 32)
+     */
+    private int bitCount;
+
+    /**
+     * 已写出的字节数
+     */
+    private long count;
+
+    public BitWriter(OutputStream out) {
+        this.out = out;
+        buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * 写出 value 的低 len 位 (高位在前)
+     * @param value 值
+     * @param len 比特数 (不超过 32)
+     * @throws IOException
+     */
+    public void writeBits(int value, int len) throws IOException {
+        bitBuf = (bitBuf << len) | (value & 0xffffffffL & ((1L << len) - 1));
+        bitCount += len;
+        if (bitCount >= 32) {
+            bitCount -= 32;
+            writeWord((int) (bitBuf >>> bitCount));
+        }
+    }
+
+    /**
+     * 写出一个 32 位的字
+     * @param word 字
+     * @throws IOException
+     */
+    private void writeWord(int word) throws IOException {
+        if (pos + 4 > BUFFER_SIZE) {
+            flushBuffer();
+        }
+        buffer[pos] = (byte) (word >>> 24);
+        buffer[pos + 1] = (byte) (word >>> 16);
+        buffer[pos + 2] = (byte) (word >>> 8);
+        buffer[pos + 3] = (byte) word;
+        pos += 4;
+    }
+
+    /**
+     * 在最后一个字节后补 0 并写出全部的比特, 同时刷出基础输出流
+     * @return 补 0 的个数
+     * @throws IOException
+     */
+    public int flush() throws IOException {
+        int padding = (8 - (bitCount & 7)) & 7;
+        bitBuf <<= padding;
+        bitCount += padding;
+        while (bitCount > 0) {
+            if (pos == BUFFER_SIZE) {
+                flushBuffer();
+            }
+            bitCount -= 8;
+            buffer[pos++] = (byte) (bitBuf >>> bitCount);
+        }
+        flushBuffer();
+        out.flush();
+        return padding;
+    }
+
+    /**
+     * 写出字节缓冲区
+     * @throws IOException
+     */
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, pos);
+        count += pos;
+        pos = 0;
+    }
+
+    /**
+     * 获取已写出的比特数 (包含缓冲区中的比特)
+     * @return 比特数
+     */
+    public long getBitCount() {
+        return ((count + pos) << 3) + bitCount;
+    }
+}
@@ -1,14 +1,21 @@
 package com.ltchen.compression.huffman;
 
 import java.io.DataInputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * @author : ltchen
  * @date : 2017/12/02
- * @desc :
+ * @desc : 字节频次统计, 文件通过内存映射分段后在 ForkJoinPool 中并行统计
  */
 public class ByteFreqCounter {
 
@@ -16,9 +23,14 @@ public class ByteFreqCounter {
      * 字符统计: 因为每次读出一个字节, 8 个比特最多组成 256 个不同的字符
      */
     private static final int BYTE_NUMBER = 256;
-    private static final int[] byteFreqs = new int[BYTE_NUMBER];
     private static final int BUFFER_SIZE = 8196;
-    private static final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * 并行统计时每个任务处理的字节数: 16M
+     */
+    private static final int SEGMENT_SIZE = 16 << 20;
+
+    private final int[] byteFreqs = new int[BYTE_NUMBER];
 
     /**
      * 统计输入流中的字节频次
@@ -26,25 +38,162 @@ public class ByteFreqCounter {
      * @throws IOException
      */
     public ByteFreqCounter(InputStream is) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int[] sub = new int[BYTE_NUMBER * 4];
         // 记录读入 buffer 的字节个数
         int number;
         DataInputStream dis = new DataInputStream(is);
         while ((number = dis.read(buffer)) != -1) {
-            for (int i = 0; i < number; i++) {
-                // 统计字节出现的频次(转换为无符号 byte)
-                byteFreqs[buffer[i] & 0xFF]++;
-            }
+            countInto(buffer, 0, number, sub);
         }
+        merge(sub, byteFreqs);
     }
 
     /**
-     * 统计文件中的字节频次
+     * 统计文件中的字节频次 (使用公共的 ForkJoinPool 并行统计)
      * @param filePath 文件路径
      * @throws IOException
      */
     public ByteFreqCounter(String filePath) throws IOException {
-        this(new FileInputStream(filePath));
+        this(filePath, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 统计文件中的字节频次: 文件按 SEGMENT_SIZE 分段映射到内存, 各段并行统计后合并
+     * @param filePath 文件路径
+     * @param pool 执行统计任务的线程池
+     * @throws IOException
+     */
+    public ByteFreqCounter(String filePath, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            count(channel, channel.size(), pool);
+        }
+    }
+
+    /**
+     * 统计文件通道中 [0, size) 的字节频次 (使用公共的 ForkJoinPool 并行统计), 不改变通道的位置
+     * @param channel 文件通道
+     * @param size 统计的字节数, 不超过文件大小
+     * @throws IOException
+     */
+    public ByteFreqCounter(FileChannel channel, long size) throws IOException {
+        count(channel, size, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 文件按 SEGMENT_SIZE 分段映射到内存, 各段并行统计后合并
+     */
+    private void count(FileChannel channel, long size, ForkJoinPool pool) throws IOException {
+        List<ForkJoinTask<int[]>> tasks = new ArrayList<>();
+        for (long pos = 0; pos < size; pos += SEGMENT_SIZE) {
+            ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(SEGMENT_SIZE, size - pos));
+            tasks.add(pool.submit(() -> count(segment)));
+        }
+        // 合并各段的统计
+        for (ForkJoinTask<int[]> task : tasks) {
+            int[] freqs = task.join();
+            for (int i = 0; i < BYTE_NUMBER; i++) {
+                byteFreqs[i] += freqs[i];
+            }
+        }
+    }
+
+    /**
+     * 抽样统计文件中的字节频次: 在文件中等间隔读取 blocks 个 blockSize 字节的块, 只统计这些块中的字节.
+     * 文件不大于抽样的总字节数时统计整个文件
+     * @param filePath 文件路径
+     * @param blocks 抽样的块数
+     * @param blockSize 每块的字节数
+     * @throws IOException
+     */
+    public ByteFreqCounter(String filePath, int blocks, int blockSize) throws IOException {
+        if (blocks <= 0 || blockSize <= 0) {
+            throw new AssertionError("非法的抽样参数: " + blocks + " x " + blockSize);
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            // 块的间隔, 不超过块大小时相当于读取整个文件
+            long stride = Math.max(blockSize, size / blocks);
+            ByteBuffer block = ByteBuffer.allocate(blockSize);
+            int[] sub = new int[BYTE_NUMBER * 4];
+            for (long pos = 0; pos < size; pos += stride) {
+                // 读满一块或到达文件末尾
+                block.clear();
+                while (block.hasRemaining()) {
+                    if (channel.read(block, pos + block.position()) <= 0) {
+                        break;
+                    }
+                }
+                countInto(block.array(), 0, block.position(), sub);
+            }
+            merge(sub, byteFreqs);
+        }
+    }
+
+    /**
+     * 统计一段映射的字节
+     * @param segment 字节缓冲区
+     * @return 字节频次统计
+     */
+    private static int[] count(ByteBuffer segment) {
+        int[] sub = new int[BYTE_NUMBER * 4];
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (segment.hasRemaining()) {
+            int number = Math.min(buffer.length, segment.remaining());
+            segment.get(buffer, 0, number);
+            countInto(buffer, 0, number, sub);
+        }
+        int[] freqs = new int[BYTE_NUMBER];
+        merge(sub, freqs);
+        return freqs;
     }
+
+    /**
+     * 统计 [off, off + len) 中的字节, 累加到 freqs 中
+     * @param bytes 字节数组
+     * @param off 起始偏移
+     * @param len 字节数
+     * @param freqs 字节频次统计
+     */
+    public static void count(byte[] bytes, int off, int len, int[] freqs) {
+        int[] sub = new int[BYTE_NUMBER * 4];
+        countInto(bytes, off, len, sub);
+        merge(sub, freqs);
+    }
+
+    /**
+     * 统计字节到 4 个交替使用的子统计中: 连续相同的字节会反复自增同一个计数, 后一次须等待前一次写入完成,
+     * 相邻的字节分别计入不同的子统计, 使自增互不依赖
+     * @param bytes 字节数组
+     * @param off 起始偏移
+     * @param len 字节数
+     * @param sub 4 个子统计 (依次各 256 个计数)
+     */
+    static void countInto(byte[] bytes, int off, int len, int[] sub) {
+        int i = off;
+        int end = off + len;
+        for (; i + 4 <= end; i += 4) {
+            sub[bytes[i] & 0xFF]++;
+            sub[BYTE_NUMBER + (bytes[i + 1] & 0xFF)]++;
+            sub[BYTE_NUMBER * 2 + (bytes[i + 2] & 0xFF)]++;
+            sub[BYTE_NUMBER * 3 + (bytes[i + 3] & 0xFF)]++;
+        }
+        for (; i < end; i++) {
+            sub[bytes[i] & 0xFF]++;
+        }
+    }
+
+    /**
+     * 将 4 个子统计合并累加到 freqs 中
+     * @param sub 4 个子统计
+     * @param freqs 字节频次统计
+     */
+    static void merge(int[] sub, int[] freqs) {
+        for (int i = 0; i < BYTE_NUMBER; i++) {
+            freqs[i] += sub[i] + sub[BYTE_NUMBER + i] + sub[BYTE_NUMBER * 2 + i] + sub[BYTE_NUMBER * 3 + i];
+        }
+    }
+
     /**
      * 返回字节统计
      * @return
@@ -0,0 +1,480 @@
+package com.ltchen.compression.huffman;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 分块的霍夫曼压缩: 数据按固定大小分块, 每块使用各自的范式霍夫曼码, 各块在 ForkJoinPool 中并行压缩和解压.
+ *         文件格式:
+ *         +---+---+---+---+======//======+======//======+     +---+---+---+---+
+ *         |   CHUNK_SIZE  |    块组 1     |    块组 2     | ... |       0       |
+ *         +---+---+---+---+======//======+======//======+     +---+---+---+---+
+ *         块组: 块数 n (4 字节) + n 个块压缩后的字节数 (各 4 字节, 即块偏移表) + n 个压缩块
+ *         压缩块: 块类型 (1 字节) + 原始字节数 (4 字节) + 游程编码的码长度 (见 HuffmanCode.writeLengths) + 霍夫曼码
+ *         块类型为 SINGLE_STREAM 时霍夫曼码为一个比特流 (末尾补 0 到字节边界);
+ *         为 FOUR_STREAMS 时 (同 huff0) 块数据均分为 4 段, 各段分别编码为独立的比特流,
+ *         前 3 个比特流的字节数 (各 4 字节) 作为跳转表写在比特流之前, 解压时 4 个比特流在同一个循环中交替解码;
+ *         为 CONTEXT_TABLES 时 (一阶上下文模型) 按前一字节选择码表, 码长度之前为码表个数 (1 字节) 和前一字节到码表的映射 (256 字节),
+ *         之后依次为各码表的码长度和一个比特流
+ */
+public class ChunkedHuffmanCompressor extends HuffmanCompressor {
+
+    /**
+     * 默认的块大小: 256K
+     */
+    public final static int DEFAULT_CHUNK_SIZE = 256 << 10;
+
+    /**
+     * 块类型: 单个比特流
+     */
+    private final static int SINGLE_STREAM = 0;
+
+    /**
+     * 块类型: 4 个交错解码的比特流
+     */
+    private final static int FOUR_STREAMS = 1;
+
+    /**
+     * 块类型: 按前一字节选择码表
+     */
+    private final static int CONTEXT_TABLES = 2;
+
+    /**
+     * 上下文模型中码表的最大个数
+     */
+    private final static int MAX_CONTEXT_TABLES = 32;
+
+    /**
+     * 每个线程在一个块组中处理的块数
+     */
+    private final static int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * 块大小
+     */
+    private int chunkSize;
+
+    /**
+     * 线程数
+     */
+    private int threads;
+
+    /**
+     * 是否将每块编码为 4 个比特流
+     */
+    private boolean interleaved;
+
+    /**
+     * 是否尝试一阶上下文模型
+     */
+    private boolean contextModel;
+
+    public ChunkedHuffmanCompressor(String filePath, String fileName, long fileSize, boolean showProgress) {
+        super(filePath, fileName, fileSize, showProgress);
+        chunkSize = DEFAULT_CHUNK_SIZE;
+        threads = Runtime.getRuntime().availableProcessors();
+        interleaved = true;
+    }
+
+    /**
+     * 设置块大小
+     * @param chunkSize 块大小
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 设置线程数
+     * @param threads 线程数
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * 设置是否将每块编码为 4 个比特流, 解码时可交替推进 4 条互不依赖的解码链, 提高单线程的解压速度
+     * @param interleaved 是否使用 4 个比特流
+     */
+    public void setInterleaved(boolean interleaved) {
+        this.interleaved = interleaved;
+    }
+
+    /**
+     * 设置是否尝试一阶上下文模型: 按前一字节选择码表, 适合日志, CSV 等结构化文本, 估计压缩后更大的块仍使用单个码表
+     * @param contextModel 是否尝试上下文模型
+     */
+    public void setContextModel(boolean contextModel) {
+        this.contextModel = contextModel;
+    }
+
+    @Override
+    public void compress(InputStream is, OutputStream os) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            DataOutputStream dos = new DataOutputStream(os);
+            dos.writeInt(chunkSize);
+            long readBytes = 0;
+            int groupSize = threads * CHUNKS_PER_THREAD;
+            while (true) {
+                // 读入一组块, 并行压缩
+                List<ForkJoinTask<byte[]>> tasks = new ArrayList<>();
+                for (int i = 0; i < groupSize; i++) {
+                    byte[] chunk = new byte[chunkSize];
+                    int len = readFully(is, chunk);
+                    if (len == 0) {
+                        break;
+                    }
+                    readBytes += len;
+                    tasks.add(pool.submit(() -> encodeChunk(chunk, len, interleaved, contextModel)));
+                    if (len < chunkSize) {
+                        break;
+                    }
+                }
+                // 按顺序写出块组
+                dos.writeInt(tasks.size());
+                if (tasks.isEmpty()) {
+                    break;
+                }
+                List<byte[]> chunks = new ArrayList<>();
+                for (ForkJoinTask<byte[]> task : tasks) {
+                    byte[] chunk = task.join();
+                    chunks.add(chunk);
+                    dos.writeInt(chunk.length);
+                }
+                for (byte[] chunk : chunks) {
+                    dos.write(chunk);
+                }
+                // 更新处理进度
+                updateProgress(readBytes);
+            }
+            dos.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public void decompress(InputStream is, OutputStream os) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            DataInputStream dis = new DataInputStream(is);
+            int maxChunkSize = dis.readInt();
+            long readBytes = 4;
+            int n;
+            while ((n = dis.readInt()) > 0) {
+                // 读取块偏移表和压缩块, 并行解压
+                int[] sizes = new int[n];
+                for (int i = 0; i < n; i++) {
+                    sizes[i] = dis.readInt();
+                }
+                List<ForkJoinTask<byte[]>> tasks = new ArrayList<>();
+                for (int i = 0; i < n; i++) {
+                    byte[] chunk = new byte[sizes[i]];
+                    dis.readFully(chunk);
+                    tasks.add(pool.submit(() -> decodeChunk(chunk, maxChunkSize)));
+                    readBytes += 4 + sizes[i];
+                }
+                // 按顺序写出
+                for (ForkJoinTask<byte[]> task : tasks) {
+                    os.write(task.join());
+                }
+                // 更新处理进度
+                updateProgress(readBytes += 4);
+            }
+            os.flush();
+        } catch (EOFException e) {
+            throw new AssertionError("数据意外结束!");
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 使用块自己的范式霍夫曼码压缩一个块
+     * @param chunk 块数据
+     * @param len 块的字节数
+     * @param interleaved 是否编码为 4 个比特流
+     * @param contextModel 是否尝试一阶上下文模型
+     * @return 压缩块
+     * @throws IOException
+     */
+    static byte[] encodeChunk(byte[] chunk, int len, boolean interleaved, boolean contextModel) throws IOException {
+        // 统计块中的字节频次
+        int[] freqs = new int[HuffmanCode.SYMBOL_COUNT];
+        ByteFreqCounter.count(chunk, 0, len, freqs);
+        HuffmanCode huffmanCode = HuffmanCode.build(freqs);
+        int[] codes = huffmanCode.getCodes();
+        int[] lengths = huffmanCode.getLengths();
+        if (contextModel) {
+            byte[] encoded = encodeContextChunk(chunk, len, encodedSize(freqs, huffmanCode));
+            if (encoded != null) {
+                return encoded;
+            }
+        }
+
+        // 写出块类型, 原始字节数和码长度
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(len / 2 + HuffmanCode.SYMBOL_COUNT + 16);
+        DataOutputStream dos = new DataOutputStream(baos);
+        dos.writeByte(interleaved ? FOUR_STREAMS : SINGLE_STREAM);
+        dos.writeInt(len);
+        huffmanCode.writeLengths(dos);
+        if (!interleaved) {
+            // 写出霍夫曼码
+            encodeStream(chunk, 0, len, codes, lengths, baos);
+            return baos.toByteArray();
+        }
+
+        // 4 段分别编码, 先写出前 3 个比特流的字节数作为跳转表
+        int segment = (len + 3) / 4;
+        ByteArrayOutputStream[] streams = new ByteArrayOutputStream[4];
+        for (int i = 0; i < 4; i++) {
+            int start = Math.min(len, i * segment);
+            int end = Math.min(len, start + segment);
+            streams[i] = new ByteArrayOutputStream(segment / 2 + 16);
+            encodeStream(chunk, start, end, codes, lengths, streams[i]);
+        }
+        for (int i = 0; i < 3; i++) {
+            dos.writeInt(streams[i].size());
+        }
+        for (ByteArrayOutputStream stream : streams) {
+            stream.writeTo(baos);
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * 使用一阶上下文模型压缩一个块: 出现次数最多的若干个前一字节各自使用一个码表, 其余前一字节共用一个码表,
+     * 码表个数取 2, 4, ..., MAX_CONTEXT_TABLES 中估计压缩后最小的
+     * @param chunk 块数据
+     * @param len 块的字节数
+     * @param limit 单个码表压缩后的字节数, 估计不能更小时放弃
+     * @return 压缩块, 不能更小时返回 null
+     * @throws IOException
+     */
+    private static byte[] encodeContextChunk(byte[] chunk, int len, long limit) throws IOException {
+        // 统计每个前一字节 (块的第一个字节视为前一字节为 0) 之后的字节频次
+        int[][] contextFreqs = new int[HuffmanCode.SYMBOL_COUNT][HuffmanCode.SYMBOL_COUNT];
+        int[] contextCounts = new int[HuffmanCode.SYMBOL_COUNT];
+        int prev = 0;
+        for (int i = 0; i < len; i++) {
+            int b = chunk[i] & 0xff;
+            contextFreqs[prev][b]++;
+            contextCounts[prev]++;
+            prev = b;
+        }
+        // 按出现次数降序排列前一字节
+        Integer[] order = new Integer[HuffmanCode.SYMBOL_COUNT];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> contextCounts[b] - contextCounts[a]);
+        int used = 0;
+        while (used < order.length && contextCounts[order[used]] > 0) {
+            used++;
+        }
+
+        // 依次尝试不同的码表个数, 保留估计压缩后最小的分组
+        byte[] bestClasses = null;
+        HuffmanCode[] bestCodes = null;
+        long bestSize = limit;
+        for (int n = 2; n <= MAX_CONTEXT_TABLES; n <<= 1) {
+            // 前一字节不超过 n 个时各自使用一个码表, 否则前 n - 1 个各自使用一个码表, 其余共用最后一个
+            int tables = Math.min(n, used);
+            byte[] classes = new byte[HuffmanCode.SYMBOL_COUNT];
+            for (int i = 0; i < used; i++) {
+                classes[order[i]] = (byte) Math.min(i, tables - 1);
+            }
+            int[][] classFreqs = new int[tables][HuffmanCode.SYMBOL_COUNT];
+            for (int context = 0; context < HuffmanCode.SYMBOL_COUNT; context++) {
+                if (contextCounts[context] > 0) {
+                    int[] freqs = classFreqs[classes[context]];
+                    for (int b = 0; b < HuffmanCode.SYMBOL_COUNT; b++) {
+                        freqs[b] += contextFreqs[context][b];
+                    }
+                }
+            }
+            HuffmanCode[] huffmanCodes = new HuffmanCode[tables];
+            long size = 6 + HuffmanCode.SYMBOL_COUNT;
+            for (int i = 0; i < tables; i++) {
+                huffmanCodes[i] = HuffmanCode.build(classFreqs[i]);
+                size += encodedSize(classFreqs[i], huffmanCodes[i]);
+            }
+            if (size < bestSize) {
+                bestSize = size;
+                bestClasses = classes;
+                bestCodes = huffmanCodes;
+            }
+            if (tables == used) {
+                break;
+            }
+        }
+        if (bestCodes == null) {
+            return null;
+        }
+
+        // 写出块类型, 原始字节数, 码表个数, 前一字节到码表的映射和各码表的码长度
+        ByteArrayOutputStream baos = new ByteArrayOutputStream((int) bestSize + 16);
+        DataOutputStream dos = new DataOutputStream(baos);
+        dos.writeByte(CONTEXT_TABLES);
+        dos.writeInt(len);
+        dos.writeByte(bestCodes.length);
+        dos.write(bestClasses);
+        for (HuffmanCode huffmanCode : bestCodes) {
+            huffmanCode.writeLengths(dos);
+        }
+        // 按前一字节选择码表写出霍夫曼码
+        BitWriter writer = new BitWriter(baos);
+        prev = 0;
+        for (int i = 0; i < len; i++) {
+            int b = chunk[i] & 0xff;
+            HuffmanCode huffmanCode = bestCodes[bestClasses[prev]];
+            writer.writeBits(huffmanCode.getCodes()[b], huffmanCode.getLengths()[b]);
+            prev = b;
+        }
+        writer.flush();
+        return baos.toByteArray();
+    }
+
+    /**
+     * 估计用一个码表压缩后的字节数 (码长度 + 霍夫曼码)
+     * @param freqs 字节频次统计
+     * @param huffmanCode 范式霍夫曼码
+     * @return 字节数
+     * @throws IOException
+     */
+    private static long encodedSize(int[] freqs, HuffmanCode huffmanCode) throws IOException {
+        int[] lengths = huffmanCode.getLengths();
+        long bits = 0;
+        for (int i = 0; i < freqs.length; i++) {
+            bits += (long) freqs[i] * lengths[i];
+        }
+        DataOutputStream dos = new DataOutputStream(new ByteArrayOutputStream());
+        huffmanCode.writeLengths(dos);
+        return dos.size() + (bits + 7) / 8;
+    }
+
+    /**
+     * 将 [start, end) 中的字节编码为一个比特流
+     * @throws IOException
+     */
+    private static void encodeStream(byte[] chunk, int start, int end, int[] codes, int[] lengths, OutputStream os) throws IOException {
+        BitWriter writer = new BitWriter(os);
+        for (int i = start; i < end; i++) {
+            int b = chunk[i] & 0xff;
+            writer.writeBits(codes[b], lengths[b]);
+        }
+        writer.flush();
+    }
+
+    /**
+     * 解压一个压缩块
+     * @param chunk 压缩块
+     * @param chunkSize 块大小
+     * @return 块数据
+     * @throws IOException
+     */
+    static byte[] decodeChunk(byte[] chunk, int chunkSize) throws IOException {
+        // 读取块头
+        ByteArrayInputStream bais = new ByteArrayInputStream(chunk);
+        DataInputStream dis = new DataInputStream(bais);
+        int type;
+        int len;
+        HuffmanCode huffmanCode = null;
+        byte[] classes = null;
+        HuffmanCode[] contextCodes = null;
+        try {
+            type = dis.readUnsignedByte();
+            len = dis.readInt();
+            if (len < 0 || len > chunkSize) {
+                throw new AssertionError("非法的块大小: " + len);
+            }
+            if (type == CONTEXT_TABLES) {
+                // 码表个数, 前一字节到码表的映射和各码表的码长度
+                int tables = dis.readUnsignedByte();
+                if (tables == 0 || tables > MAX_CONTEXT_TABLES) {
+                    throw new AssertionError("非法的码表个数: " + tables);
+                }
+                classes = new byte[HuffmanCode.SYMBOL_COUNT];
+                dis.readFully(classes);
+                for (byte c : classes) {
+                    if (c < 0 || c >= tables) {
+                        throw new AssertionError("非法的码表映射: " + c);
+                    }
+                }
+                contextCodes = new HuffmanCode[tables];
+                for (int i = 0; i < tables; i++) {
+                    contextCodes[i] = new HuffmanCode(HuffmanCode.readLengths(dis));
+                }
+            } else {
+                huffmanCode = new HuffmanCode(HuffmanCode.readLengths(dis));
+            }
+        } catch (EOFException e) {
+            throw new AssertionError("压缩块已损坏!");
+        }
+        int headerSize = chunk.length - bais.available();
+        byte[] bytes = new byte[len];
+        if (type == CONTEXT_TABLES) {
+            // 逐个字节按前一字节选择码表查表解码
+            HuffmanDecoder[] decoders = new HuffmanDecoder[contextCodes.length];
+            for (int i = 0; i < decoders.length; i++) {
+                decoders[i] = new HuffmanDecoder(contextCodes[i].getCodes(), contextCodes[i].getLengths(), false);
+            }
+            HuffmanDecoder[] contextDecoders = new HuffmanDecoder[HuffmanCode.SYMBOL_COUNT];
+            for (int i = 0; i < contextDecoders.length; i++) {
+                contextDecoders[i] = decoders[classes[i]];
+            }
+            HuffmanDecoder.decodeContext(contextDecoders, chunk, headerSize, chunk.length, bytes);
+            return bytes;
+        }
+        HuffmanDecoder decoder = new HuffmanDecoder(huffmanCode.getCodes(), huffmanCode.getLengths());
+
+        // 查表解码
+        if (type == SINGLE_STREAM) {
+            BitReader reader = new BitReader(chunk, headerSize, chunk.length - headerSize);
+            decoder.decode(reader, bytes, 0, len);
+        } else if (type == FOUR_STREAMS) {
+            // 根据跳转表定位 4 个比特流
+            int pos = headerSize + 12;
+            if (chunk.length < pos) {
+                throw new AssertionError("压缩块已损坏!");
+            }
+            int[] starts = new int[4];
+            int[] ends = new int[4];
+            for (int i = 0; i < 4; i++) {
+                int size = chunk.length - pos;
+                if (i < 3) {
+                    int p = headerSize + i * 4;
+                    size = (chunk[p] & 0xff) << 24 | (chunk[p + 1] & 0xff) << 16 | (chunk[p + 2] & 0xff) << 8 | (chunk[p + 3] & 0xff);
+                }
+                if (size < 0 || pos + size > chunk.length) {
+                    throw new AssertionError("非法的跳转表!");
+                }
+                starts[i] = pos;
+                ends[i] = pos + size;
+                pos += size;
+            }
+            decoder.decode4(chunk, starts, ends, bytes, (len + 3) / 4);
+        } else {
+            throw new AssertionError("非法的块类型: " + type);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,189 @@
+package com.ltchen.compression.huffman;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 范式霍夫曼码: 只需码长度即可确定全部的码, 码长度相同的字符按字符值升序依次分配连续的码
+ */
+public class HuffmanCode {
+
+    /**
+     * 字符个数
+     */
+    public static final int SYMBOL_COUNT = 256;
+
+    /**
+     * 码的最大长度
+     */
+    public static final int MAX_CODE_LENGTH = 15;
+
+    /**
+     * 字符的码 (高位在前)
+     */
+    private int[] codes;
+
+    /**
+     * 字符的码长度, 0 表示未使用
+     */
+    private int[] lengths;
+
+    /**
+     * 利用码长度构造范式霍夫曼码
+     * @param lengths 码长度
+     */
+    public HuffmanCode(int[] lengths) {
+        if (lengths.length != SYMBOL_COUNT) {
+            throw new AssertionError("码长度的个数必须为 " + SYMBOL_COUNT);
+        }
+        this.lengths = lengths.clone();
+        int[] counts = new int[MAX_CODE_LENGTH + 1];
+        for (int length : lengths) {
+            if (length < 0 || length > MAX_CODE_LENGTH) {
+                throw new AssertionError("非法的码长度: " + length);
+            }
+            if (length > 0) {
+                counts[length]++;
+            }
+        }
+        // 校验 Kraft 不等式, 码长度过短时无法构成前缀码
+        int left = 1;
+        for (int len = 1; len <= MAX_CODE_LENGTH; len++) {
+            left <<= 1;
+            left -= counts[len];
+            if (left < 0) {
+                throw new AssertionError("非法的码长度: 超出 Kraft 不等式");
+            }
+        }
+
+        // 计算每种长度的第一个码 (见 RFC 1951, 3.2.2 章节)
+        int[] nextCode = new int[MAX_CODE_LENGTH + 2];
+        int code = 0;
+        for (int len = 1; len <= MAX_CODE_LENGTH; len++) {
+            code = (code + counts[len - 1]) << 1;
+            nextCode[len] = code;
+        }
+        // 按码长度和字符值分配码
+        codes = new int[SYMBOL_COUNT];
+        for (int i = 0; i < SYMBOL_COUNT; i++) {
+            if (lengths[i] > 0) {
+                codes[i] = nextCode[lengths[i]]++;
+            }
+        }
+    }
+
+    /**
+     * 利用字节频次统计构造长度不超过 MAX_CODE_LENGTH 的范式霍夫曼码
+     * @param freqs 字节频次统计
+     * @return 范式霍夫曼码
+     */
+    public static HuffmanCode build(int[] freqs) {
+        int[] lengths = new HuffmanTree(freqs).getCodeLengths();
+        limitLengths(lengths, MAX_CODE_LENGTH);
+        return new HuffmanCode(lengths);
+    }
+
+    /**
+     * 限制码的最大长度 (同 JPEG 标准附录 K.3 的方法): 每次将最长的两个码合并到一个短码之下, 保持 Kraft 等式成立
+     * @param lengths 码长度
+     * @param maxLength 码的最大长度
+     */
+    static void limitLengths(int[] lengths, int maxLength) {
+        int longest = 0;
+        for (int length : lengths) {
+            longest = Math.max(longest, length);
+        }
+        if (longest <= maxLength) {
+            return;
+        }
+        int[] bits = new int[longest + 1];
+        for (int length : lengths) {
+            if (length > 0) {
+                bits[length]++;
+            }
+        }
+        for (int i = longest; i > maxLength; i--) {
+            while (bits[i] > 0) {
+                // 找到一个更短的码, 将其变为两个长一位的码
+                int j = i - 2;
+                while (bits[j] == 0) {
+                    j--;
+                }
+                // 最长的两个码中, 一个移到 j + 1 层, 另一个成为其兄弟节点的子节点
+                bits[i] -= 2;
+                bits[i - 1]++;
+                bits[j + 1] += 2;
+                bits[j]--;
+            }
+        }
+        // 按原码长度排序字符 (原码长度越短频次越高), 依次分配新的码长度
+        Integer[] order = new Integer[SYMBOL_COUNT];
+        for (int i = 0; i < SYMBOL_COUNT; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> lengths[a] != lengths[b] ? lengths[a] - lengths[b] : a - b);
+        int len = 1;
+        for (int i = 0; i < SYMBOL_COUNT; i++) {
+            int symbol = order[i];
+            if (lengths[symbol] == 0) {
+                continue;
+            }
+            while (bits[len] == 0) {
+                len++;
+            }
+            bits[len]--;
+            lengths[symbol] = len;
+        }
+    }
+
+    /**
+     * 写出游程编码的码长度: 每个字节的高 4 位为码长度, 低 4 位为连续相同码长度的个数减 1,
+     * 依次覆盖字符 0 到 255 (同 deflate 用码长度表示霍夫曼码的思路, 通常只需几十个字节)
+     * @param out 输出
+     * @throws IOException
+     */
+    public void writeLengths(DataOutput out) throws IOException {
+        int i = 0;
+        while (i < SYMBOL_COUNT) {
+            int run = 1;
+            while (run < 16 && i + run < SYMBOL_COUNT && lengths[i + run] == lengths[i]) {
+                run++;
+            }
+            out.writeByte(lengths[i] << 4 | (run - 1));
+            i += run;
+        }
+    }
+
+    /**
+     * 读入游程编码的码长度
+     * @param in 输入
+     * @return 码长度
+     * @throws IOException
+     */
+    public static int[] readLengths(DataInput in) throws IOException {
+        int[] lengths = new int[SYMBOL_COUNT];
+        int i = 0;
+        while (i < SYMBOL_COUNT) {
+            int b = in.readUnsignedByte();
+            int run = (b & 15) + 1;
+            if (i + run > SYMBOL_COUNT) {
+                throw new AssertionError("码长度已损坏!");
+            }
+            Arrays.fill(lengths, i, i + run, b >>> 4);
+            i += run;
+        }
+        return lengths;
+    }
+
+    public int[] getCodes() {
+        return codes;
+    }
+
+    public int[] getLengths() {
+        return lengths;
+    }
+}
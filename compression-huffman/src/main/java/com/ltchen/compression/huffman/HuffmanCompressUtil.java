@@ -45,7 +45,9 @@ public class HuffmanCompressUtil {
      * @param threeTuple ThreeTuple<需转换的字节数组,字节数组有效长度,上一次剩余的霍夫曼码字符串>
      * @param huffmanCodeMap 霍夫曼码和字节的映射
      * @return TwoTuple<byte[],String>
+     * @deprecated 逐个比较码字符串, 速度很慢, 使用 HuffmanDecoder 查表解码
      */
+    @Deprecated
     public static TwoTuple<byte[],String> huffmanCodesToBytes(ThreeTuple<byte[],Integer,String> threeTuple, Map<String,Byte> huffmanCodeMap) {
         // 上一次剩余的霍夫曼码字符串
         StringBuilder sb = new StringBuilder(threeTuple.third);
@@ -3,9 +3,11 @@ package com.ltchen.compression.huffman;
 import com.ltchen.compression.Compressor;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Map;
+import java.util.zip.CRC32;
 
 /**
  * @author : ltchen
@@ -15,7 +17,44 @@ import java.util.Map;
 public class HuffmanCompressor implements Compressor{
 
     /**
-     * 输入文件的路径
+     * 压缩模式: 旧格式, 文件头为 1K 的字节频次统计 (只用于解压)
+     */
+    protected static final int MODE_LEGACY = 0;
+
+    /**
+     * 压缩模式: 静态范式霍夫曼码, 文件头为模式 (1 字节) + 原始字节数 (8 字节) + 游程编码的码长度
+     */
+    protected static final int MODE_STATIC = 1;
+
+    /**
+     * 压缩模式: 自适应范式霍夫曼码, 文件头为模式 (1 字节) + 重建间隔 (4 字节), 之后为若干帧,
+     * 每帧为字节数 (16 位) + 霍夫曼码 (末尾补 0 到字节边界), 字节数为 0 的帧表示结束,
+     * 其后为原始字节数 (8 字节) + CRC-32 (4 字节), 输入在此之前结束或校验失配时报错
+     */
+    protected static final int MODE_ADAPTIVE = 2;
+
+    /**
+     * 压缩模式: 抽样统计的静态范式霍夫曼码, 文件头为模式 (1 字节) + 游程编码的码长度, 之后的帧和结尾同自适应模式
+     */
+    protected static final int MODE_SAMPLED = 3;
+
+    /**
+     * 默认的抽样块数
+     */
+    public static final int DEFAULT_SAMPLE_BLOCKS = 64;
+
+    /**
+     * 默认的抽样块大小: 64K
+     */
+    public static final int DEFAULT_SAMPLE_BLOCK_SIZE = 64 << 10;
+
+    /**
+     * 自适应模式和抽样模式中一帧的最大字节数
+     */
+    private static final int MAX_FRAME_SIZE = 8192;
+
+    /**
+     * 输入文件的路径, 不为 null 时抽样模式直接在该文件中抽样, 压缩的输入流须读取同一文件
      */
     private String filePath;
 
@@ -39,6 +78,31 @@ public class HuffmanCompressor implements Compressor{
      */
     private long lastPercent;
 
+    /**
+     * 是否使用自适应模式
+     */
+    private boolean adaptive;
+
+    /**
+     * 自适应模式的重建间隔
+     */
+    private int rebuildInterval = AdaptiveModel.DEFAULT_INTERVAL;
+
+    /**
+     * 抽样的块数, 0 表示不抽样
+     */
+    private int sampleBlocks;
+
+    /**
+     * 抽样的块大小
+     */
+    private int sampleBlockSize = DEFAULT_SAMPLE_BLOCK_SIZE;
+
+    /**
+     * 暂存输入流时的内存上限
+     */
+    private int memoryLimit = SpillBuffer.DEFAULT_MEMORY_LIMIT;
+
     public HuffmanCompressor(String filePath, String fileName, long fileSize, boolean showProgress) {
         this.filePath = filePath;
         this.fileName = fileName;
@@ -47,8 +111,44 @@ public class HuffmanCompressor implements Compressor{
         lastPercent = -1;
     }
 
-    private void updateProgress(long readBytes){
-        if (showProgress) {
+    /**
+     * 设置是否使用自适应模式: 无需预读数据, 每读入一帧即压缩写出, 适合持续产生的数据流 (如遥测数据)
+     * @param adaptive 是否使用自适应模式
+     */
+    public void setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * 设置自适应模式的重建间隔
+     * @param rebuildInterval 重建间隔
+     */
+    public void setRebuildInterval(int rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    /**
+     * 设置抽样统计: 只统计样本中的字节频次即开始压缩, 省去完整的统计遍历.
+     * 输入为文件时在文件中等间隔抽取 blocks 块, 否则以输入流开头的 blocks * blockSize 个字节为样本
+     * @param blocks 抽样的块数, 0 表示不抽样
+     * @param blockSize 每块的字节数
+     */
+    public void setSampling(int blocks, int blockSize) {
+        this.sampleBlocks = blocks;
+        this.sampleBlockSize = blockSize;
+    }
+
+    /**
+     * 设置暂存输入流时的内存上限, 超出部分写入临时文件
+     * @param memoryLimit 内存上限
+     */
+    void setMemoryLimit(int memoryLimit) {
+        this.memoryLimit = memoryLimit;
+    }
+
+    protected void updateProgress(long readBytes){
+        // 输入为管道等未知大小的流时不显示进度
+        if (showProgress && fileSize > 0) {
             long percent = readBytes * 100 / fileSize;
             if (percent != lastPercent) {
                 System.out.println(String.format("%s: 处理进度 %d%%", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()), percent));
@@ -59,198 +159,409 @@ public class HuffmanCompressor implements Compressor{
 
     @Override
     public void compress(InputStream is, OutputStream os){
-        try {
-            // 缓冲包装
-            BufferedInputStream bis = new BufferedInputStream(is);
-            // 在流开始处标记, 用于复用流 (大文件时 BufferedInputStream 缓冲数据到内存容易导致 java.lang.OutOfMemoryError: java heap space)
-            // bis.mark(Integer.MAX_VALUE);
-            // 计算输入流中的字节频次统计
-            ByteFreqCounter byteFreqCounter = new ByteFreqCounter(this.filePath);
-            // 将频次统计写出, 用于解压是构造霍夫曼树
-            writeByteFreqs(os, byteFreqCounter.getByteFreqs());
-            // 构造霍夫曼树
-            HuffmanTree huffmanTree = new HuffmanTree(byteFreqCounter.getByteFreqs());
-            // 获取霍夫曼码 TODO 将霍夫曼码写出, 取代写出字节频次统计, 提高压缩率
-            Map<Byte,String> huffmanCodeMap = huffmanTree.getHuffmanCodeMap(huffmanTree.getHuffmanCodeMap());
-            System.out.println("compress:"+huffmanTree.getHuffmanCodeMap());
-            // 重置以复用流
-            // bis.reset();
-            // 读取流中字节转换为霍夫曼编码写出
-            writeByteAsHuffmanCode(bis, os, huffmanCodeMap);
+        if (adaptive) {
+            compressAdaptive(is, os);
+            return;
+        }
+        if (sampleBlocks > 0) {
+            compressSampled(is, os);
+            return;
+        }
+        if (is instanceof FileInputStream) {
+            // 输入流从文件开头读取时可以读取两遍: 先由 ByteFreqCounter 分段映射并行统计字节频次, 再从输入流读取编码, 无需暂存
+            try {
+                FileChannel channel = ((FileInputStream) is).getChannel();
+                long size = channel.size();
+                if (channel.position() == 0 && size > 0) {
+                    compressStatic(new ByteFreqCounter(channel, size).getByteFreqs(), size, is, os);
+                    return;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+        // 单遍读取输入流: 读入时统计字节频次, 数据暂存在内存中 (超出部分暂存在临时文件), 因此也可压缩管道等不可重复读取的流
+        try (SpillBuffer spillBuffer = new SpillBuffer(memoryLimit)) {
+            spillBuffer.readFrom(is);
+            // 读取暂存的字节转换为霍夫曼编码写出
+            try (InputStream sis = spillBuffer.getInputStream()) {
+                compressStatic(spillBuffer.getByteFreqs(), spillBuffer.size(), sis, os);
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * 按已统计的字节频次构造范式霍夫曼码, 写出文件头后编码输入流
+     * @param byteFreqs 字节频次统计
+     * @param total 原始字节数
+     * @param is 输入流
+     * @param os 输出流
+     * @throws IOException
+     */
+    private void compressStatic(int[] byteFreqs, long total, InputStream is, OutputStream os) throws IOException {
+        // 构造范式霍夫曼码, 只需写出码长度即可在解压时重建
+        HuffmanCode huffmanCode = HuffmanCode.build(byteFreqs);
+        // 写出文件头: 模式 + 原始字节数 + 码长度
+        DataOutputStream dos = new DataOutputStream(os);
+        dos.writeByte(MODE_STATIC);
+        dos.writeLong(total);
+        huffmanCode.writeLengths(dos);
+        writeByteAsHuffmanCode(is, os, huffmanCode.getCodes(), huffmanCode.getLengths(), total);
+    }
+
     /**
      * 将字节转换为霍夫曼码写出
      * @param is 输入流
      * @param os 输出流
-     * @param huffmanCodeMap 霍夫曼码
+     * @param codes 字节的霍夫曼码
+     * @param lengths 字节的霍夫曼码长度
+     * @param total 统计频次时的字节数, 输入流须恰好有这么多字节 (例如文件在两遍之间被追加时报错)
      * @throws IOException
      */
-    private void writeByteAsHuffmanCode(InputStream is, OutputStream os, Map<Byte,String> huffmanCodeMap) throws IOException {
+    private void writeByteAsHuffmanCode(InputStream is, OutputStream os, int[] codes, int[] lengths, long total) throws IOException {
         long readBytes = 0;
         DataInputStream dis = new DataInputStream(is);
         byte[] buffer = new byte[8196];
         // 记录读入 buffer 的字节个数
         int number;
-        // 记录剩余的霍夫曼码串
-        String remainStr = "";
+        BitWriter writer = new BitWriter(os);
         while ((number = dis.read(buffer)) != -1) {
-            StringBuilder sb = new StringBuilder(remainStr);
             for (int i = 0; i < number; i++) {
-                // 将字节转换为霍夫曼码
-                sb.append(huffmanCodeMap.get(buffer[i]));
+                // 将字节转换为霍夫曼码写出
+                int b = buffer[i] & 0xFF;
+                if (lengths[b] == 0) {
+                    throw new AssertionError("输入与统计的字节频次不符, 字节没有霍夫曼码: " + b);
+                }
+                writer.writeBits(codes[b], lengths[b]);
             }
-            String str = sb.toString();
-            // 霍夫曼码字符串转换为压缩字节写出
-            remainStr = writeHuffmanCodesStrAsByte(os, str);
             // 更新处理进度
             updateProgress(readBytes += number);
         }
-        /* 尾部处理:
-         * 因为会存在最后的霍夫曼码串不足 8 位的情况, 在其后补 "0" 到 8 位
-         * 最后再写入一个字节标记补了多少个 "0", 用于解压时删除
-         */
-        int zeroNum = 0;
-        if (remainStr.length() > 0) {
-            int byteLen = 8;
-            zeroNum = byteLen - remainStr.length();
-            // 补 "0" 够一个字节长度后写出
-            while (remainStr.length() < byteLen) {
-                remainStr += '0';
+        if (readBytes != total) {
+            throw new AssertionError(String.format("输入与统计的字节数不符, 期望值 = %d, 实际值 = %d", total, readBytes));
+        }
+        // 最后不足 8 位的霍夫曼码后补 "0" 到 8 位, 解压时根据原始字节数停止, 无需记录补的个数
+        writer.flush();
+    }
+
+    @Override
+    public void decompress(InputStream is, OutputStream os){
+        try {
+            DataInputStream dis = new DataInputStream(is);
+            int mode = dis.readUnsignedByte();
+            HuffmanDecoder decoder;
+            long total;
+            if (mode == MODE_LEGACY) {
+                // 旧格式: 以字节个数 256 (大端序的首字节为 0) 开头的字节频次统计, 使用霍夫曼树的码
+                int[] byteFreqs = readByteFreqs(dis);
+                HuffmanTree huffmanTree = new HuffmanTree(byteFreqs);
+                int[] codes = new int[256];
+                int[] lengths = new int[256];
+                toCodeArrays(huffmanTree.getHuffmanCodeMap(), codes, lengths);
+                decoder = new HuffmanDecoder(codes, lengths);
+                total = 0;
+                for (int freq : byteFreqs) {
+                    total += freq;
+                }
+            } else if (mode == MODE_ADAPTIVE) {
+                decompressAdaptive(dis, os);
+                return;
+            } else if (mode == MODE_SAMPLED) {
+                decompressSampled(dis, os);
+                return;
+            } else if (mode == MODE_STATIC) {
+                // 利用码长度重建范式霍夫曼码
+                total = dis.readLong();
+                HuffmanCode huffmanCode = new HuffmanCode(HuffmanCode.readLengths(dis));
+                decoder = new HuffmanDecoder(huffmanCode.getCodes(), huffmanCode.getLengths());
+            } else {
+                throw new AssertionError("不支持的压缩模式: " + mode);
             }
-            os.write(Integer.parseInt(remainStr, 2));
+            // 读取流中霍夫曼码转换为对应字节写出
+            writeHuffmanCodeAsByte(dis, os, decoder, total);
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-        // 写出补的 "0" 个数
-        os.write(zeroNum);
-        // 刷出
-        os.flush();
     }
 
     /**
-     *
+     * 查表解码流中的霍夫曼码写出, 解码的字节数由频次统计得到, 因此无需处理尾部补的 "0"
+     * @param is 输入流
      * @param os 输出流
-     * @param str 霍夫曼码串
-     * @return 不足一个字节长度的霍夫曼码串
+     * @param decoder 霍夫曼解码器
+     * @param total 原始字节数
      * @throws IOException
      */
-    private String writeHuffmanCodesStrAsByte(OutputStream os, String str) throws IOException {
-        DataOutputStream dos = new DataOutputStream(os);
-        // 一个字节长度
-        int byteLen = 8;
-        // 当霍夫曼码串长度小于一个字节的长度时直接返回
-        if (str.length() < byteLen) {
-            return str;
-        }
-        // 将 huffmanCodes 每一个字节长度截取出转换为字节写出
-        while (str.length() > byteLen) {
-            String bitsStr = str.substring(0, byteLen);
-            dos.writeByte(Integer.parseInt(bitsStr, 2));
-            str = str.substring(byteLen);
+    private void writeHuffmanCodeAsByte(InputStream is, OutputStream os, HuffmanDecoder decoder, long total) throws IOException {
+        BitReader reader = new BitReader(is);
+        byte[] buffer = new byte[8196];
+        // 记录已解码的字节数
+        long decodedBytes = 0;
+        while (decodedBytes < total) {
+            int number = (int) Math.min(buffer.length, total - decodedBytes);
+            decoder.decode(reader, buffer, 0, number);
+            os.write(buffer, 0, number);
+            decodedBytes += number;
+            // 更新处理进度
+            updateProgress(reader.getCount());
         }
         // 刷出
-        dos.flush();
-        // 返回剩余不足一个字节长度的霍夫曼码字符串
-        return str;
+        os.flush();
     }
 
-    @Override
-    public void decompress(InputStream is, OutputStream os){
+    /**
+     * 自适应模式压缩: 每次读入的数据立即作为一帧编码写出并刷出, 码表由已写出的数据决定
+     * @param is 输入流
+     * @param os 输出流
+     */
+    private void compressAdaptive(InputStream is, OutputStream os) {
         try {
-            // 读出字节频次统计
-            int[] byteFreqs = readByteFreqs(is);
-            // 构造霍夫曼树
-            HuffmanTree huffmanTree = new HuffmanTree(byteFreqs);
-            // 获取霍夫曼码
-            Map<String, Byte> huffmanCodeMap = huffmanTree.getHuffmanCodeMap();
-            System.out.println("decompress:"+huffmanCodeMap);
-            // 读取流中霍夫曼码字符串转换为对应字节写出
-            writeHuffmanCodeAsByte(is, os, huffmanCodeMap);
+            // 写出文件头: 模式 + 重建间隔
+            DataOutputStream dos = new DataOutputStream(os);
+            dos.writeByte(MODE_ADAPTIVE);
+            dos.writeInt(rebuildInterval);
+            dos.flush();
+            AdaptiveModel model = new AdaptiveModel(rebuildInterval);
+            BitWriter writer = new BitWriter(os);
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[MAX_FRAME_SIZE];
+            long readBytes = 0;
+            int number;
+            while ((number = is.read(buffer)) != -1) {
+                if (number == 0) {
+                    continue;
+                }
+                writer.writeBits(number, 16);
+                // 在重建位置切换为新的码
+                int i = 0;
+                while (i < number) {
+                    int n = Math.min(number - i, model.remaining());
+                    HuffmanCode huffmanCode = model.getHuffmanCode();
+                    int[] codes = huffmanCode.getCodes();
+                    int[] lengths = huffmanCode.getLengths();
+                    for (int j = i; j < i + n; j++) {
+                        int b = buffer[j] & 0xFF;
+                        writer.writeBits(codes[b], lengths[b]);
+                    }
+                    model.update(buffer, i, n);
+                    i += n;
+                }
+                crc.update(buffer, 0, number);
+                // 补 0 到字节边界并刷出, 使已读入的数据尽快到达接收方
+                writer.flush();
+                // 更新处理进度
+                updateProgress(readBytes += number);
+            }
+            writeEnd(writer, readBytes, crc);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    private void writeHuffmanCodeAsByte(InputStream is, OutputStream os, Map<String, Byte> huffmanCodeMap) throws IOException {
-        // 记录以处理的字节数
-        long readBytes = 0;
-        DataInputStream dis = new DataInputStream(new BufferedInputStream(is));
-        byte[] buffer = new byte[8196];
-        // 记录读入 buffer 的字节个数
-        int number;
-        // 记录剩余的霍夫曼码串
-        String remainStr = "";
-        while ((number = dis.read(buffer)) != -1) {
-            StringBuilder sb = new StringBuilder(remainStr);
-            for (int i = 0; i < number; i++) {
-                // 将字节转换为霍夫曼码
-                sb.append(ByteUtil.byteToBits(buffer[i]));
+    /**
+     * 抽样模式压缩: 用样本的字节频次构造码表后单遍压缩全部数据
+     * @param is 输入流
+     * @param os 输出流
+     */
+    private void compressSampled(InputStream is, OutputStream os) {
+        try {
+            int[] byteFreqs;
+            if (filePath != null) {
+                // 在文件中等间隔抽样, 输入流仍从头读取
+                byteFreqs = new ByteFreqCounter(filePath, sampleBlocks, sampleBlockSize).getByteFreqs();
+            } else {
+                // 读入输入流开头的数据作为样本, 之后与剩余的数据一起压缩
+                byte[] sample = new byte[(int) Math.min((long) sampleBlocks * sampleBlockSize, Integer.MAX_VALUE - 8)];
+                int len = readFully(is, sample);
+                byteFreqs = new int[HuffmanCode.SYMBOL_COUNT];
+                ByteFreqCounter.count(sample, 0, len, byteFreqs);
+                is = new SequenceInputStream(new ByteArrayInputStream(sample, 0, len), is);
             }
-            String str = sb.toString();
-            // 尾部处理: 见压缩时的处理
-            if (dis.available() < 1) {
-                int byteLen = 8;
-                int zeroNum = Integer.parseInt(str.substring(str.length() - byteLen), 2);
-                str = str.substring(0, str.length() - zeroNum - byteLen);
+            // 未在样本中出现的字节计为 1, 保证任何字节都有码, 其码长度由 HuffmanCode 限制在 MAX_CODE_LENGTH 以内
+            for (int i = 0; i < byteFreqs.length; i++) {
+                if (byteFreqs[i] == 0) {
+                    byteFreqs[i] = 1;
+                }
+            }
+            HuffmanCode huffmanCode = HuffmanCode.build(byteFreqs);
+            int[] codes = huffmanCode.getCodes();
+            int[] lengths = huffmanCode.getLengths();
+            // 写出文件头: 模式 + 码长度
+            DataOutputStream dos = new DataOutputStream(os);
+            dos.writeByte(MODE_SAMPLED);
+            huffmanCode.writeLengths(dos);
+            // 原始字节数事先未知, 按帧写出
+            BitWriter writer = new BitWriter(os);
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[MAX_FRAME_SIZE];
+            long readBytes = 0;
+            int number;
+            while ((number = readFully(is, buffer)) > 0) {
+                writer.writeBits(number, 16);
+                for (int i = 0; i < number; i++) {
+                    int b = buffer[i] & 0xFF;
+                    writer.writeBits(codes[b], lengths[b]);
+                }
+                crc.update(buffer, 0, number);
+                writer.flush();
+                // 更新处理进度
+                updateProgress(readBytes += number);
+            }
+            writeEnd(writer, readBytes, crc);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 抽样模式解压
+     * @param dis 输入流 (已读取模式)
+     * @param os 输出流
+     * @throws IOException
+     */
+    private void decompressSampled(DataInputStream dis, OutputStream os) throws IOException {
+        HuffmanCode huffmanCode = new HuffmanCode(HuffmanCode.readLengths(dis));
+        HuffmanDecoder decoder = new HuffmanDecoder(huffmanCode.getCodes(), huffmanCode.getLengths());
+        BitReader reader = new BitReader(dis);
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[MAX_FRAME_SIZE];
+        long total = 0;
+        int number;
+        while ((number = reader.readBits(16)) > 0) {
+            if (number > MAX_FRAME_SIZE) {
+                throw new AssertionError("非法的帧大小: " + number);
             }
-            // 将霍夫曼码字符串转换为解压缩字节写出
-            remainStr = writeHuffmanCodesStrAsByte(os, huffmanCodeMap, str);
+            decoder.decode(reader, buffer, 0, number);
+            reader.alignToByte();
+            crc.update(buffer, 0, number);
+            os.write(buffer, 0, number);
+            total += number;
             // 更新处理进度
-            updateProgress(readBytes += number);
+            updateProgress(reader.getCount());
         }
+        readEnd(reader, total, crc);
+        os.flush();
     }
 
-    private String writeHuffmanCodesStrAsByte(OutputStream os, Map<String, Byte> huffmanCodeMap, String str) throws IOException {
-        DataOutputStream dos = new DataOutputStream(os);
-        // 字符串中是否还有霍夫曼码
-        boolean hasHuffmanCode = true;
-        while (hasHuffmanCode) {
-            hasHuffmanCode = false;
-            // 将字符串中的霍夫曼码转换为字节写出
-            for (String huffmanCode : huffmanCodeMap.keySet()) {
-                if(str.startsWith(huffmanCode)) {
-                    os.write(huffmanCodeMap.get(huffmanCode));
-                    str = str.substring(huffmanCode.length());
-                    hasHuffmanCode = true;
-                    break;
+    /**
+     * 尽量读满字节数组
+     * @param is 输入流
+     * @param bytes 字节数组
+     * @return 读入的字节数, 小于数组长度时表示输入流已结束
+     * @throws IOException
+     */
+    protected static int readFully(InputStream is, byte[] bytes) throws IOException {
+        int len = 0;
+        int n;
+        while (len < bytes.length && (n = is.read(bytes, len, bytes.length - len)) > 0) {
+            len += n;
+        }
+        return len;
+    }
+
+    /**
+     * 自适应模式解压: 与压缩时在相同的位置重建码表
+     * @param dis 输入流 (已读取模式)
+     * @param os 输出流
+     * @throws IOException
+     */
+    private void decompressAdaptive(DataInputStream dis, OutputStream os) throws IOException {
+        int interval = dis.readInt();
+        AdaptiveModel model = new AdaptiveModel(interval);
+        HuffmanCode huffmanCode = model.getHuffmanCode();
+        HuffmanDecoder decoder = new HuffmanDecoder(huffmanCode.getCodes(), huffmanCode.getLengths());
+        BitReader reader = new BitReader(dis);
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[MAX_FRAME_SIZE];
+        long total = 0;
+        int number;
+        while ((number = reader.readBits(16)) > 0) {
+            if (number > MAX_FRAME_SIZE) {
+                throw new AssertionError("非法的帧大小: " + number);
+            }
+            int i = 0;
+            while (i < number) {
+                int n = Math.min(number - i, model.remaining());
+                decoder.decode(reader, buffer, i, n);
+                if (model.update(buffer, i, n)) {
+                    huffmanCode = model.getHuffmanCode();
+                    decoder = new HuffmanDecoder(huffmanCode.getCodes(), huffmanCode.getLengths());
                 }
+                i += n;
             }
+            reader.alignToByte();
+            crc.update(buffer, 0, number);
+            os.write(buffer, 0, number);
+            total += number;
+            // 更新处理进度
+            updateProgress(reader.getCount());
         }
-        // 刷出
-        dos.flush();
-        // 返回不包含任何霍夫曼码的字符串
-        return str;
+        readEnd(reader, total, crc);
+        os.flush();
     }
 
     /**
-     * 写出字节频次统计
-     * @param os 输出流
-     * @param byteFreqs 字节频次统计
+     * 写出结束帧和结尾 (原始字节数 + CRC-32)
+     * @param writer 比特输出 (已对齐到字节边界)
+     * @param total 原始字节数
+     * @param crc 原始数据的 CRC-32
      * @throws IOException
      */
-    private void writeByteFreqs(OutputStream os, int[] byteFreqs) throws IOException {
-        DataOutputStream dos = new DataOutputStream(os);
-        // 写出字节个数
-        int byteNumber = byteFreqs.length;
-        dos.writeInt(byteNumber);
-        // 写出字节统计
-        for (int i = 0; i < byteNumber; i++) {
-            dos.writeInt(byteFreqs[i]);
+    private static void writeEnd(BitWriter writer, long total, CRC32 crc) throws IOException {
+        writer.writeBits(0, 16);
+        writer.writeBits((int) (total >>> 32), 32);
+        writer.writeBits((int) total, 32);
+        writer.writeBits((int) crc.getValue(), 32);
+        writer.flush();
+    }
+
+    /**
+     * 读取结束帧之后的结尾并校验, 输入在结尾之前结束时 BitReader 报错
+     * @param reader 比特输入 (已读取结束帧)
+     * @param total 解压出的字节数
+     * @param crc 解压出的数据的 CRC-32
+     * @throws IOException
+     */
+    private static void readEnd(BitReader reader, long total, CRC32 crc) throws IOException {
+        long expectedTotal = (long) reader.readBits(32) << 32 | reader.readBits(32) & 0xffffffffL;
+        int expectedCrc = reader.readBits(32);
+        if (expectedTotal != total) {
+            throw new AssertionError(String.format("数据长度失配, 期望值 = %d, 实际值 = %d", expectedTotal, total));
+        }
+        if (expectedCrc != (int) crc.getValue()) {
+            throw new AssertionError(String.format("循环冗余校验失配, 期望值 = %08X, 实际值 = %08X", expectedCrc, (int) crc.getValue()));
         }
     }
 
     /**
-     * 读入字节频次统计
-     * @param is 输入流
+     * 将霍夫曼码转换为以字节值为下标的码和码长度数组
+     * @param huffmanCodeMap 霍夫曼码: Map<霍夫曼码,字符值>
+     * @param codes 字节的霍夫曼码
+     * @param lengths 字节的霍夫曼码长度
+     */
+    private static void toCodeArrays(Map<String,Byte> huffmanCodeMap, int[] codes, int[] lengths) {
+        for (Map.Entry<String,Byte> entry : huffmanCodeMap.entrySet()) {
+            String code = entry.getKey();
+            if (code.length() > 32) {
+                throw new AssertionError("霍夫曼码的长度超过 32 位!");
+            }
+            codes[entry.getValue() & 0xFF] = Integer.parseUnsignedInt(code, 2);
+            lengths[entry.getValue() & 0xFF] = code.length();
+        }
+    }
+
+    /**
+     * 读入旧格式的字节频次统计 (字节个数的首字节已被读取)
+     * @param dis 输入流
      * @return int[]
      * @throws IOException
      */
-    private int[] readByteFreqs(InputStream is) throws IOException {
-        DataInputStream dis = new DataInputStream(is);
+    private int[] readByteFreqs(DataInputStream dis) throws IOException {
         // 读出字节个数
-        int byteNumber = dis.readInt();
+        int byteNumber = dis.readUnsignedByte() << 16 | dis.readUnsignedShort();
         // 读出字节统计
         int[] byteFreqs = new int[byteNumber];
         for (int i = 0; i < byteNumber; i++) {
@@ -270,10 +581,18 @@ public class HuffmanCompressor implements Compressor{
         boolean showProgress = args[0].contains("p");
         boolean compress = args[0].contains("c");
         boolean decompress = args[0].contains("d");
+        boolean chunked = args[0].contains("b");
+        boolean adaptive = args[0].contains("a");
+        boolean contextModel = args[0].contains("o");
+        boolean sampled = args[0].contains("s");
         // 压缩参数和解压缩参数不可同时出现
         if (!(compress ^ decompress)) {
             usage();
         }
+        // 上下文模型只用于分块压缩; 分块压缩不支持自适应和抽样; 自适应模式不统计频次, 不可与抽样同时使用
+        if ((contextModel && !chunked) || (chunked && (adaptive || sampled)) || (adaptive && sampled)) {
+            usage();
+        }
 
         try {
             // 输入输出文件
@@ -283,7 +602,18 @@ public class HuffmanCompressor implements Compressor{
             FileOutputStream out = new FileOutputStream(outFile);
 
             // 霍夫曼压缩器
-            HuffmanCompressor huffmanCompressor = new HuffmanCompressor(inFile.getPath(), inFile.getName(), inFile.length(), showProgress);
+            HuffmanCompressor huffmanCompressor;
+            if (chunked) {
+                ChunkedHuffmanCompressor chunkedCompressor = new ChunkedHuffmanCompressor(inFile.getPath(), inFile.getName(), inFile.length(), showProgress);
+                chunkedCompressor.setContextModel(contextModel);
+                huffmanCompressor = chunkedCompressor;
+            } else {
+                huffmanCompressor = new HuffmanCompressor(inFile.getPath(), inFile.getName(), inFile.length(), showProgress);
+            }
+            huffmanCompressor.setAdaptive(adaptive);
+            if (sampled) {
+                huffmanCompressor.setSampling(DEFAULT_SAMPLE_BLOCKS, DEFAULT_SAMPLE_BLOCK_SIZE);
+            }
             String info;
 
             // 压缩/解压缩
@@ -332,12 +662,16 @@ public class HuffmanCompressor implements Compressor{
      */
     private static void usage() {
         System.out.println("使用方法:");
-        System.out.println("\tjava HuffmanCompressor -vpcd [inFilePath] [outFilePath]");
+        System.out.println("\tjava HuffmanCompressor -vpcdbaos [inFilePath] [outFilePath]");
         System.out.println("选项:");
         System.out.println("\t-v  显示详情");
         System.out.println("\t-p  显示进度");
         System.out.println("\t-c  压缩");
         System.out.println("\t-d  解压缩");
+        System.out.println("\t-b  分块并行压缩/解压缩");
+        System.out.println("\t-a  自适应压缩 (无需预读, 适合数据流), 不可与 -b, -s 同时使用");
+        System.out.println("\t-o  分块压缩时按前一字节选择码表 (一阶上下文模型), 须与 -b 同时使用");
+        System.out.println("\t-s  抽样统计字节频次 (适合很大的文件), 不可与 -b, -a 同时使用");
         System.exit(1);
     }
 
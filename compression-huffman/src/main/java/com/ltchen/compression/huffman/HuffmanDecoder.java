@@ -0,0 +1,447 @@
+package com.ltchen.compression.huffman;
+
+import java.io.IOException;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 查表的霍夫曼解码器: 一级表以接下来的 TABLE_BITS 个比特为下标, 直接得到字符和码长度;
+ *         更长的码在一级表中指向二级表, 二级表的大小由该前缀下最长的码决定.
+ *         码普遍较短时另建多字符表, 一次查表解出 MULTI_BITS 个比特内的至多 3 个字符
+ */
+public class HuffmanDecoder {
+
+    /**
+     * 一级表的比特数
+     */
+    public static final int TABLE_BITS = 11;
+
+    /**
+     * 表项中的二级表标记
+     */
+    private static final int SUB_TABLE = 1 << 6;
+
+    /**
+     * 表项中码长度 (或二级表比特数) 的掩码
+     */
+    private static final int LENGTH_MASK = SUB_TABLE - 1;
+
+    /**
+     * 多字符表的比特数
+     */
+    public static final int MULTI_BITS = 12;
+
+    /**
+     * 多字符表项中最多的字符数
+     */
+    private static final int MAX_SYMBOLS = 3;
+
+    /**
+     * 平均码长度不超过此值时使用多字符表, 即平均一次查表至少解出 2 个字符
+     */
+    private static final double MULTI_THRESHOLD = MULTI_BITS / 2.0;
+
+    /**
+     * 解码表, 一级表在前, 二级表依次在后.
+     * 表项: 字符 << 8 | 码长度; 指向二级表的表项: 二级表偏移 << 8 | SUB_TABLE | 二级表比特数; 0 表示无效的码
+     */
+    private int[] table;
+
+    /**
+     * 码的最大长度
+     */
+    private int maxLength;
+
+    /**
+     * 多字符表, 不使用时为 null.
+     * 表项: 字符0 | 字符1 << 8 | 字符2 << 16 | 字符数 << 24 | 比特数 << 26; 0 表示第一个码超过 MULTI_BITS
+     */
+    private int[] multiTable;
+
+    /**
+     * 多字符表中是否没有无效的表项 (所有码都不超过 MULTI_BITS 且码是完整的)
+     */
+    private boolean multiComplete;
+
+    /**
+     * 利用码和码长度构建解码表, 码须为前缀码 (不要求是范式霍夫曼码)
+     * @param codes 字符的码 (高位在前)
+     * @param lengths 字符的码长度, 0 表示未使用, 不超过 32
+     */
+    public HuffmanDecoder(int[] codes, int[] lengths) {
+        this(codes, lengths, true);
+    }
+
+    /**
+     * 利用码和码长度构建解码表, 码须为前缀码 (不要求是范式霍夫曼码)
+     * @param codes 字符的码 (高位在前)
+     * @param lengths 字符的码长度, 0 表示未使用, 不超过 32
+     * @param multiSymbol 是否允许构建多字符表 (逐个字符切换码表解码时用不到多字符表)
+     */
+    public HuffmanDecoder(int[] codes, int[] lengths, boolean multiSymbol) {
+        // 统计每个一级表前缀下最长的码, 确定二级表的大小
+        int[] subBits = new int[1 << TABLE_BITS];
+        for (int i = 0; i < lengths.length; i++) {
+            int len = lengths[i];
+            maxLength = Math.max(maxLength, len);
+            if (len > TABLE_BITS) {
+                int prefix = codes[i] >>> (len - TABLE_BITS);
+                subBits[prefix] = Math.max(subBits[prefix], len - TABLE_BITS);
+            }
+        }
+        int size = 1 << TABLE_BITS;
+        int[] offsets = new int[1 << TABLE_BITS];
+        for (int prefix = 0; prefix < subBits.length; prefix++) {
+            if (subBits[prefix] > 0) {
+                offsets[prefix] = size;
+                size += 1 << subBits[prefix];
+            }
+        }
+        table = new int[size];
+        for (int prefix = 0; prefix < subBits.length; prefix++) {
+            if (subBits[prefix] > 0) {
+                table[prefix] = offsets[prefix] << 8 | SUB_TABLE | subBits[prefix];
+            }
+        }
+
+        // 填充表项: 码之后的比特可以是任意值, 因此一个码占据连续的 2^(表比特数 - 码长度) 个表项
+        for (int i = 0; i < lengths.length; i++) {
+            int len = lengths[i];
+            if (len == 0) {
+                continue;
+            }
+            int entry = i << 8 | len;
+            if (len <= TABLE_BITS) {
+                int start = codes[i] << (TABLE_BITS - len);
+                fill(start, 1 << (TABLE_BITS - len), entry);
+            } else {
+                int prefix = codes[i] >>> (len - TABLE_BITS);
+                int low = codes[i] & ((1 << (len - TABLE_BITS)) - 1);
+                int shift = subBits[prefix] - (len - TABLE_BITS);
+                fill(offsets[prefix] + (low << shift), 1 << shift, entry);
+            }
+        }
+
+        // 以码长度估计平均码长度 (长度为 len 的码对应的概率约为 2^-len), 码足够短时才值得构建多字符表
+        double kraft = 0;
+        double average = 0;
+        for (int len : lengths) {
+            if (len > 0) {
+                kraft += Math.pow(2, -len);
+                average += len * Math.pow(2, -len);
+            }
+        }
+        if (multiSymbol && kraft > 0 && average / kraft <= MULTI_THRESHOLD) {
+            buildMultiTable(codes, lengths);
+        }
+    }
+
+    /**
+     * 构建多字符表: 对每个 MULTI_BITS 位的比特序列, 依次解出完整落在其中的码 (至多 MAX_SYMBOLS 个)
+     * @param codes 字符的码
+     * @param lengths 字符的码长度
+     */
+    private void buildMultiTable(int[] codes, int[] lengths) {
+        // 先构建 MULTI_BITS 位的单字符表 (字符 << 8 | 码长度), 只包含不超过 MULTI_BITS 的码
+        int size = 1 << MULTI_BITS;
+        int[] single = new int[size];
+        for (int i = 0; i < lengths.length; i++) {
+            int len = lengths[i];
+            if (len > 0 && len <= MULTI_BITS) {
+                int start = codes[i] << (MULTI_BITS - len);
+                for (int j = 0; j < 1 << (MULTI_BITS - len); j++) {
+                    single[start + j] = i << 8 | len;
+                }
+            }
+        }
+        multiTable = new int[size];
+        for (int bits = 0; bits < size; bits++) {
+            int entry = 0;
+            int used = 0;
+            int count = 0;
+            while (count < MAX_SYMBOLS) {
+                // 将已使用的比特移出, 剩余比特左对齐后查单字符表
+                int e = single[(bits << used) & (size - 1)];
+                int len = e & LENGTH_MASK;
+                if (e == 0 || used + len > MULTI_BITS) {
+                    break;
+                }
+                entry |= (e >>> 8) << (count << 3);
+                used += len;
+                count++;
+            }
+            if (count > 0) {
+                multiTable[bits] = entry | count << 24 | used << 26;
+            }
+        }
+        multiComplete = true;
+        for (int entry : multiTable) {
+            if (entry == 0) {
+                multiComplete = false;
+                break;
+            }
+        }
+    }
+
+    /**
+     * 填充连续的表项
+     */
+    private void fill(int start, int count, int entry) {
+        for (int j = 0; j < count; j++) {
+            if (table[start + j] != 0) {
+                throw new AssertionError("霍夫曼码不是前缀码!");
+            }
+            table[start + j] = entry;
+        }
+    }
+
+    /**
+     * 解码一个字符
+     * @param reader 比特输入
+     * @return 字符
+     * @throws IOException
+     */
+    public int decode(BitReader reader) throws IOException {
+        int entry = table[reader.peekBits(TABLE_BITS)];
+        if ((entry & SUB_TABLE) != 0) {
+            int bits = entry & LENGTH_MASK;
+            int index = reader.peekBits(TABLE_BITS + bits) & ((1 << bits) - 1);
+            entry = table[(entry >>> 8) + index];
+        }
+        if (entry == 0) {
+            throw new AssertionError("找不到对应的码");
+        }
+        reader.skipBits(entry & LENGTH_MASK);
+        return entry >>> 8;
+    }
+
+    /**
+     * 解码 len 个字符
+     * @param reader 比特输入
+     * @param bytes 输出数组
+     * @param off 起始偏移
+     * @param len 字符数
+     * @throws IOException
+     */
+    public void decode(BitReader reader, byte[] bytes, int off, int len) throws IOException {
+        int i = off;
+        int end = off + len;
+        if (multiTable != null) {
+            // 每次写出 MAX_SYMBOLS 个字节, 再按实际解出的字符数前进, 留出末尾的空间
+            while (i + MAX_SYMBOLS <= end) {
+                int entry = multiTable[reader.peekBits(MULTI_BITS)];
+                if (entry == 0) {
+                    bytes[i++] = (byte) decode(reader);
+                    continue;
+                }
+                bytes[i] = (byte) entry;
+                bytes[i + 1] = (byte) (entry >>> 8);
+                bytes[i + 2] = (byte) (entry >>> 16);
+                reader.skipBits(entry >>> 26);
+                i += (entry >>> 24) & 3;
+            }
+        }
+        while (i < end) {
+            bytes[i++] = (byte) decode(reader);
+        }
+    }
+
+    /**
+     * 交替解码字节数组中的 4 个比特流, 第 k 个比特流解码为 [k * segment, (k + 1) * segment) 中的字节 (不超过数组末尾).
+     * 4 个比特流的状态都保存在局部变量中, 4 条解码链互不依赖, CPU 可以同时执行
+     * @param data 比特流所在的字节数组
+     * @param starts 4 个比特流的起始偏移
+     * @param ends 4 个比特流的结束偏移 (不包含)
+     * @param bytes 输出数组
+     * @param segment 每段的字节数
+     * @throws IOException
+     */
+    public void decode4(byte[] data, int[] starts, int[] ends, byte[] bytes, int segment) throws IOException {
+        int len = bytes.length;
+        // 各段的输出位置和结束位置
+        int q0 = 0;
+        int q1 = Math.min(len, segment);
+        int q2 = Math.min(len, segment * 2);
+        int q3 = Math.min(len, segment * 3);
+        int end0 = q1;
+        int end1 = q2;
+        int end2 = q3;
+        int end3 = len;
+        long b0 = 0, b1 = 0, b2 = 0, b3 = 0;
+        int c0 = 0, c1 = 0, c2 = 0, c3 = 0;
+        int p0 = starts[0], p1 = starts[1], p2 = starts[2], p3 = starts[3];
+        // 每次读入 8 个字节时比特流须还有 8 个字节
+        int e0 = ends[0] - 8, e1 = ends[1] - 8, e2 = ends[2] - 8, e3 = ends[3] - 8;
+
+        if (multiComplete) {
+            // 多字符表: 每次补充后至少有 56 个比特, 足够查 4 次 MULTI_BITS 位的表; 每次写出 3 个字节, 须留出末尾的空间
+            while (q0 <= end0 - 12 && q1 <= end1 - 12 && q2 <= end2 - 12 && q3 <= end3 - 12
+                    && p0 <= e0 && p1 <= e1 && p2 <= e2 && p3 <= e3) {
+                // 读入 8 个字节, 按整字节计入比特数, 多读入的比特在下次补充时会被同样的值覆盖
+                b0 |= readLong(data, p0) >>> c0;
+                p0 += (63 - c0) >>> 3;
+                c0 |= 56;
+                b1 |= readLong(data, p1) >>> c1;
+                p1 += (63 - c1) >>> 3;
+                c1 |= 56;
+                b2 |= readLong(data, p2) >>> c2;
+                p2 += (63 - c2) >>> 3;
+                c2 |= 56;
+                b3 |= readLong(data, p3) >>> c3;
+                p3 += (63 - c3) >>> 3;
+                c3 |= 56;
+                for (int j = 0; j < 4; j++) {
+                    int e = multiTable[(int) (b0 >>> (64 - MULTI_BITS))];
+                    b0 <<= e >>> 26;
+                    c0 -= e >>> 26;
+                    bytes[q0] = (byte) e;
+                    bytes[q0 + 1] = (byte) (e >>> 8);
+                    bytes[q0 + 2] = (byte) (e >>> 16);
+                    q0 += (e >>> 24) & 3;
+                    e = multiTable[(int) (b1 >>> (64 - MULTI_BITS))];
+                    b1 <<= e >>> 26;
+                    c1 -= e >>> 26;
+                    bytes[q1] = (byte) e;
+                    bytes[q1 + 1] = (byte) (e >>> 8);
+                    bytes[q1 + 2] = (byte) (e >>> 16);
+                    q1 += (e >>> 24) & 3;
+                    e = multiTable[(int) (b2 >>> (64 - MULTI_BITS))];
+                    b2 <<= e >>> 26;
+                    c2 -= e >>> 26;
+                    bytes[q2] = (byte) e;
+                    bytes[q2 + 1] = (byte) (e >>> 8);
+                    bytes[q2 + 2] = (byte) (e >>> 16);
+                    q2 += (e >>> 24) & 3;
+                    e = multiTable[(int) (b3 >>> (64 - MULTI_BITS))];
+                    b3 <<= e >>> 26;
+                    c3 -= e >>> 26;
+                    bytes[q3] = (byte) e;
+                    bytes[q3 + 1] = (byte) (e >>> 8);
+                    bytes[q3 + 2] = (byte) (e >>> 16);
+                    q3 += (e >>> 24) & 3;
+                }
+            }
+        } else if (maxLength <= 16) {
+            // 单字符表: 每次补充后至少有 56 个比特, 足够解出 3 个不超过 16 位的码
+            while (q0 <= end0 - 3 && q1 <= end1 - 3 && q2 <= end2 - 3 && q3 <= end3 - 3
+                    && p0 <= e0 && p1 <= e1 && p2 <= e2 && p3 <= e3) {
+                b0 |= readLong(data, p0) >>> c0;
+                p0 += (63 - c0) >>> 3;
+                c0 |= 56;
+                b1 |= readLong(data, p1) >>> c1;
+                p1 += (63 - c1) >>> 3;
+                c1 |= 56;
+                b2 |= readLong(data, p2) >>> c2;
+                p2 += (63 - c2) >>> 3;
+                c2 |= 56;
+                b3 |= readLong(data, p3) >>> c3;
+                p3 += (63 - c3) >>> 3;
+                c3 |= 56;
+                for (int j = 0; j < 3; j++) {
+                    int e = lookup(b0);
+                    b0 <<= e & LENGTH_MASK;
+                    c0 -= e & LENGTH_MASK;
+                    bytes[q0++] = (byte) (e >>> 8);
+                    e = lookup(b1);
+                    b1 <<= e & LENGTH_MASK;
+                    c1 -= e & LENGTH_MASK;
+                    bytes[q1++] = (byte) (e >>> 8);
+                    e = lookup(b2);
+                    b2 <<= e & LENGTH_MASK;
+                    c2 -= e & LENGTH_MASK;
+                    bytes[q2++] = (byte) (e >>> 8);
+                    e = lookup(b3);
+                    b3 <<= e & LENGTH_MASK;
+                    c3 -= e & LENGTH_MASK;
+                    bytes[q3++] = (byte) (e >>> 8);
+                }
+            }
+        }
+        // 各段剩余的字节从比特流的当前状态逐个解码
+        decode(new BitReader(data, p0, ends[0] - p0, b0, c0), bytes, q0, end0 - q0);
+        decode(new BitReader(data, p1, ends[1] - p1, b1, c1), bytes, q1, end1 - q1);
+        decode(new BitReader(data, p2, ends[2] - p2, b2, c2), bytes, q2, end2 - q2);
+        decode(new BitReader(data, p3, ends[3] - p3, b3, c3), bytes, q3, end3 - q3);
+    }
+
+    /**
+     * 解码按前一字节选择码表的比特流 (一阶上下文模型), 比特流的状态保存在局部变量中
+     * @param decoders 以前一字节为下标的解码器 (第一个字节的前一字节视为 0)
+     * @param data 比特流所在的字节数组
+     * @param start 比特流的起始偏移
+     * @param end 比特流的结束偏移 (不包含)
+     * @param bytes 输出数组
+     * @throws IOException
+     */
+    public static void decodeContext(HuffmanDecoder[] decoders, byte[] data, int start, int end, byte[] bytes) throws IOException {
+        int len = bytes.length;
+        int q = 0;
+        int prev = 0;
+        long b = 0;
+        int c = 0;
+        int p = start;
+        boolean fast = true;
+        for (HuffmanDecoder decoder : decoders) {
+            fast &= decoder.maxLength <= 16;
+        }
+        if (fast) {
+            // 每次补充后至少有 56 个比特, 足够解出 3 个不超过 16 位的码
+            while (q <= len - 3 && p <= end - 8) {
+                b |= readLong(data, p) >>> c;
+                p += (63 - c) >>> 3;
+                c |= 56;
+                for (int j = 0; j < 3; j++) {
+                    int e = decoders[prev].lookup(b);
+                    b <<= e & LENGTH_MASK;
+                    c -= e & LENGTH_MASK;
+                    prev = e >>> 8;
+                    bytes[q++] = (byte) prev;
+                }
+            }
+        }
+        // 剩余的字节从比特流的当前状态逐个解码
+        BitReader reader = new BitReader(data, p, end - p, b, c);
+        while (q < len) {
+            prev = decoders[prev].decode(reader);
+            bytes[q++] = (byte) prev;
+        }
+    }
+
+    /**
+     * 以比特缓冲区的高位查表
+     * @param bitBuf 比特缓冲区, 最高位为下一个比特
+     * @return 表项
+     */
+    private int lookup(long bitBuf) {
+        int entry = table[(int) (bitBuf >>> (64 - TABLE_BITS))];
+        if ((entry & SUB_TABLE) != 0) {
+            int bits = entry & LENGTH_MASK;
+            entry = table[(entry >>> 8) + ((int) (bitBuf >>> (64 - TABLE_BITS - bits)) & ((1 << bits) - 1))];
+        }
+        if (entry == 0) {
+            throw new AssertionError("找不到对应的码");
+        }
+        return entry;
+    }
+
+    /**
+     * 以大端序读取 long
+     */
+    private static long readLong(byte[] data, int off) {
+        return (long) (data[off] & 0xff) << 56 | (long) (data[off + 1] & 0xff) << 48 | (long) (data[off + 2] & 0xff) << 40
+                | (long) (data[off + 3] & 0xff) << 32 | (long) (data[off + 4] & 0xff) << 24 | (data[off + 5] & 0xff) << 16
+                | (data[off + 6] & 0xff) << 8 | (data[off + 7] & 0xff);
+    }
+
+    /**
+     * 是否使用了多字符表
+     * @return 是否使用多字符表
+     */
+    public boolean isMultiSymbol() {
+        return multiTable != null;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+}
@@ -80,6 +80,31 @@ public class HuffmanTree {
         return codes;
     }
 
+    /**
+     * 获取此霍夫曼树中每个字符的码长度, 即叶子节点的深度
+     * @return int[256] (未出现的字符码长度为 0)
+     */
+    public int[] getCodeLengths() {
+        int[] lengths = new int[256];
+        generateCodeLength(root, 0, lengths);
+        return lengths;
+    }
+
+    /**
+     * 生成当前节点下叶子节点的码长度
+     * @param node 当前节点
+     * @param depth 当前节点的深度
+     * @param lengths 码长度
+     */
+    private void generateCodeLength(Node node, int depth, int[] lengths) {
+        if (node instanceof LeafNode) {
+            lengths[((LeafNode) node).value & 0xff] = depth;
+        } else {
+            generateCodeLength(((InternalNode) node).left, depth + 1, lengths);
+            generateCodeLength(((InternalNode) node).right, depth + 1, lengths);
+        }
+    }
+
     /**
      * 生成当前节点的霍夫曼码
      * @param node 当前节点
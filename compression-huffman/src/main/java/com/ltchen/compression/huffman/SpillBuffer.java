@@ -0,0 +1,237 @@
+package com.ltchen.compression.huffman;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 暂存输入流的缓冲区, 读入时同时统计字节频次, 使不可回退的输入流 (管道, 网络, 内存流) 也能两遍处理:
+ *         数据先存放在内存中, 超过内存上限的部分写入临时文件, 再次读取时通过内存映射读取临时文件
+ */
+public class SpillBuffer implements Closeable {
+
+    /**
+     * 默认的内存上限: 64M
+     */
+    public static final int DEFAULT_MEMORY_LIMIT = 64 << 20;
+
+    /**
+     * 每次映射临时文件的大小
+     */
+    private static final int MAP_SIZE = 64 << 20;
+
+    /**
+     * 内存上限
+     */
+    private int memoryLimit;
+
+    /**
+     * 内存中的数据
+     */
+    private byte[] memory;
+
+    /**
+     * 内存中的字节数
+     */
+    private int memorySize;
+
+    /**
+     * 临时文件, 数据未超过内存上限时为 null
+     */
+    private File file;
+
+    /**
+     * 临时文件的字节数
+     */
+    private long fileSize;
+
+    /**
+     * 字节频次统计
+     */
+    private int[] byteFreqs;
+
+    public SpillBuffer() {
+        this(DEFAULT_MEMORY_LIMIT);
+    }
+
+    /**
+     * 构造暂存缓冲区
+     * @param memoryLimit 内存上限
+     */
+    public SpillBuffer(int memoryLimit) {
+        this.memoryLimit = memoryLimit;
+        memory = new byte[Math.min(memoryLimit, 1 << 16)];
+        byteFreqs = new int[256];
+    }
+
+    /**
+     * 读入输入流中的全部数据, 并统计字节频次
+     * @param is 输入流
+     * @throws IOException
+     */
+    public void readFrom(InputStream is) throws IOException {
+        byte[] buffer = new byte[8192];
+        int[] sub = new int[HuffmanCode.SYMBOL_COUNT * 4];
+        OutputStream fos = null;
+        try {
+            int number;
+            while ((number = is.read(buffer)) != -1) {
+                ByteFreqCounter.countInto(buffer, 0, number, sub);
+                // 先填满内存, 剩余部分写入临时文件
+                int n = Math.min(number, memoryLimit - memorySize);
+                if (n > 0) {
+                    ensureCapacity(memorySize + n);
+                    System.arraycopy(buffer, 0, memory, memorySize, n);
+                    memorySize += n;
+                }
+                if (n < number) {
+                    if (fos == null) {
+                        file = File.createTempFile("huffman", ".spill");
+                        file.deleteOnExit();
+                        fos = new BufferedOutputStream(new FileOutputStream(file), 1 << 16);
+                    }
+                    fos.write(buffer, n, number - n);
+                    fileSize += number - n;
+                }
+            }
+            ByteFreqCounter.merge(sub, byteFreqs);
+        } finally {
+            if (fos != null) {
+                fos.close();
+            }
+        }
+    }
+
+    /**
+     * 扩大内存缓冲区
+     * @param capacity 需要的容量
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > memory.length) {
+            int length = (int) Math.min(memoryLimit, Math.max(capacity, (long) memory.length << 1));
+            byte[] bytes = new byte[length];
+            System.arraycopy(memory, 0, bytes, 0, memorySize);
+            memory = bytes;
+        }
+    }
+
+    /**
+     * 返回读取暂存数据的输入流
+     * @return 输入流
+     * @throws IOException
+     */
+    public InputStream getInputStream() throws IOException {
+        InputStream is = new ByteArrayInputStream(memory, 0, memorySize);
+        if (file != null) {
+            is = new SequenceInputStream(is, new MappedInputStream(file, fileSize));
+        }
+        return is;
+    }
+
+    /**
+     * 返回字节频次统计
+     * @return 字节频次统计
+     */
+    public int[] getByteFreqs() {
+        return byteFreqs;
+    }
+
+    /**
+     * 返回暂存的字节数
+     * @return 字节数
+     */
+    public long size() {
+        return memorySize + fileSize;
+    }
+
+    /**
+     * 释放内存并删除临时文件
+     */
+    @Override
+    public void close() {
+        memory = null;
+        if (file != null) {
+            file.delete();
+            file = null;
+        }
+    }
+
+    /**
+     * 通过内存映射分段读取文件的输入流
+     */
+    private static class MappedInputStream extends InputStream {
+
+        private FileChannel channel;
+
+        private long size;
+
+        /**
+         * 当前映射段在文件中的偏移
+         */
+        private long position;
+
+        private MappedByteBuffer buffer;
+
+        MappedInputStream(File file, long size) throws IOException {
+            RandomAccessFile raf = new RandomAccessFile(file, "r");
+            channel = raf.getChannel();
+            this.size = size;
+        }
+
+        /**
+         * 确保当前映射段中还有数据, 必要时映射下一段
+         * @return 是否还有数据
+         * @throws IOException
+         */
+        private boolean ensureData() throws IOException {
+            if (buffer != null && buffer.hasRemaining()) {
+                return true;
+            }
+            if (buffer != null) {
+                position += buffer.capacity();
+            }
+            if (position >= size) {
+                return false;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_SIZE, size - position));
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!ensureData()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!ensureData()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, n);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.ltchen.compression.huffman;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc :
+ */
+public class HuffmanCompressorTest {
+
+    @Test
+    public void testStatic() {
+        HuffmanCompressor compressor = new HuffmanCompressor(null, "test", 0, false);
+        for (byte[] data : samples()) {
+            Assert.assertArrayEquals(data, roundTrip(compressor, data));
+        }
+    }
+
+    @Test
+    public void testStaticFile() throws IOException {
+        byte[] data = skewed(300000, new Random(1));
+        Path path = Files.createTempFile("huffman", ".txt");
+        try {
+            Files.write(path, data);
+            File file = path.toFile();
+            // 输入为文件时由 ByteFreqCounter 直接统计文件
+            HuffmanCompressor compressor = new HuffmanCompressor(file.getPath(), file.getName(), file.length(), false);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (InputStream in = new FileInputStream(file)) {
+                compressor.compress(in, out);
+            }
+            Assert.assertArrayEquals(data, decompress(compressor, out.toByteArray()));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testFileStreamNotAtStart() throws IOException {
+        Path path = Files.createTempFile("huffman", ".txt");
+        try {
+            Files.write(path, "aaaabbbb\nERROR zzz\n".getBytes());
+            File file = path.toFile();
+            HuffmanCompressor compressor = new HuffmanCompressor(file.getPath(), file.getName(), file.length(), false);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            // 输入流不在文件开头时不能按整个文件统计, 改为暂存输入流
+            try (InputStream in = new FileInputStream(file)) {
+                Assert.assertEquals(9, in.skip(9));
+                compressor.compress(in, out);
+            }
+            Assert.assertArrayEquals("ERROR zzz\n".getBytes(), decompress(compressor, out.toByteArray()));
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testFileGrowsBetweenPasses() throws IOException {
+        Path path = Files.createTempFile("huffman", ".txt");
+        try {
+            Files.write(path, "aaaabbbb\n".getBytes());
+            File file = path.toFile();
+            HuffmanCompressor compressor = new HuffmanCompressor(file.getPath(), file.getName(), file.length(), false);
+            // 统计之后文件被追加: 编码时读到的字节比统计的多, 且含有没有码的字节
+            try (InputStream in = new FileInputStream(file) {
+                private final InputStream appended = new SequenceInputStream(new FileInputStream(file),
+                        new ByteArrayInputStream("ERROR zzz\n".getBytes()));
+
+                @Override
+                public int read(byte[] b) throws IOException {
+                    return appended.read(b);
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return appended.read(b, off, len);
+                }
+            }) {
+                compressor.compress(in, new ByteArrayOutputStream());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testSpill() {
+        byte[] data = skewed(200000, new Random(2));
+        HuffmanCompressor compressor = new HuffmanCompressor(null, "test", 0, false);
+        // 超出内存上限的数据暂存在临时文件中
+        compressor.setMemoryLimit(4096);
+        Assert.assertArrayEquals(data, roundTrip(compressor, data));
+    }
+
+    @Test
+    public void testAdaptive() {
+        HuffmanCompressor compressor = new HuffmanCompressor(null, "test", 0, false);
+        compressor.setAdaptive(true);
+        compressor.setRebuildInterval(1000);
+        for (byte[] data : samples()) {
+            Assert.assertArrayEquals(data, roundTrip(compressor, data));
+        }
+    }
+
+    @Test
+    public void testSampled() {
+        HuffmanCompressor compressor = new HuffmanCompressor(null, "test", 0, false);
+        // 样本只有开头的 8K, 之后出现的字节也须能编码
+        compressor.setSampling(2, 4096);
+        for (byte[] data : samples()) {
+            Assert.assertArrayEquals(data, roundTrip(compressor, data));
+        }
+    }
+
+    @Test
+    public void testChunked() {
+        for (boolean interleaved : new boolean[]{false, true}) {
+            ChunkedHuffmanCompressor compressor = new ChunkedHuffmanCompressor(null, "test", 0, false);
+            compressor.setChunkSize(16 << 10);
+            compressor.setThreads(2);
+            compressor.setInterleaved(interleaved);
+            for (byte[] data : samples()) {
+                Assert.assertArrayEquals(data, roundTrip(compressor, data));
+            }
+        }
+    }
+
+    @Test
+    public void testContextModel() {
+        ChunkedHuffmanCompressor compressor = new ChunkedHuffmanCompressor(null, "test", 0, false);
+        compressor.setChunkSize(32 << 10);
+        compressor.setThreads(2);
+        compressor.setContextModel(true);
+        for (byte[] data : samples()) {
+            Assert.assertArrayEquals(data, roundTrip(compressor, data));
+        }
+    }
+
+    @Test
+    public void testLegacy() throws IOException {
+        // legacy.huf 由旧版本的 HuffmanCompressor 压缩 legacy.txt 得到
+        byte[] expected = readResource("legacy.txt");
+        HuffmanCompressor compressor = new HuffmanCompressor(null, "test", 0, false);
+        Assert.assertArrayEquals(expected, decompress(compressor, readResource("legacy.huf")));
+    }
+
+    @Test
+    public void testTruncated() {
+        byte[] data = skewed(50000, new Random(3));
+        HuffmanCompressor[] compressors = new HuffmanCompressor[3];
+        for (int i = 0; i < compressors.length; i++) {
+            compressors[i] = new HuffmanCompressor(null, "test", 0, false);
+        }
+        compressors[1].setAdaptive(true);
+        compressors[2].setSampling(2, 4096);
+        for (HuffmanCompressor compressor : compressors) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            compressor.compress(new ByteArrayInputStream(data), out);
+            byte[] compressed = out.toByteArray();
+            // 在结尾, 中间和帧边界附近截断
+            for (int cut : new int[]{compressed.length - 1, compressed.length - 12, compressed.length / 2, 300}) {
+                boolean failed = false;
+                try {
+                    decompress(compressor, Arrays.copyOf(compressed, cut));
+                } catch (AssertionError e) {
+                    failed = true;
+                }
+                Assert.assertTrue("截断在 " + cut + " 处未报错", failed);
+            }
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testCorruptTrailer() {
+        HuffmanCompressor compressor = new HuffmanCompressor(null, "test", 0, false);
+        compressor.setAdaptive(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compressor.compress(new ByteArrayInputStream(skewed(20000, new Random(4))), out);
+        byte[] compressed = out.toByteArray();
+        // 改动 CRC
+        compressed[compressed.length - 1] ^= 1;
+        decompress(compressor, compressed);
+    }
+
+    /**
+     * 空输入, 单个字节, 只有一种字节, 分布不均的字节和随机字节
+     */
+    private static byte[][] samples() {
+        Random random = new Random(5);
+        byte[] same = new byte[10000];
+        Arrays.fill(same, (byte) 'a');
+        byte[] noise = new byte[70000];
+        random.nextBytes(noise);
+        return new byte[][]{new byte[0], {42}, same, skewed(100000, random), noise};
+    }
+
+    private static byte[] roundTrip(HuffmanCompressor compressor, byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compressor.compress(new ByteArrayInputStream(data), out);
+        return decompress(compressor, out.toByteArray());
+    }
+
+    private static byte[] decompress(HuffmanCompressor compressor, byte[] compressed) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compressor.decompress(new ByteArrayInputStream(compressed), out);
+        return out.toByteArray();
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        try (InputStream in = HuffmanCompressorTest.class.getClassLoader().getResourceAsStream(name)) {
+            Assert.assertNotNull(name, in);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int number;
+            while ((number = in.read(buffer)) != -1) {
+                out.write(buffer, 0, number);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * 各字节独立取值, 第 i 个字节的概率正比于 1 / (i + 1) (Zipf 分布), 各字节的码长相差较大
+     */
+    private static byte[] skewed(int size, Random random) {
+        double[] cumulative = new double[256];
+        double sum = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] = sum += 1.0 / (i + 1);
+        }
+        byte[] buf = new byte[size];
+        for (int i = 0; i < size; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            // 以 ' ' 为最常见的字节
+            buf[i] = (byte) (' ' + (index < 0 ? -index - 1 : index));
+        }
+        return buf;
+    }
+}
@@ -0,0 +1,208 @@
+package com.ltchen.compression.lz77;
+
+import java.util.Arrays;
+
+import static com.ltchen.compression.lz77.SequenceEncoder.MIN_MATCH;
+import static com.ltchen.compression.lz77.HashParser.readInt;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 二叉树匹配查找 (bt4): 相同哈希值的位置按其后缀的字典序组成二叉查找树, 新位置作为根插入时沿树向下比较,
+ *         同时把路径上的节点分到新根的左右子树. 与哈希链不同, 每一步都能排除一半的候选, 窗口为数 MB 时仍然可用.
+ *         每个位置返回全部有用的候选: 长度严格递增, 每种长度取最近的一个.
+ *         内存: 每个窗口位置 2 个 int (8 字节), 窗口 8M 时约 64MB
+ */
+public class BinaryTreeMatchFinder {
+
+    /**
+     * 默认的搜索深度
+     */
+    public static final int DEFAULT_DEPTH = 24;
+
+    /**
+     * 默认的足够长的匹配长度: 达到此长度后停止搜索
+     */
+    public static final int DEFAULT_NICE_LENGTH = 64;
+
+    /**
+     * 哈希表大小对数的范围
+     */
+    private static final int MIN_HASH_LOG = 16;
+    private static final int MAX_HASH_LOG = 22;
+
+    /**
+     * 哈希值对应的树根位置, -1 表示无
+     */
+    private final int[] head;
+
+    private final int hashShift;
+
+    /**
+     * 以 (位置 & mask) * 2 为下标, 依次保存左子树 (后缀较小) 和右子树 (后缀较大) 的根位置 (环形)
+     */
+    private final int[] son;
+
+    private final int mask;
+
+    /**
+     * 每个位置最多比较的节点个数
+     */
+    private final int depth;
+
+    /**
+     * 足够长的匹配长度
+     */
+    private final int niceLength;
+
+    /**
+     * 构造二叉树匹配查找器
+     * @param windowSize 窗口大小, 向上取为 2 的幂, 实际的最大偏移为其减 1
+     * @param depth 搜索深度
+     * @param niceLength 足够长的匹配长度
+     */
+    public BinaryTreeMatchFinder(int windowSize, int depth, int niceLength) {
+        int size = Integer.highestOneBit(Math.max(windowSize - 1, 1)) << 1;
+        int hashLog = Math.max(MIN_HASH_LOG, Math.min(MAX_HASH_LOG, Integer.numberOfTrailingZeros(size) - 1));
+        head = new int[1 << hashLog];
+        hashShift = 32 - hashLog;
+        son = new int[size << 1];
+        mask = size - 1;
+        this.depth = depth;
+        this.niceLength = niceLength;
+        reset();
+    }
+
+    /**
+     * 最大偏移
+     */
+    public int maxDistance() {
+        return mask;
+    }
+
+    public int niceLength() {
+        return niceLength;
+    }
+
+    /**
+     * 查找 pos 处的匹配并把 pos 插入树中; pos + MIN_MATCH 不超过 end, 位置须按顺序插入
+     * @param buf 缓冲区
+     * @param pos 位置
+     * @param end 匹配结束位置的上限 (不包含)
+     * @param windowSize 窗口大小
+     * @param lengths 输出: 匹配长度, 严格递增
+     * @param offsets 输出: 对应的偏移
+     * @return 匹配个数
+     */
+    public int findMatches(byte[] buf, int pos, int end, int windowSize, int[] lengths, int[] offsets) {
+        return search(buf, pos, end, windowSize, lengths, offsets);
+    }
+
+    /**
+     * 只把 pos 插入树中, 不输出匹配
+     */
+    public void skip(byte[] buf, int pos, int end, int windowSize) {
+        search(buf, pos, end, windowSize, null, null);
+    }
+
+    private int search(byte[] buf, int pos, int end, int windowSize, int[] lengths, int[] offsets) {
+        windowSize = Math.min(windowSize, mask);
+        // 距 end 不足 niceLength 时无法比较出完整的顺序, 只查找不插入, 以免破坏树的有序性
+        boolean insert = end - pos >= niceLength;
+        if (!insert && lengths == null) {
+            return 0;
+        }
+        int lenLimit = Math.min(niceLength, end - pos);
+        int h = (readInt(buf, pos) * -1640531535) >>> hashShift;
+        int current = head[h];
+        if (insert) {
+            head[h] = pos;
+        }
+        // ptr0 / ptr1 为等待填入的右子树 / 左子树指针, len0 / len1 为两侧已知的公共前缀长度
+        int ptr0 = ((pos & mask) << 1) + 1;
+        int ptr1 = (pos & mask) << 1;
+        int len0 = 0;
+        int len1 = 0;
+        int best = MIN_MATCH - 1;
+        int count = 0;
+        for (int attempts = depth; ; attempts--) {
+            int delta = pos - current;
+            if (current < 0 || delta > windowSize || attempts == 0) {
+                if (insert) {
+                    son[ptr0] = -1;
+                    son[ptr1] = -1;
+                }
+                break;
+            }
+            int pair = (current & mask) << 1;
+            int len = Math.min(len0, len1);
+            if (buf[current + len] == buf[pos + len]) {
+                while (++len < lenLimit && buf[current + len] == buf[pos + len]) {
+                }
+                if (len > best) {
+                    best = len;
+                    if (lengths != null) {
+                        lengths[count] = len;
+                        offsets[count] = delta;
+                        count++;
+                    }
+                }
+                if (len >= lenLimit) {
+                    // 后缀相同, 用新节点替换旧节点
+                    if (insert) {
+                        son[ptr1] = son[pair];
+                        son[ptr0] = son[pair + 1];
+                    }
+                    break;
+                }
+            }
+            if ((buf[current + len] & 0xff) < (buf[pos + len] & 0xff)) {
+                // 候选较小, 连同其左子树归入新节点的左侧, 继续比较其右子树
+                if (insert) {
+                    son[ptr1] = current;
+                }
+                ptr1 = pair + 1;
+                current = son[ptr1];
+                len1 = len;
+            } else {
+                if (insert) {
+                    son[ptr0] = current;
+                }
+                ptr0 = pair;
+                current = son[ptr0];
+                len0 = len;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 缓冲区中的数据整体前移了 delta 个字节
+     */
+    public void slide(int delta) {
+        for (int i = 0; i < head.length; i++) {
+            head[i] = head[i] >= delta ? head[i] - delta : -1;
+        }
+        // 位置减小 delta 后在环形数组中的下标也随之移动: 原地循环左移 (三次翻转)
+        int shift = (delta & mask) << 1;
+        reverse(son, 0, shift);
+        reverse(son, shift, son.length);
+        reverse(son, 0, son.length);
+        for (int i = 0; i < son.length; i++) {
+            son[i] = son[i] >= delta ? son[i] - delta : -1;
+        }
+    }
+
+    private static void reverse(int[] a, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    public void reset() {
+        Arrays.fill(head, -1);
+        Arrays.fill(son, -1);
+    }
+}
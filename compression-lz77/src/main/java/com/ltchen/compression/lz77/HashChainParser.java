@@ -0,0 +1,158 @@
+package com.ltchen.compression.lz77;
+
+import java.util.Arrays;
+
+import static com.ltchen.compression.lz77.SequenceEncoder.MIN_MATCH;
+import static com.ltchen.compression.lz77.HashParser.hash;
+import static com.ltchen.compression.lz77.HashParser.matchLength;
+import static com.ltchen.compression.lz77.HashParser.readInt;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 哈希链解析: 相同哈希值的位置串成链表, 每个位置沿链表比较至多 depth 个候选取最长的匹配,
+ *         并做一步惰性匹配 (下一个位置的匹配更长时放弃当前匹配), 压缩率高于 HashParser, 速度较慢
+ */
+public class HashChainParser implements LZ77Parser {
+
+    /**
+     * 默认的搜索深度
+     */
+    public static final int DEFAULT_DEPTH = 64;
+
+    /**
+     * 哈希值对应的最近位置, -1 表示无
+     */
+    private final int[] head;
+
+    /**
+     * 以位置 & mask 为下标, 保存同一哈希值的前一个位置 (环形, 大小不小于窗口)
+     */
+    private int[] chain;
+
+    private final int mask;
+
+    /**
+     * 每个位置最多比较的候选个数
+     */
+    private final int depth;
+
+    /**
+     * 下一个待加入哈希链的位置
+     */
+    private int next;
+
+    /**
+     * 最近一次查找到的匹配的偏移
+     */
+    private int matchOffset;
+
+    /**
+     * 构造哈希链解析器
+     * @param windowSize 窗口大小
+     * @param depth 搜索深度
+     */
+    public HashChainParser(int windowSize, int depth) {
+        int size = Integer.highestOneBit(Math.max(windowSize, 1)) << 1;
+        head = new int[1 << 16];
+        chain = new int[size];
+        mask = size - 1;
+        this.depth = depth;
+        reset();
+    }
+
+    @Override
+    public void parse(byte[] buf, int start, int end, int windowSize, SequenceEncoder encoder) {
+        windowSize = Math.min(windowSize, mask);
+        int limit = end - MIN_MATCH;
+        next = Math.max(next, start);
+        int i = start;
+        while (i <= limit) {
+            insertUpTo(buf, i);
+            int length = findMatch(buf, i, end, windowSize);
+            if (length < MIN_MATCH) {
+                i++;
+                continue;
+            }
+            int offset = matchOffset;
+            // 惰性匹配
+            while (i < limit) {
+                insertUpTo(buf, i + 1);
+                int nextLength = findMatch(buf, i + 1, end, windowSize);
+                if (nextLength <= length) {
+                    break;
+                }
+                i++;
+                length = nextLength;
+                offset = matchOffset;
+            }
+            encoder.match(i, offset, length);
+            i += length;
+        }
+        insertUpTo(buf, Math.min(i, limit + 1));
+    }
+
+    /**
+     * 将 [next, target) 中的位置加入哈希链
+     */
+    private void insertUpTo(byte[] buf, int target) {
+        while (next < target) {
+            int h = hash(readInt(buf, next));
+            chain[next & mask] = head[h];
+            head[h] = next;
+            next++;
+        }
+    }
+
+    /**
+     * 沿哈希链查找 i 处最长的匹配, 偏移保存在 matchOffset 中
+     * @return 匹配长度, 小于 MIN_MATCH 表示没有匹配
+     */
+    private int findMatch(byte[] buf, int i, int end, int windowSize) {
+        int best = MIN_MATCH - 1;
+        int maxLength = end - i;
+        int first = readInt(buf, i);
+        int candidate = head[hash(first)];
+        for (int attempts = depth; attempts > 0 && candidate >= 0 && i - candidate <= windowSize; attempts--) {
+            // 先比较当前最长匹配之后的字节, 不可能更长的候选很快被排除
+            if (buf[candidate + best] == buf[i + best] && readInt(buf, candidate) == first) {
+                int length = MIN_MATCH + matchLength(buf, candidate + MIN_MATCH, i + MIN_MATCH, end);
+                if (length > best) {
+                    best = length;
+                    matchOffset = i - candidate;
+                    if (length == maxLength) {
+                        break;
+                    }
+                }
+            }
+            int previous = chain[candidate & mask];
+            if (previous >= candidate) {
+                break;
+            }
+            candidate = previous;
+        }
+        return best;
+    }
+
+    @Override
+    public void slide(int delta) {
+        for (int i = 0; i < head.length; i++) {
+            head[i] = head[i] >= delta ? head[i] - delta : -1;
+        }
+        // 位置减小 delta 后在环形数组中的下标也随之移动
+        int[] rotated = new int[chain.length];
+        for (int j = 0; j < chain.length; j++) {
+            int position = chain[(j + delta) & mask];
+            rotated[j] = position >= delta ? position - delta : -1;
+        }
+        chain = rotated;
+        next = Math.max(0, next - delta);
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(head, -1);
+        Arrays.fill(chain, -1);
+        next = 0;
+    }
+}
@@ -0,0 +1,108 @@
+package com.ltchen.compression.lz77;
+
+import java.util.Arrays;
+
+import static com.ltchen.compression.lz77.SequenceEncoder.MIN_MATCH;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 快速的贪心解析: 以 4 个字节的哈希值查表, 每个位置只比较表中最近的一个候选 (单次探测),
+ *         连续找不到匹配时逐渐加大步长跳过难以压缩的数据
+ */
+public class HashParser implements LZ77Parser {
+
+    /**
+     * 哈希表大小的对数
+     */
+    private static final int HASH_LOG = 16;
+
+    /**
+     * 连续失败 2^SKIP_TRIGGER 次后步长加 1
+     */
+    private static final int SKIP_TRIGGER = 6;
+
+    /**
+     * 哈希值对应的最近位置, -1 表示无
+     */
+    private final int[] table;
+
+    public HashParser() {
+        table = new int[1 << HASH_LOG];
+        reset();
+    }
+
+    @Override
+    public void parse(byte[] buf, int start, int end, int windowSize, SequenceEncoder encoder) {
+        // 最后一个可以读取 4 个字节的位置
+        int limit = end - MIN_MATCH;
+        int i = start;
+        int searches = 1 << SKIP_TRIGGER;
+        while (i <= limit) {
+            int h = hash(readInt(buf, i));
+            int ref = table[h];
+            table[h] = i;
+            if (ref < 0 || i - ref > windowSize || readInt(buf, ref) != readInt(buf, i)) {
+                i += searches++ >>> SKIP_TRIGGER;
+                continue;
+            }
+            // 向前延伸匹配
+            int anchor = encoder.getAnchor();
+            while (i > anchor && ref > 0 && buf[i - 1] == buf[ref - 1]) {
+                i--;
+                ref--;
+            }
+            int length = MIN_MATCH + matchLength(buf, ref + MIN_MATCH, i + MIN_MATCH, end);
+            encoder.match(i, i - ref, length);
+            i += length;
+            // 匹配末尾附近的位置加入哈希表
+            if (i - 2 <= limit) {
+                table[hash(readInt(buf, i - 2))] = i - 2;
+            }
+            searches = 1 << SKIP_TRIGGER;
+        }
+    }
+
+    @Override
+    public void slide(int delta) {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = table[i] >= delta ? table[i] - delta : -1;
+        }
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(table, -1);
+    }
+
+    /**
+     * 4 个字节的哈希值 (乘以黄金分割数后取高位)
+     */
+    static int hash(int value) {
+        return (value * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    /**
+     * 以小端序读取 4 个字节
+     */
+    static int readInt(byte[] buf, int i) {
+        return (buf[i] & 0xff) | (buf[i + 1] & 0xff) << 8 | (buf[i + 2] & 0xff) << 16 | (buf[i + 3] & 0xff) << 24;
+    }
+
+    /**
+     * 计算 a 和 b 开始的公共前缀长度, b 不超过 limit
+     * @param buf 缓冲区
+     * @param a 较前的位置
+     * @param b 较后的位置
+     * @param limit b 的上限 (不包含)
+     * @return 公共前缀长度
+     */
+    static int matchLength(byte[] buf, int a, int b, int limit) {
+        int start = b;
+        while (b < limit && buf[a] == buf[b]) {
+            a++;
+            b++;
+        }
+        return b - start;
+    }
+}
@@ -0,0 +1,120 @@
+package com.ltchen.compression.lz77;
+
+import static com.ltchen.compression.lz77.SequenceEncoder.MIN_MATCH;
+import static com.ltchen.compression.lz77.SequenceEncoder.RUN_MASK;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : LZ4 块格式, 见 https://github.com/lz4/lz4/blob/dev/doc/lz4_Block_format.md
+ *         序列格式与 SequenceEncoder 相同, 只是偏移固定为 2 个字节 (小端序, 1 到 65535);
+ *         块的最后 5 个字节必须是字面量, 最后一个匹配须在块结束前至少 12 个字节开始
+ */
+public class LZ4Block {
+
+    /**
+     * 最大偏移
+     */
+    public static final int MAX_DISTANCE = 65535;
+
+    /**
+     * 块末尾必须为字面量的字节数
+     */
+    private static final int LAST_LITERALS = 5;
+
+    /**
+     * 最后一个匹配的起始位置距块末尾至少的字节数
+     */
+    private static final int MF_LIMIT = 12;
+
+    private LZ4Block() {
+    }
+
+    /**
+     * 压缩 [start, end), 匹配可以引用 start 之前的数据 (不超过 MAX_DISTANCE)
+     * @param parser 解析器
+     * @param buf 缓冲区
+     * @param start 起始位置
+     * @param end 结束位置 (不包含)
+     * @return 编码器, 编码结果见 array() 和 size()
+     */
+    public static SequenceEncoder compress(LZ77Parser parser, byte[] buf, int start, int end) {
+        SequenceEncoder encoder = new LZ4SequenceEncoder(buf, start);
+        if (end - start > MF_LIMIT) {
+            // 匹配的起始位置不超过 end - MF_LIMIT, 结束位置不超过 end - LAST_LITERALS
+            parser.parse(buf, start, end - MF_LIMIT + MIN_MATCH, MAX_DISTANCE, encoder);
+        }
+        encoder.finish(end);
+        return encoder;
+    }
+
+    /**
+     * 解压一个块
+     * @param src 压缩的数据
+     * @param sp 起始偏移
+     * @param send 结束偏移 (不包含)
+     * @param dst 输出数组
+     * @param dictStart 匹配可以引用的最小位置 (之前的块不可引用时等于 dp)
+     * @param dp 输出的起始位置
+     * @param dlimit 输出位置的上限 (不包含)
+     * @return 输出的结束位置
+     */
+    public static int decompress(byte[] src, int sp, int send, byte[] dst, int dictStart, int dp, int dlimit) {
+        try {
+            while (true) {
+                int token = src[sp++] & 0xff;
+                int literals = token >>> 4;
+                if (literals == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sp++] & 0xff;
+                        literals += b;
+                    } while (b == 255);
+                }
+                if (literals > send - sp || literals > dlimit - dp) {
+                    throw new AssertionError("LZ4 块已损坏!");
+                }
+                System.arraycopy(src, sp, dst, dp, literals);
+                sp += literals;
+                dp += literals;
+                if (sp == send) {
+                    return dp;
+                }
+                int offset = (src[sp] & 0xff) | (src[sp + 1] & 0xff) << 8;
+                sp += 2;
+                int length = token & RUN_MASK;
+                if (length == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sp++] & 0xff;
+                        length += b;
+                    } while (b == 255);
+                }
+                length += MIN_MATCH;
+                if (offset == 0 || offset > dp - dictStart || length > dlimit - dp) {
+                    throw new AssertionError("LZ4 块已损坏!");
+                }
+                SequenceDecoder.copyMatch(dst, dp, offset, length);
+                dp += length;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new AssertionError("LZ4 块已损坏!");
+        }
+    }
+
+    /**
+     * 偏移为 2 个字节的序列编码器
+     */
+    private static class LZ4SequenceEncoder extends SequenceEncoder {
+
+        LZ4SequenceEncoder(byte[] src, int start) {
+            super(src, start);
+        }
+
+        @Override
+        protected void writeOffset(int offset) {
+            out[size++] = (byte) offset;
+            out[size++] = (byte) (offset >>> 8);
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.ltchen.compression.lz77;
+
+import com.ltchen.compression.Compressor;
+
+import java.io.*;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : LZ4 帧格式, 见 https://github.com/lz4/lz4/blob/dev/doc/lz4_Frame_format.md
+ *         +---+---+---+---+---+---+===//===+---+======//======+     +---+---+---+---+===//===+
+ *         |     MAGIC     |FLG| BD|  可选   | HC|     块 1      | ... |   结束标记 0   | 校验值  |
+ *         +---+---+---+---+---+---+===//===+---+======//======+     +---+---+---+---+===//===+
+ *         FLG: 版本 (2 位, 01) | 块独立 | 块校验 | 内容大小 | 内容校验 | 保留 | 字典;  BD: 块最大大小的编号 (4 到 7) << 4;
+ *         可选字段为内容大小 (8 字节) 和字典编号 (4 字节); HC 为帧描述符 XXH32 的第 2 个字节.
+ *         块: 数据字节数 (4 字节, 最高位为 1 表示未压缩) + 数据 + 可选的块校验值; 多字节整数均为小端序
+ */
+public class LZ4Compressor implements Compressor {
+
+    /**
+     * 魔法值
+     */
+    private static final int MAGIC = 0x184D2204;
+
+    /**
+     * 可跳过帧的魔法值 (低 4 位任意)
+     */
+    private static final int SKIPPABLE_MAGIC = 0x184D2A50;
+
+    /**
+     * 块未压缩的标志
+     */
+    private static final int UNCOMPRESSED = 1 << 31;
+
+    /**
+     * FLG 中的标志位
+     */
+    private static final int FLG_VERSION = 1 << 6;
+    private static final int FLG_BLOCK_INDEPENDENCE = 1 << 5;
+    private static final int FLG_BLOCK_CHECKSUM = 1 << 4;
+    private static final int FLG_CONTENT_SIZE = 1 << 3;
+    private static final int FLG_CONTENT_CHECKSUM = 1 << 2;
+    private static final int FLG_DICT_ID = 1;
+
+    /**
+     * 块最大大小: 64K
+     */
+    public static final int BLOCK_64KB = 4;
+    /**
+     * 块最大大小: 256K
+     */
+    public static final int BLOCK_256KB = 5;
+    /**
+     * 块最大大小: 1M
+     */
+    public static final int BLOCK_1MB = 6;
+    /**
+     * 块最大大小: 4M
+     */
+    public static final int BLOCK_4MB = 7;
+
+    /**
+     * 是否使用哈希链的高压缩率模式
+     */
+    private boolean highCompression;
+
+    /**
+     * 块最大大小的编号
+     */
+    private int blockSizeId = BLOCK_64KB;
+
+    /**
+     * 各块是否独立 (不引用之前的块)
+     */
+    private boolean blockIndependence = true;
+
+    /**
+     * 是否写出每块的校验值
+     */
+    private boolean blockChecksum;
+
+    /**
+     * 是否写出内容的校验值
+     */
+    private boolean contentChecksum = true;
+
+    public void setHighCompression(boolean highCompression) {
+        this.highCompression = highCompression;
+    }
+
+    /**
+     * 设置块最大大小
+     * @param blockSizeId BLOCK_64KB, BLOCK_256KB, BLOCK_1MB 或 BLOCK_4MB
+     */
+    public void setBlockSizeId(int blockSizeId) {
+        if (blockSizeId < BLOCK_64KB || blockSizeId > BLOCK_4MB) {
+            throw new IllegalArgumentException("非法的块大小编号: " + blockSizeId);
+        }
+        this.blockSizeId = blockSizeId;
+    }
+
+    /**
+     * 设置各块是否独立: 独立的块可以单独解压, 不独立时匹配可以引用之前 64K 的数据, 压缩率略高
+     * @param blockIndependence 各块是否独立
+     */
+    public void setBlockIndependence(boolean blockIndependence) {
+        this.blockIndependence = blockIndependence;
+    }
+
+    public void setBlockChecksum(boolean blockChecksum) {
+        this.blockChecksum = blockChecksum;
+    }
+
+    public void setContentChecksum(boolean contentChecksum) {
+        this.contentChecksum = contentChecksum;
+    }
+
+    /**
+     * 块最大大小
+     */
+    private static int blockMaxSize(int blockSizeId) {
+        return 1 << (8 + 2 * blockSizeId);
+    }
+
+    @Override
+    public void compress(InputStream in, OutputStream out) {
+        try {
+            OutputStream os = new BufferedOutputStream(out, 1 << 16);
+            // 帧头
+            byte[] descriptor = new byte[2];
+            descriptor[0] = (byte) (FLG_VERSION | (blockIndependence ? FLG_BLOCK_INDEPENDENCE : 0)
+                    | (blockChecksum ? FLG_BLOCK_CHECKSUM : 0) | (contentChecksum ? FLG_CONTENT_CHECKSUM : 0));
+            descriptor[1] = (byte) (blockSizeId << 4);
+            writeIntLE(os, MAGIC);
+            os.write(descriptor);
+            os.write(XXHash32.hash(descriptor, 0, descriptor.length, 0) >>> 8);
+
+            int blockSize = blockMaxSize(blockSizeId);
+            LZ77Parser parser = highCompression ? new HashChainParser(LZ4Block.MAX_DISTANCE, HashChainParser.DEFAULT_DEPTH) : new HashParser();
+            XXHash32 contentHash = new XXHash32();
+            // 块不独立时保留 64K 的历史数据
+            int history = blockIndependence ? 0 : 1 << 16;
+            byte[] buf = new byte[history + Math.max(history, blockSize)];
+            int pos = 0;
+            while (true) {
+                if (blockIndependence) {
+                    parser.reset();
+                    pos = 0;
+                } else if (pos + blockSize > buf.length) {
+                    int delta = pos - history;
+                    System.arraycopy(buf, delta, buf, 0, history);
+                    parser.slide(delta);
+                    pos = history;
+                }
+                int len = readFully(in, buf, pos, blockSize);
+                if (len == 0) {
+                    break;
+                }
+                if (contentChecksum) {
+                    contentHash.update(buf, pos, len);
+                }
+                SequenceEncoder encoder = LZ4Block.compress(parser, buf, pos, pos + len);
+                byte[] data;
+                int off;
+                int size;
+                if (encoder.size() < len) {
+                    data = encoder.array();
+                    off = 0;
+                    size = encoder.size();
+                    writeIntLE(os, size);
+                } else {
+                    data = buf;
+                    off = pos;
+                    size = len;
+                    writeIntLE(os, size | UNCOMPRESSED);
+                }
+                os.write(data, off, size);
+                if (blockChecksum) {
+                    writeIntLE(os, XXHash32.hash(data, off, size, 0));
+                }
+                pos += len;
+            }
+            // 结束标记和内容校验值
+            writeIntLE(os, 0);
+            if (contentChecksum) {
+                writeIntLE(os, (int) contentHash.getValue());
+            }
+            os.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void decompress(InputStream in, OutputStream out) {
+        try {
+            DataInputStream dis = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+            // 依次解压连接在一起的帧
+            int first;
+            while ((first = dis.read()) != -1) {
+                int magic = first | dis.readUnsignedByte() << 8 | dis.readUnsignedByte() << 16 | dis.readUnsignedByte() << 24;
+                if ((magic & 0xFFFFFFF0) == SKIPPABLE_MAGIC) {
+                    int size = readIntLE(dis);
+                    dis.skipBytes(size);
+                    continue;
+                }
+                if (magic != MAGIC) {
+                    throw new AssertionError("不是 LZ4 帧格式的数据!");
+                }
+                decompressFrame(dis, out);
+            }
+            out.flush();
+        } catch (EOFException e) {
+            throw new AssertionError("数据意外结束!");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 解压一帧 (魔法值已读取)
+     * @param dis 输入流
+     * @param out 输出流
+     * @throws IOException
+     */
+    private void decompressFrame(DataInputStream dis, OutputStream out) throws IOException {
+        // 帧描述符
+        ByteArrayOutputStream descriptor = new ByteArrayOutputStream();
+        int flg = dis.readUnsignedByte();
+        int bd = dis.readUnsignedByte();
+        descriptor.write(flg);
+        descriptor.write(bd);
+        if ((flg & 0xC0) != FLG_VERSION) {
+            throw new AssertionError("不支持的 LZ4 版本: " + (flg >>> 6));
+        }
+        int sizeId = (bd >>> 4) & 7;
+        if (sizeId < BLOCK_64KB) {
+            throw new AssertionError("非法的块大小编号: " + sizeId);
+        }
+        long contentSize = -1;
+        if ((flg & FLG_CONTENT_SIZE) != 0) {
+            byte[] bytes = new byte[8];
+            dis.readFully(bytes);
+            descriptor.write(bytes);
+            contentSize = (readIntLE(bytes, 0) & 0xffffffffL) | (long) readIntLE(bytes, 4) << 32;
+        }
+        if ((flg & FLG_DICT_ID) != 0) {
+            throw new AssertionError("不支持预设字典");
+        }
+        int hc = dis.readUnsignedByte();
+        byte[] bytes = descriptor.toByteArray();
+        if (hc != ((XXHash32.hash(bytes, 0, bytes.length, 0) >>> 8) & 0xff)) {
+            throw new AssertionError("帧描述符校验失败!");
+        }
+        boolean independent = (flg & FLG_BLOCK_INDEPENDENCE) != 0;
+        boolean hasBlockChecksum = (flg & FLG_BLOCK_CHECKSUM) != 0;
+        boolean hasContentChecksum = (flg & FLG_CONTENT_CHECKSUM) != 0;
+
+        // 逐块解压
+        int blockSize = blockMaxSize(sizeId);
+        int history = independent ? 0 : 1 << 16;
+        byte[] buf = new byte[history + Math.max(history, blockSize)];
+        byte[] src = new byte[blockSize];
+        XXHash32 contentHash = new XXHash32();
+        long total = 0;
+        int pos = 0;
+        int size;
+        while ((size = readIntLE(dis)) != 0) {
+            boolean uncompressed = (size & UNCOMPRESSED) != 0;
+            size &= ~UNCOMPRESSED;
+            if (size > blockSize) {
+                throw new AssertionError("非法的块大小: " + size);
+            }
+            if (independent) {
+                pos = 0;
+            } else if (pos + blockSize > buf.length) {
+                System.arraycopy(buf, pos - history, buf, 0, history);
+                pos = history;
+            }
+            byte[] data = uncompressed ? buf : src;
+            int off = uncompressed ? pos : 0;
+            dis.readFully(data, off, size);
+            if (hasBlockChecksum && readIntLE(dis) != XXHash32.hash(data, off, size, 0)) {
+                throw new AssertionError("块校验失败!");
+            }
+            int end = uncompressed ? pos + size : LZ4Block.decompress(src, 0, size, buf, independent ? pos : 0, pos, pos + blockSize);
+            if (hasContentChecksum) {
+                contentHash.update(buf, pos, end - pos);
+            }
+            out.write(buf, pos, end - pos);
+            total += end - pos;
+            pos = end;
+        }
+        if (hasContentChecksum && readIntLE(dis) != (int) contentHash.getValue()) {
+            throw new AssertionError("内容校验失败!");
+        }
+        if (contentSize >= 0 && contentSize != total) {
+            throw new AssertionError("内容大小不符!");
+        }
+    }
+
+    /**
+     * 尽量读满 [off, off + len)
+     * @return 读入的字节数, 小于 len 时表示输入流已结束
+     * @throws IOException
+     */
+    private static int readFully(InputStream in, byte[] bytes, int off, int len) throws IOException {
+        int total = 0;
+        int n;
+        while (total < len && (n = in.read(bytes, off + total, len - total)) > 0) {
+            total += n;
+        }
+        return total;
+    }
+
+    private static void writeIntLE(OutputStream os, int value) throws IOException {
+        os.write(value);
+        os.write(value >>> 8);
+        os.write(value >>> 16);
+        os.write(value >>> 24);
+    }
+
+    private static int readIntLE(DataInputStream dis) throws IOException {
+        return Integer.reverseBytes(dis.readInt());
+    }
+
+    private static int readIntLE(byte[] bytes, int off) {
+        return (bytes[off] & 0xff) | (bytes[off + 1] & 0xff) << 8 | (bytes[off + 2] & 0xff) << 16 | (bytes[off + 3] & 0xff) << 24;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 检查参数
+        if (args.length != 3) {
+            usage();
+        }
+        boolean verbose = args[0].contains("v");
+        boolean compress = args[0].contains("c");
+        boolean decompress = args[0].contains("d");
+        boolean highCompression = args[0].contains("9");
+        // 压缩参数和解压缩参数不可同时出现
+        if (!(compress ^ decompress)) {
+            usage();
+        }
+
+        File inFile = new File(args[1]);
+        File outFile = new File(args[2]);
+        try (InputStream in = new FileInputStream(inFile); OutputStream out = new FileOutputStream(outFile)) {
+            LZ4Compressor compressor = new LZ4Compressor();
+            compressor.setHighCompression(highCompression);
+            long startTime = System.currentTimeMillis();
+            if (compress) {
+                compressor.compress(in, out);
+            } else {
+                compressor.decompress(in, out);
+            }
+            long endTime = System.currentTimeMillis();
+            if (verbose) {
+                System.out.println(String.format("%d 字节 -> %d 字节, 耗时 %.3f 秒",
+                        inFile.length(), outFile.length(), (endTime - startTime) / 1000.0));
+            }
+        }
+    }
+
+    /**
+     * 打印使用方法并退出
+     */
+    private static void usage() {
+        System.out.println("使用方法:");
+        System.out.println("\tjava LZ4Compressor -vcd9 [inFilePath] [outFilePath]");
+        System.out.println("选项:");
+        System.out.println("\t-v  显示详情");
+        System.out.println("\t-c  压缩");
+        System.out.println("\t-d  解压缩");
+        System.out.println("\t-9  高压缩率模式 (哈希链)");
+        System.exit(1);
+    }
+}
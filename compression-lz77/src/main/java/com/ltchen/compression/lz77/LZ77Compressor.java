@@ -2,46 +2,348 @@ package com.ltchen.compression.lz77;
 
 import com.ltchen.compression.Compressor;
 
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.*;
+import java.util.Arrays;
 
 /**
  * @author : ltchen
  * @date : 2017/12/15
- * @desc :
+ * @desc : LZ77 压缩: 只做匹配替换, 不做熵编码, 解压几乎只有数组复制.
+ *         文件格式:
+ *         +---+---+---+---+---+======//======+======//======+     +---+---+---+---+
+ *         |     MAGIC     | W |     块 1      |     块 2      | ... |       0       |
+ *         +---+---+---+---+---+======//======+======//======+     +---+---+---+---+
+ *         W 为窗口大小的对数; 块: 原始字节数 (4 字节) + 数据字节数 (4 字节, 最高位为 1 表示未压缩) + 数据,
+ *         压缩的数据见 SequenceEncoder. 匹配可以引用之前的块, 偏移不超过窗口大小
  */
 public class LZ77Compressor implements Compressor{
 
     /**
-     *
+     * 魔法值: "LZ77"
      */
-    private static final int MAX_WINDOW_SIZE = (1 << 12) - 1;
+    private static final int MAGIC = 0x4C5A3737;
 
     /**
-     * 前向缓冲区大小
+     * 窗口大小对数的最小值
      */
-    private static final int LOOK_AHEAD_BUFFER_SIZE = (1 << 4) - 1;
+    private static final int MIN_WINDOW_LOG = 10;
 
     /**
-     * 滑动窗口大小
+     * 窗口大小对数的最大值: 窗口 256M
      */
-    private int slideWindowSize = MAX_WINDOW_SIZE;
+    private static final int MAX_WINDOW_LOG = 28;
 
+    /**
+     * 默认的窗口大小: 64K
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 16;
+
+    /**
+     * 解压时默认的窗口大小上限: 8M
+     */
+    public static final int DEFAULT_MAX_WINDOW_SIZE = 1 << 23;
+
+    /**
+     * 块大小: 256K
+     */
+    static final int BLOCK_SIZE = 1 << 18;
+
+    /**
+     * 缓冲区的初始大小, 之后随数据增长到窗口大小加块大小
+     */
+    private static final int INITIAL_BUFFER_SIZE = BLOCK_SIZE << 1;
+
+    /**
+     * 未压缩块的标志
+     */
+    private static final int STORED = 1 << 31;
+
+    /**
+     * 压缩级别: 贪心解析
+     */
+    public static final int LEVEL_FAST = 1;
+
+    /**
+     * 压缩级别: 哈希链和惰性匹配
+     */
+    public static final int LEVEL_LAZY = 2;
+
+    /**
+     * 压缩级别: 二叉树查找全部候选, 最优解析; 适合数 MB 的窗口
+     */
+    public static final int LEVEL_OPTIMAL = 3;
+
+    /**
+     * 滑动窗口大小的对数
+     */
+    private int windowLog;
+
+    /**
+     * 压缩级别
+     */
+    private int level = LEVEL_FAST;
+
+    /**
+     * 是否开启长距离匹配
+     */
+    private boolean longDistanceMatching;
+
+    /**
+     * 解压时允许的窗口大小上限
+     */
+    private int maxWindowSize = DEFAULT_MAX_WINDOW_SIZE;
+
+    public LZ77Compressor() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * 构造 LZ77 压缩器
+     * @param slideWindowSize 滑动窗口大小, 向上取为 2 的幂
+     */
     public LZ77Compressor(int slideWindowSize) {
-        this.slideWindowSize = slideWindowSize;
+        int log = MIN_WINDOW_LOG;
+        while (log < MAX_WINDOW_LOG && (1 << log) < slideWindowSize) {
+            log++;
+        }
+        this.windowLog = log;
     }
 
-    public static void main(String[] args) {
-        System.out.println(MAX_WINDOW_SIZE);
+    /**
+     * 设置压缩级别, 级别越高压缩率越高, 压缩越慢; 解压速度不受影响
+     * @param level LEVEL_FAST, LEVEL_LAZY 或 LEVEL_OPTIMAL
+     */
+    public void setLevel(int level) {
+        if (level < LEVEL_FAST || level > LEVEL_OPTIMAL) {
+            throw new IllegalArgumentException("非法的压缩级别: " + level);
+        }
+        this.level = level;
     }
-    @Override
-    public void compress(InputStream in, OutputStream out) {
 
+    /**
+     * 设置是否开启长距离匹配: 整个窗口中不短于 LongDistanceParser.MIN_LENGTH 的重复由滚动哈希查找,
+     * 其余的交给压缩级别对应的解析器, 其窗口不超过 DEFAULT_WINDOW_SIZE. 适合配合数百 MB 的窗口压缩备份, 镜像等数据
+     * @param longDistanceMatching 是否开启
+     */
+    public void setLongDistanceMatching(boolean longDistanceMatching) {
+        this.longDistanceMatching = longDistanceMatching;
+    }
 
+    /**
+     * 设置解压时允许的窗口大小上限: 窗口由压缩数据的文件头指定, 解压最多需要约 2 倍窗口大小的内存,
+     * 超过上限的数据报错, 以免不可信的输入占用过多内存. 解压开启长距离匹配的数据时须调高
+     * @param maxWindowSize 窗口大小上限
+     */
+    public void setMaxWindowSize(int maxWindowSize) {
+        this.maxWindowSize = maxWindowSize;
+    }
+
+    /**
+     * 创建解析器
+     * @param windowSize 窗口大小
+     * @return 解析器
+     */
+    protected LZ77Parser createParser(int windowSize) {
+        if (longDistanceMatching) {
+            int innerWindowSize = Math.min(windowSize, DEFAULT_WINDOW_SIZE);
+            return new LongDistanceParser(createLevelParser(innerWindowSize), innerWindowSize, windowSize);
+        }
+        return createLevelParser(windowSize);
+    }
+
+    /**
+     * 创建压缩级别对应的解析器
+     * @param windowSize 窗口大小
+     * @return 解析器
+     */
+    private LZ77Parser createLevelParser(int windowSize) {
+        switch (level) {
+            case LEVEL_LAZY:
+                return new HashChainParser(windowSize, HashChainParser.DEFAULT_DEPTH);
+            case LEVEL_OPTIMAL:
+                return new OptimalParser(windowSize);
+            default:
+                return new HashParser();
+        }
+    }
+
+    @Override
+    public void compress(InputStream in, OutputStream out) {
+        try {
+            DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+            dos.writeInt(MAGIC);
+            dos.writeByte(windowLog);
+            int windowSize = 1 << windowLog;
+            LZ77Parser parser = createParser(windowSize);
+            // 缓冲区随读入的数据增长到 capacity, 之后保留窗口大小的历史数据, 写满后整体前移
+            int capacity = windowSize + Math.max(windowSize, BLOCK_SIZE);
+            byte[] buf = new byte[Math.min(capacity, INITIAL_BUFFER_SIZE)];
+            int pos = 0;
+            while (true) {
+                if (pos + BLOCK_SIZE > buf.length && buf.length < capacity) {
+                    buf = grow(buf, capacity);
+                }
+                if (pos + BLOCK_SIZE > buf.length) {
+                    int delta = pos - windowSize;
+                    System.arraycopy(buf, delta, buf, 0, windowSize);
+                    parser.slide(delta);
+                    pos = windowSize;
+                }
+                int len = readFully(in, buf, pos, BLOCK_SIZE);
+                if (len == 0) {
+                    break;
+                }
+                SequenceEncoder encoder = new SequenceEncoder(buf, pos);
+                parser.parse(buf, pos, pos + len, windowSize, encoder);
+                encoder.finish(pos + len);
+                dos.writeInt(len);
+                if (encoder.size() < len) {
+                    dos.writeInt(encoder.size());
+                    dos.write(encoder.array(), 0, encoder.size());
+                } else {
+                    // 无法压缩的块原样写出
+                    dos.writeInt(len | STORED);
+                    dos.write(buf, pos, len);
+                }
+                pos += len;
+            }
+            dos.writeInt(0);
+            dos.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     @Override
     public void decompress(InputStream in, OutputStream out) {
+        try {
+            DataInputStream dis = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+            if (dis.readInt() != MAGIC) {
+                throw new AssertionError("不是 LZ77 格式的数据!");
+            }
+            int log = dis.readUnsignedByte();
+            if (log < MIN_WINDOW_LOG || log > MAX_WINDOW_LOG) {
+                throw new AssertionError("非法的窗口大小: " + log);
+            }
+            int windowSize = 1 << log;
+            if (windowSize > maxWindowSize) {
+                throw new AssertionError(String.format("窗口大小 %d 超过上限 %d", windowSize, maxWindowSize));
+            }
+            // 与压缩时相同, 缓冲区随解压的数据增长
+            int capacity = windowSize + Math.max(windowSize, BLOCK_SIZE);
+            byte[] buf = new byte[Math.min(capacity, INITIAL_BUFFER_SIZE)];
+            byte[] src = new byte[BLOCK_SIZE];
+            int pos = 0;
+            int len;
+            while ((len = dis.readInt()) != 0) {
+                int size = dis.readInt();
+                boolean stored = (size & STORED) != 0;
+                size &= ~STORED;
+                if (len < 0 || len > BLOCK_SIZE || size > BLOCK_SIZE || (stored && size != len)) {
+                    throw new AssertionError("非法的块大小: " + len);
+                }
+                if (pos + BLOCK_SIZE > buf.length && buf.length < capacity) {
+                    buf = grow(buf, capacity);
+                }
+                if (pos + BLOCK_SIZE > buf.length) {
+                    System.arraycopy(buf, pos - windowSize, buf, 0, windowSize);
+                    pos = windowSize;
+                }
+                if (stored) {
+                    dis.readFully(buf, pos, len);
+                } else {
+                    dis.readFully(src, 0, size);
+                    SequenceDecoder.decodeBlock(src, 0, size, buf, pos, pos + len);
+                }
+                out.write(buf, pos, len);
+                pos += len;
+            }
+            out.flush();
+        } catch (EOFException e) {
+            throw new AssertionError("数据意外结束!");
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 扩大缓冲区: 大小加倍, 不超过 capacity; 数据的位置不变, 解析器保存的位置仍然有效
+     * @param buf 缓冲区
+     * @param capacity 缓冲区的最终大小
+     * @return 扩大后的缓冲区
+     */
+    private static byte[] grow(byte[] buf, int capacity) {
+        return Arrays.copyOf(buf, (int) Math.min(capacity, (long) buf.length << 1));
+    }
 
+    /**
+     * 尽量读满 [off, off + len)
+     * @return 读入的字节数, 小于 len 时表示输入流已结束
+     * @throws IOException
+     */
+    private static int readFully(InputStream in, byte[] bytes, int off, int len) throws IOException {
+        int total = 0;
+        int n;
+        while (total < len && (n = in.read(bytes, off + total, len - total)) > 0) {
+            total += n;
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // 检查参数
+        if (args.length != 3) {
+            usage();
+        }
+        boolean verbose = args[0].contains("v");
+        boolean compress = args[0].contains("c");
+        boolean decompress = args[0].contains("d");
+        int level = args[0].contains("3") ? LEVEL_OPTIMAL : args[0].contains("2") ? LEVEL_LAZY : LEVEL_FAST;
+        boolean longDistance = args[0].contains("l");
+        // 压缩参数和解压缩参数不可同时出现
+        if (!(compress ^ decompress)) {
+            usage();
+        }
+
+        File inFile = new File(args[1]);
+        File outFile = new File(args[2]);
+        try (InputStream in = new FileInputStream(inFile); OutputStream out = new FileOutputStream(outFile)) {
+            // 最优解析配合 8M 的窗口, 长距离匹配配合最大的窗口
+            int windowSize = longDistance ? 1 << MAX_WINDOW_LOG : level == LEVEL_OPTIMAL ? 1 << 23 : DEFAULT_WINDOW_SIZE;
+            LZ77Compressor compressor = new LZ77Compressor(windowSize);
+            compressor.setLevel(level);
+            compressor.setLongDistanceMatching(longDistance);
+            if (longDistance) {
+                compressor.setMaxWindowSize(1 << MAX_WINDOW_LOG);
+            }
+            long startTime = System.currentTimeMillis();
+            if (compress) {
+                compressor.compress(in, out);
+            } else {
+                compressor.decompress(in, out);
+            }
+            long endTime = System.currentTimeMillis();
+            if (verbose) {
+                System.out.println(String.format("%d 字节 -> %d 字节, 耗时 %.3f 秒",
+                        inFile.length(), outFile.length(), (endTime - startTime) / 1000.0));
+            }
+        }
+    }
+
+    /**
+     * 打印使用方法并退出
+     */
+    private static void usage() {
+        System.out.println("使用方法:");
+        System.out.println("\tjava LZ77Compressor -vcd123l [inFilePath] [outFilePath]");
+        System.out.println("选项:");
+        System.out.println("\t-v  显示详情");
+        System.out.println("\t-c  压缩");
+        System.out.println("\t-d  解压缩");
+        System.out.println("\t-1  贪心解析 (默认)");
+        System.out.println("\t-2  哈希链, 惰性匹配");
+        System.out.println("\t-3  二叉树, 最优解析, 8M 窗口");
+        System.out.println("\t-l  长距离匹配, 256M 窗口 (解压时须同样指定)");
+        System.exit(1);
     }
 }
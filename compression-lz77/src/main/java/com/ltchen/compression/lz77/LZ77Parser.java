@@ -0,0 +1,31 @@
+package com.ltchen.compression.lz77;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 匹配查找和解析: 在缓冲区的一段中查找匹配, 按顺序交给 SequenceEncoder 写出.
+ *         缓冲区前移时须调用 slide 修正保存的位置
+ */
+public interface LZ77Parser {
+
+    /**
+     * 解析 [start, end), 匹配的偏移不超过 windowSize, 不跨过 end; 末尾未写出的字面量留在编码器中
+     * @param buf 缓冲区, start 之前为历史数据
+     * @param start 起始位置
+     * @param end 结束位置 (不包含)
+     * @param windowSize 窗口大小
+     * @param encoder 序列编码器
+     */
+    void parse(byte[] buf, int start, int end, int windowSize, SequenceEncoder encoder);
+
+    /**
+     * 缓冲区中的数据整体前移了 delta 个字节
+     * @param delta 前移的字节数
+     */
+    void slide(int delta);
+
+    /**
+     * 丢弃全部的历史数据 (之后的匹配只能引用新解析的数据)
+     */
+    void reset();
+}
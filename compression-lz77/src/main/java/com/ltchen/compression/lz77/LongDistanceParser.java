@@ -0,0 +1,134 @@
+package com.ltchen.compression.lz77;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.ltchen.compression.lz77.HashParser.matchLength;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 长距离匹配 (LDM): 对每 MIN_LENGTH 个字节计算滚动哈希 (gear 哈希), 按哈希值抽样约 1/2^SAMPLE_LOG 的位置
+ *         记入表中, 抽样只取决于内容, 所以重复的区域在两处会抽中相同的位置. 命中后比较并向前后延伸,
+ *         不短于 MIN_LENGTH 的匹配直接写出, 匹配之间的空隙交给内部解析器在较小的窗口中处理.
+ *         每个字节只做一次移位, 加法和判断, 窗口为数百 MB 时开销仍然很小
+ */
+public class LongDistanceParser implements LZ77Parser {
+
+    /**
+     * 长距离匹配的最短长度, 也是滚动哈希覆盖的字节数 (64 位的 gear 哈希每字节左移 1 位)
+     */
+    public static final int MIN_LENGTH = 64;
+
+    /**
+     * 抽样率的对数
+     */
+    private static final int SAMPLE_LOG = 6;
+
+    /**
+     * 哈希表大小对数的范围
+     */
+    private static final int MIN_HASH_LOG = 16;
+    private static final int MAX_HASH_LOG = 22;
+
+    /**
+     * 每个字节对应的随机数
+     */
+    private static final long[] GEAR = new long[256];
+
+    static {
+        Random random = new Random(0x4C444DL);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * 处理空隙的内部解析器
+     */
+    private final LZ77Parser inner;
+
+    /**
+     * 内部解析器的窗口大小
+     */
+    private final int innerWindowSize;
+
+    /**
+     * 抽样位置 (匹配的起始位置), -1 表示无
+     */
+    private final int[] table;
+
+    private final int hashLog;
+
+    /**
+     * 构造长距离匹配解析器
+     * @param inner 内部解析器
+     * @param innerWindowSize 内部解析器的窗口大小
+     * @param windowSize 长距离匹配的窗口大小, 用于确定哈希表的大小
+     */
+    public LongDistanceParser(LZ77Parser inner, int innerWindowSize, int windowSize) {
+        this.inner = inner;
+        this.innerWindowSize = innerWindowSize;
+        int windowLog = 32 - Integer.numberOfLeadingZeros(Math.max(windowSize - 1, 1));
+        hashLog = Math.max(MIN_HASH_LOG, Math.min(MAX_HASH_LOG, windowLog - SAMPLE_LOG));
+        table = new int[1 << hashLog];
+        reset();
+    }
+
+    @Override
+    public void parse(byte[] buf, int start, int end, int windowSize, SequenceEncoder encoder) {
+        int innerWindow = Math.min(windowSize, innerWindowSize);
+        // 尚未解析的空隙的起始位置
+        int gapStart = start;
+        // 滚动哈希覆盖 [p - MIN_LENGTH, p)
+        int rollStart = start;
+        long h = 0;
+        int p = start;
+        while (p < end) {
+            h = (h << 1) + GEAR[buf[p++] & 0xff];
+            if (p - rollStart < MIN_LENGTH || (h >>> (64 - SAMPLE_LOG)) != 0) {
+                continue;
+            }
+            int index = (int) (h >>> (64 - SAMPLE_LOG - hashLog)) & ((1 << hashLog) - 1);
+            int pos = p - MIN_LENGTH;
+            int candidate = table[index];
+            table[index] = pos;
+            if (candidate < 0 || pos - candidate > windowSize
+                    || matchLength(buf, candidate, pos, p) < MIN_LENGTH) {
+                continue;
+            }
+            // 向后延伸到 end, 向前延伸到空隙的起始位置
+            int length = MIN_LENGTH + matchLength(buf, candidate + MIN_LENGTH, p, end);
+            while (pos > gapStart && candidate > 0 && buf[pos - 1] == buf[candidate - 1]) {
+                pos--;
+                candidate--;
+                length++;
+            }
+            if (pos > gapStart) {
+                inner.parse(buf, gapStart, pos, innerWindow, encoder);
+            }
+            encoder.match(pos, pos - candidate, length);
+            gapStart = pos + length;
+            p = gapStart;
+            rollStart = gapStart;
+            h = 0;
+        }
+        if (gapStart < end) {
+            inner.parse(buf, gapStart, end, innerWindow, encoder);
+        }
+    }
+
+    @Override
+    public void slide(int delta) {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = table[i] >= delta ? table[i] - delta : -1;
+        }
+        inner.slide(delta);
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(table, -1);
+        inner.reset();
+    }
+}
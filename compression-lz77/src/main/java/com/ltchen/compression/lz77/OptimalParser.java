@@ -0,0 +1,186 @@
+package com.ltchen.compression.lz77;
+
+import static com.ltchen.compression.lz77.HashParser.matchLength;
+import static com.ltchen.compression.lz77.SequenceEncoder.MIN_MATCH;
+import static com.ltchen.compression.lz77.SequenceEncoder.RUN_MASK;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 最优解析: 以 BinaryTreeMatchFinder 取得每个位置的全部候选, 按 SequenceEncoder 的字节开销
+ *         (标记字节, 字面量个数和长度的追加字节, 变长偏移) 做动态规划, 在至多 OPT_SIZE 个位置的区段内取总字节数最少的路径.
+ *         遇到不短于 niceLength 的匹配时结束当前区段并直接采用该匹配
+ */
+public class OptimalParser implements LZ77Parser {
+
+    /**
+     * 一个区段最多的位置个数
+     */
+    private static final int OPT_SIZE = 4096;
+
+    private final BinaryTreeMatchFinder finder;
+
+    /**
+     * 到达区段内各位置的最小字节数
+     */
+    private final int[] price;
+
+    /**
+     * 到达各位置的最后一步: 匹配长度 (0 表示字面量) 和偏移
+     */
+    private final int[] stepLength;
+    private final int[] stepOffset;
+
+    /**
+     * 到达各位置时末尾的字面量个数
+     */
+    private final int[] literalRun;
+
+    /**
+     * 候选匹配
+     */
+    private final int[] lengths;
+    private final int[] offsets;
+
+    /**
+     * 回溯得到的路径上的匹配 (逆序)
+     */
+    private final int[] pathPos;
+    private final int[] pathLength;
+    private final int[] pathOffset;
+
+    public OptimalParser(int windowSize) {
+        this(new BinaryTreeMatchFinder(windowSize, BinaryTreeMatchFinder.DEFAULT_DEPTH, BinaryTreeMatchFinder.DEFAULT_NICE_LENGTH));
+    }
+
+    public OptimalParser(BinaryTreeMatchFinder finder) {
+        this.finder = finder;
+        int size = OPT_SIZE + finder.niceLength() + 1;
+        price = new int[size];
+        stepLength = new int[size];
+        stepOffset = new int[size];
+        literalRun = new int[size];
+        lengths = new int[finder.niceLength() + 1];
+        offsets = new int[finder.niceLength() + 1];
+        pathPos = new int[OPT_SIZE / MIN_MATCH + 1];
+        pathLength = new int[OPT_SIZE / MIN_MATCH + 1];
+        pathOffset = new int[OPT_SIZE / MIN_MATCH + 1];
+    }
+
+    @Override
+    public void parse(byte[] buf, int start, int end, int windowSize, SequenceEncoder encoder) {
+        int limit = end - MIN_MATCH;
+        int i = start;
+        while (i <= limit) {
+            // 区段起点的字面量个数沿用编码器中未写出的部分
+            price[0] = 0;
+            literalRun[0] = i - encoder.getAnchor();
+            int reached = 0;
+            int j = 0;
+            int longLength = 0;
+            int longOffset = 0;
+            for (; j < OPT_SIZE && i + j <= limit; j++) {
+                int pos = i + j;
+                int count = finder.findMatches(buf, pos, end, windowSize, lengths, offsets);
+                if (count > 0 && lengths[count - 1] >= finder.niceLength()) {
+                    // 查找时只比较到 niceLength, 这里延伸到实际的长度
+                    longOffset = offsets[count - 1];
+                    longLength = lengths[count - 1];
+                    longLength += matchLength(buf, pos - longOffset + longLength, pos + longLength, end);
+                    break;
+                }
+                // 本位置可以到达的新位置先标记为不可达
+                int farthest = j + Math.max(1, count > 0 ? lengths[count - 1] : 0);
+                while (reached < farthest) {
+                    price[++reached] = Integer.MAX_VALUE;
+                }
+                // 字面量
+                relax(j, j + 1, literalPrice(j), 0, 0);
+                // 每个候选覆盖从上一个候选的长度加 1 到自身长度的全部长度
+                int length = MIN_MATCH;
+                for (int k = 0; k < count; k++) {
+                    int offsetPrice = 1 + varintSize(offsets[k]);
+                    for (; length <= lengths[k]; length++) {
+                        relax(j, j + length, price[j] + offsetPrice + lengthExtra(length - MIN_MATCH), length, offsets[k]);
+                    }
+                }
+            }
+            emit(i, j, encoder);
+            i += j;
+            if (longLength > 0) {
+                encoder.match(i, longOffset, longLength);
+                for (int p = i + 1; p < i + longLength && p <= limit; p++) {
+                    finder.skip(buf, p, end, windowSize);
+                }
+                i += longLength;
+            }
+        }
+    }
+
+    /**
+     * 经由 from 的一步到达 to 的字节数更少时更新 to
+     */
+    private void relax(int from, int to, int cost, int length, int offset) {
+        if (cost < price[to]) {
+            price[to] = cost;
+            stepLength[to] = length;
+            stepOffset[to] = offset;
+            literalRun[to] = length == 0 ? literalRun[from] + 1 : 0;
+        }
+    }
+
+    /**
+     * 在 j 之后追加一个字面量的字节数 (包括字面量个数追加字节的增量)
+     */
+    private int literalPrice(int j) {
+        int run = literalRun[j] + 1;
+        int extra = run >= RUN_MASK && (run - RUN_MASK) % 255 == 0 ? 1 : 0;
+        return price[j] + 1 + extra;
+    }
+
+    /**
+     * 从 target 回溯最优路径, 按顺序写出其中的匹配
+     */
+    private void emit(int base, int target, SequenceEncoder encoder) {
+        int n = 0;
+        for (int j = target; j > 0; ) {
+            int length = stepLength[j];
+            if (length == 0) {
+                j--;
+            } else {
+                pathLength[n] = length;
+                pathOffset[n] = stepOffset[j];
+                n++;
+                j -= length;
+                pathPos[n - 1] = j;
+            }
+        }
+        for (int k = n - 1; k >= 0; k--) {
+            encoder.match(base + pathPos[k], pathOffset[k], pathLength[k]);
+        }
+    }
+
+    /**
+     * 变长偏移的字节数
+     */
+    private static int varintSize(int offset) {
+        return offset < (1 << 7) ? 1 : offset < (1 << 14) ? 2 : offset < (1 << 21) ? 3 : 4;
+    }
+
+    /**
+     * 匹配长度追加字节的个数
+     */
+    private static int lengthExtra(int matchCode) {
+        return matchCode < RUN_MASK ? 0 : 1 + (matchCode - RUN_MASK) / 255;
+    }
+
+    @Override
+    public void slide(int delta) {
+        finder.slide(delta);
+    }
+
+    @Override
+    public void reset() {
+        finder.reset();
+    }
+}
@@ -0,0 +1,99 @@
+package com.ltchen.compression.lz77;
+
+import static com.ltchen.compression.lz77.SequenceEncoder.MIN_MATCH;
+import static com.ltchen.compression.lz77.SequenceEncoder.RUN_MASK;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 解码 SequenceEncoder 编码的块: 字面量和不重叠的匹配都直接用 System.arraycopy 复制
+ */
+public class SequenceDecoder {
+
+    private SequenceDecoder() {
+    }
+
+    /**
+     * 解码一个块
+     * @param src 编码的数据
+     * @param sp 起始偏移
+     * @param send 结束偏移 (不包含)
+     * @param dst 输出数组, dp 之前为历史数据, 匹配可以引用
+     * @param dp 输出的起始位置
+     * @param dend 输出的结束位置 (不包含), 块解码后须恰好到达
+     */
+    public static void decodeBlock(byte[] src, int sp, int send, byte[] dst, int dp, int dend) {
+        try {
+            while (true) {
+                int token = src[sp++] & 0xff;
+                // 字面量
+                int literals = token >>> 4;
+                if (literals == RUN_MASK) {
+                    int b;
+                    do {
+                        b = src[sp++] & 0xff;
+                        literals += b;
+                    } while (b == 255);
+                }
+                if (literals > send - sp || literals > dend - dp) {
+                    throw new AssertionError("压缩块已损坏!");
+                }
+                System.arraycopy(src, sp, dst, dp, literals);
+                sp += literals;
+                dp += literals;
+                if (sp == send) {
+                    break;
+                }
+                // 偏移
+                int offset = 0;
+                int shift = 0;
+                int b;
+                do {
+                    b = src[sp++] & 0xff;
+                    offset |= (b & 0x7f) << shift;
+                    shift += 7;
+                } while (b >= 0x80 && shift < 35);
+                // 匹配长度
+                int length = token & RUN_MASK;
+                if (length == RUN_MASK) {
+                    do {
+                        b = src[sp++] & 0xff;
+                        length += b;
+                    } while (b == 255);
+                }
+                length += MIN_MATCH;
+                if (offset <= 0 || offset > dp || length > dend - dp) {
+                    throw new AssertionError("压缩块已损坏!");
+                }
+                copyMatch(dst, dp, offset, length);
+                dp += length;
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new AssertionError("压缩块已损坏!");
+        }
+        if (dp != dend) {
+            throw new AssertionError("块的长度不符!");
+        }
+    }
+
+    /**
+     * 复制匹配: 偏移不小于长度时一次复制; 否则数据以偏移为周期重复, 每次复制已写出的全部周期, 复制的长度逐次加倍
+     * @param dst 输出数组
+     * @param dp 输出位置
+     * @param offset 偏移
+     * @param length 匹配长度
+     */
+    static void copyMatch(byte[] dst, int dp, int offset, int length) {
+        int ref = dp - offset;
+        if (offset >= length) {
+            System.arraycopy(dst, ref, dst, dp, length);
+            return;
+        }
+        int copied = 0;
+        while (copied < length) {
+            int n = Math.min(length - copied, dp + copied - ref);
+            System.arraycopy(dst, ref, dst, dp + copied, n);
+            copied += n;
+        }
+    }
+}
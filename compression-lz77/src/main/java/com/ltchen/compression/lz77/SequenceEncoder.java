@@ -0,0 +1,154 @@
+package com.ltchen.compression.lz77;
+
+import java.util.Arrays;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : 将匹配序列编码为字节: 每个序列为 (字面量个数, 字面量, 偏移, 匹配长度), 格式如下
+ *         +-------+-------+====//====+======//======+====//====+====//====+
+ *         | LLLL  | MMMM  | 字面量个数 |    字面量     |   偏移    | 匹配长度  |
+ *         +-------+-------+====//====+======//======+====//====+====//====+
+ *         标记字节的高 4 位为字面量个数, 低 4 位为匹配长度减 MIN_MATCH, 为 15 时其后依次追加字节 (255 表示继续) 累加;
+ *         偏移为变长整数 (每字节 7 位, 低位在前, 最高位为 1 表示继续); 块的最后一个序列只有字面量
+ */
+public class SequenceEncoder {
+
+    /**
+     * 最短的匹配长度
+     */
+    public static final int MIN_MATCH = 4;
+
+    /**
+     * 标记字节中长度字段的最大值
+     */
+    static final int RUN_MASK = 15;
+
+    /**
+     * 源数据
+     */
+    private byte[] src;
+
+    /**
+     * 尚未写出的字面量的起始位置
+     */
+    private int anchor;
+
+    /**
+     * 编码输出
+     */
+    protected byte[] out;
+
+    /**
+     * 编码输出的字节数
+     */
+    protected int size;
+
+    /**
+     * 构造序列编码器
+     * @param src 源数据
+     * @param start 块的起始位置
+     */
+    public SequenceEncoder(byte[] src, int start) {
+        this.src = src;
+        this.anchor = start;
+        out = new byte[1 << 16];
+    }
+
+    /**
+     * 写出一个序列: [anchor, pos) 为字面量, 之后为匹配
+     * @param pos 匹配的位置
+     * @param offset 偏移 (大于 0)
+     * @param length 匹配长度 (不小于 MIN_MATCH)
+     */
+    public void match(int pos, int offset, int length) {
+        int literals = pos - anchor;
+        ensureCapacity(literals + length / 255 + 32);
+        int matchCode = length - MIN_MATCH;
+        out[size++] = (byte) (Math.min(literals, RUN_MASK) << 4 | Math.min(matchCode, RUN_MASK));
+        writeLiterals(literals);
+        writeOffset(offset);
+        if (matchCode >= RUN_MASK) {
+            writeLength(matchCode - RUN_MASK);
+        }
+        anchor = pos + length;
+    }
+
+    /**
+     * 写出偏移: 变长整数, 每字节 7 位, 低位在前
+     * @param offset 偏移
+     */
+    protected void writeOffset(int offset) {
+        while (offset >= 0x80) {
+            out[size++] = (byte) (offset | 0x80);
+            offset >>>= 7;
+        }
+        out[size++] = (byte) offset;
+    }
+
+    /**
+     * 写出最后一个序列: [anchor, end) 为字面量
+     * @param end 块的结束位置
+     */
+    public void finish(int end) {
+        int literals = end - anchor;
+        ensureCapacity(literals + 16);
+        out[size++] = (byte) (Math.min(literals, RUN_MASK) << 4);
+        writeLiterals(literals);
+        anchor = end;
+    }
+
+    /**
+     * 写出字面量个数的追加字节和字面量
+     * @param literals 字面量个数
+     */
+    private void writeLiterals(int literals) {
+        if (literals >= RUN_MASK) {
+            writeLength(literals - RUN_MASK);
+        }
+        System.arraycopy(src, anchor, out, size, literals);
+        size += literals;
+    }
+
+    /**
+     * 写出长度的追加字节: 每个 255 表示继续, 最后一个字节小于 255
+     * @param length 长度
+     */
+    private void writeLength(int length) {
+        while (length >= 255) {
+            out[size++] = (byte) 255;
+            length -= 255;
+        }
+        out[size++] = (byte) length;
+    }
+
+    /**
+     * 保证输出还可以写入 n 个字节 (加上字面量个数的追加字节)
+     */
+    private void ensureCapacity(int n) {
+        int need = size + n + n / 255;
+        if (need > out.length) {
+            out = Arrays.copyOf(out, Math.max(need, out.length << 1));
+        }
+    }
+
+    /**
+     * 获取尚未写出的字面量的起始位置, 匹配不能向前延伸到此位置之前
+     * @return 位置
+     */
+    public int getAnchor() {
+        return anchor;
+    }
+
+    /**
+     * 获取编码输出, 有效字节数见 size()
+     * @return 编码输出
+     */
+    public byte[] array() {
+        return out;
+    }
+
+    public int size() {
+        return size;
+    }
+}
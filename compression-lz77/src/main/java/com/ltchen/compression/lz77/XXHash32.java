@@ -0,0 +1,152 @@
+package com.ltchen.compression.lz77;
+
+import java.util.zip.Checksum;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : xxHash 的 32 位版本 (LZ4 帧格式的校验值), 见 https://github.com/Cyan4973/xxHash/blob/dev/doc/xxhash_spec.md
+ */
+public class XXHash32 implements Checksum {
+
+    private static final int PRIME1 = 0x9E3779B1;
+    private static final int PRIME2 = 0x85EBCA77;
+    private static final int PRIME3 = 0xC2B2AE3D;
+    private static final int PRIME4 = 0x27D4EB2F;
+    private static final int PRIME5 = 0x165667B1;
+
+    /**
+     * 种子
+     */
+    private final int seed;
+
+    /**
+     * 4 个累加器
+     */
+    private int v1, v2, v3, v4;
+
+    /**
+     * 不足 16 字节的剩余数据
+     */
+    private final byte[] buffer = new byte[16];
+
+    /**
+     * 剩余数据的字节数
+     */
+    private int bufferSize;
+
+    /**
+     * 已输入的字节数
+     */
+    private long total;
+
+    public XXHash32() {
+        this(0);
+    }
+
+    public XXHash32(int seed) {
+        this.seed = seed;
+        reset();
+    }
+
+    /**
+     * 计算字节数组的校验值
+     * @param bytes 字节数组
+     * @param off 偏移
+     * @param len 长度
+     * @param seed 种子
+     * @return 校验值
+     */
+    public static int hash(byte[] bytes, int off, int len, int seed) {
+        XXHash32 xxHash32 = new XXHash32(seed);
+        xxHash32.update(bytes, off, len);
+        return (int) xxHash32.getValue();
+    }
+
+    @Override
+    public void update(int b) {
+        update(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void update(byte[] bytes, int off, int len) {
+        total += len;
+        // 先补满剩余数据
+        if (bufferSize > 0) {
+            int n = Math.min(len, 16 - bufferSize);
+            System.arraycopy(bytes, off, buffer, bufferSize, n);
+            bufferSize += n;
+            off += n;
+            len -= n;
+            if (bufferSize < 16) {
+                return;
+            }
+            round(buffer, 0);
+            bufferSize = 0;
+        }
+        // 每次处理 16 个字节
+        int end = off + len;
+        while (off + 16 <= end) {
+            round(bytes, off);
+            off += 16;
+        }
+        System.arraycopy(bytes, off, buffer, 0, end - off);
+        bufferSize = end - off;
+    }
+
+    /**
+     * 4 个累加器各处理 4 个字节
+     */
+    private void round(byte[] bytes, int off) {
+        v1 = Integer.rotateLeft(v1 + readInt(bytes, off) * PRIME2, 13) * PRIME1;
+        v2 = Integer.rotateLeft(v2 + readInt(bytes, off + 4) * PRIME2, 13) * PRIME1;
+        v3 = Integer.rotateLeft(v3 + readInt(bytes, off + 8) * PRIME2, 13) * PRIME1;
+        v4 = Integer.rotateLeft(v4 + readInt(bytes, off + 12) * PRIME2, 13) * PRIME1;
+    }
+
+    /**
+     * 返回校验值 (不改变状态, 可以继续更新)
+     * @return 校验值 (无符号 32 位)
+     */
+    @Override
+    public long getValue() {
+        int h;
+        if (total >= 16) {
+            h = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) + Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+        } else {
+            h = seed + PRIME5;
+        }
+        h += (int) total;
+        int i = 0;
+        for (; i + 4 <= bufferSize; i += 4) {
+            h = Integer.rotateLeft(h + readInt(buffer, i) * PRIME3, 17) * PRIME4;
+        }
+        for (; i < bufferSize; i++) {
+            h = Integer.rotateLeft(h + (buffer[i] & 0xff) * PRIME5, 11) * PRIME1;
+        }
+        // 雪崩
+        h ^= h >>> 15;
+        h *= PRIME2;
+        h ^= h >>> 13;
+        h *= PRIME3;
+        h ^= h >>> 16;
+        return h & 0xffffffffL;
+    }
+
+    @Override
+    public void reset() {
+        v1 = seed + PRIME1 + PRIME2;
+        v2 = seed + PRIME2;
+        v3 = seed;
+        v4 = seed - PRIME1;
+        bufferSize = 0;
+        total = 0;
+    }
+
+    /**
+     * 以小端序读取 4 个字节
+     */
+    private static int readInt(byte[] bytes, int off) {
+        return (bytes[off] & 0xff) | (bytes[off + 1] & 0xff) << 8 | (bytes[off + 2] & 0xff) << 16 | (bytes[off + 3] & 0xff) << 24;
+    }
+}
@@ -0,0 +1,129 @@
+package com.ltchen.compression.lz77;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.ltchen.compression.lz77.SequenceEncoder.MIN_MATCH;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc :
+ */
+public class BinaryTreeMatchFinderTest {
+
+    private static final int WINDOW_SIZE = 1 << 12;
+
+    private static final int NICE_LENGTH = 32;
+
+    @Test
+    public void testMatches() {
+        byte[] buf = data(100000, new Random(1));
+        BinaryTreeMatchFinder finder = new BinaryTreeMatchFinder(WINDOW_SIZE, 1 << 16, NICE_LENGTH);
+        int[] lengths = new int[NICE_LENGTH + 1];
+        int[] offsets = new int[NICE_LENGTH + 1];
+        for (int pos = 0; pos + MIN_MATCH <= buf.length; pos++) {
+            int count = finder.findMatches(buf, pos, buf.length, WINDOW_SIZE, lengths, offsets);
+            int lenLimit = Math.min(NICE_LENGTH, buf.length - pos);
+            for (int i = 0; i < count; i++) {
+                // 长度严格递增, 偏移不超过最大偏移, 匹配确实成立
+                Assert.assertTrue(lengths[i] >= MIN_MATCH && lengths[i] <= lenLimit);
+                Assert.assertTrue(i == 0 || lengths[i] > lengths[i - 1]);
+                Assert.assertTrue(offsets[i] > 0 && offsets[i] <= finder.maxDistance());
+                Assert.assertTrue(HashParser.matchLength(buf, pos - offsets[i], pos, pos + lengths[i]) == lengths[i]);
+            }
+            // 搜索深度足够时找到窗口中最长的匹配
+            if (buf.length - pos >= NICE_LENGTH) {
+                Assert.assertEquals("pos = " + pos, longest(buf, pos, finder.maxDistance(), lenLimit),
+                        count == 0 ? 0 : lengths[count - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void testSlide() {
+        byte[] data = data(60000, new Random(2));
+        BinaryTreeMatchFinder straight = new BinaryTreeMatchFinder(WINDOW_SIZE, BinaryTreeMatchFinder.DEFAULT_DEPTH, NICE_LENGTH);
+        BinaryTreeMatchFinder sliding = new BinaryTreeMatchFinder(WINDOW_SIZE, BinaryTreeMatchFinder.DEFAULT_DEPTH, NICE_LENGTH);
+        int[] lengths = new int[NICE_LENGTH + 1];
+        int[] offsets = new int[NICE_LENGTH + 1];
+        int[] slidLengths = new int[NICE_LENGTH + 1];
+        int[] slidOffsets = new int[NICE_LENGTH + 1];
+        // sliding 的缓冲区只保存 base 之后的数据, 每隔若干位置前移一次, 保留一个窗口的历史数据
+        byte[] buf = data;
+        int base = 0;
+        Random random = new Random(3);
+        int nextSlide = WINDOW_SIZE + random.nextInt(5000);
+        for (int pos = 0; pos + MIN_MATCH <= data.length; pos++) {
+            if (pos == nextSlide) {
+                int delta = pos - base - WINDOW_SIZE;
+                sliding.slide(delta);
+                base += delta;
+                buf = Arrays.copyOfRange(data, base, data.length);
+                nextSlide = pos + 1 + random.nextInt(5000);
+            }
+            int count = straight.findMatches(data, pos, data.length, WINDOW_SIZE, lengths, offsets);
+            int slidCount = sliding.findMatches(buf, pos - base, buf.length, WINDOW_SIZE, slidLengths, slidOffsets);
+            Assert.assertEquals("pos = " + pos, count, slidCount);
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals(lengths[i], slidLengths[i]);
+                Assert.assertEquals(offsets[i], slidOffsets[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testOptimalLargeWindow() {
+        // 相距约 3.5M 的两段相同的随机字节, 只有 4M 的窗口能够找到
+        Random random = new Random(4);
+        byte[] noise = new byte[512 << 10];
+        random.nextBytes(noise);
+        byte[] text = LZ77CompressorTest.text(3 << 20, random);
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        input.write(noise, 0, noise.length);
+        input.write(text, 0, text.length);
+        input.write(noise, 0, noise.length);
+        byte[] data = input.toByteArray();
+
+        LZ77Compressor compressor = new LZ77Compressor(4 << 20);
+        compressor.setLevel(LZ77Compressor.LEVEL_OPTIMAL);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        compressor.compress(new ByteArrayInputStream(data), compressed);
+        ByteArrayOutputStream small = new ByteArrayOutputStream();
+        LZ77Compressor smallWindow = new LZ77Compressor(1 << 20);
+        smallWindow.setLevel(LZ77Compressor.LEVEL_OPTIMAL);
+        smallWindow.compress(new ByteArrayInputStream(data), small);
+        Assert.assertTrue(compressed.size() + noise.length * 9 / 10 < small.size());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new LZ77Compressor().decompress(new ByteArrayInputStream(compressed.toByteArray()), out);
+        Assert.assertArrayEquals(data, out.toByteArray());
+    }
+
+    /**
+     * 暴力查找窗口中最长的匹配
+     */
+    private static int longest(byte[] buf, int pos, int maxDistance, int lenLimit) {
+        int best = 0;
+        for (int candidate = Math.max(0, pos - maxDistance); candidate < pos; candidate++) {
+            best = Math.max(best, HashParser.matchLength(buf, candidate, pos, pos + lenLimit));
+        }
+        return best < MIN_MATCH ? 0 : best;
+    }
+
+    /**
+     * 重复较多的短文本, 夹杂随机字节
+     */
+    private static byte[] data(int size, Random random) {
+        byte[] buf = LZ77CompressorTest.text(size, random);
+        for (int i = 0; i < size / 50; i++) {
+            buf[random.nextInt(size)] = (byte) random.nextInt(256);
+        }
+        return buf;
+    }
+}
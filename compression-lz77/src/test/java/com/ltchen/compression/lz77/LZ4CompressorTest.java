@@ -0,0 +1,118 @@
+package com.ltchen.compression.lz77;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc : lz4/ 下的 .lz4 文件由参考实现 liblz4 1.9.4 的 LZ4F_compressFrame 压缩 text.txt 和 noise.bin 得到
+ */
+public class LZ4CompressorTest {
+
+    /**
+     * 空输入的帧: 块独立, 64K 块, 内容校验 (XXH32 of "" = 0x02CC5D05)
+     */
+    private static final byte[] EMPTY_FRAME = {0x04, 0x22, 0x4D, 0x18, 0x64, 0x40, (byte) 0xA7,
+            0x00, 0x00, 0x00, 0x00, 0x05, 0x5D, (byte) 0xCC, 0x02};
+
+    @Test
+    public void testEmptyFrame() throws IOException {
+        Assert.assertArrayEquals(EMPTY_FRAME, readResource("lz4/empty.lz4"));
+        Assert.assertArrayEquals(EMPTY_FRAME, compress(new LZ4Compressor(), new byte[0]));
+        Assert.assertArrayEquals(new byte[0], decompress(EMPTY_FRAME));
+    }
+
+    @Test
+    public void testIndependentBlocks() throws IOException {
+        // 块校验和内容大小
+        Assert.assertArrayEquals(readResource("lz4/text.txt"), decompress(readResource("lz4/independent.lz4")));
+    }
+
+    @Test
+    public void testLinkedBlocks() throws IOException {
+        byte[] text = readResource("lz4/text.txt");
+        Assert.assertArrayEquals(text, decompress(readResource("lz4/linked.lz4")));
+        Assert.assertArrayEquals(text, decompress(readResource("lz4/linked-hc.lz4")));
+    }
+
+    @Test
+    public void testUncompressedBlocks() throws IOException {
+        Assert.assertArrayEquals(readResource("lz4/noise.bin"), decompress(readResource("lz4/noise.lz4")));
+    }
+
+    @Test
+    public void testConcatenatedFrames() throws IOException {
+        // 可跳过帧, 块独立的帧, 块不独立的帧, 空的可跳过帧
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(readResource("lz4/text.txt"), 0, 50000);
+        expected.write(readResource("lz4/noise.bin"));
+        Assert.assertArrayEquals(expected.toByteArray(), decompress(readResource("lz4/concatenated.lz4")));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        byte[] text = readResource("lz4/text.txt");
+        for (boolean highCompression : new boolean[]{false, true}) {
+            for (boolean independence : new boolean[]{false, true}) {
+                LZ4Compressor compressor = new LZ4Compressor();
+                compressor.setHighCompression(highCompression);
+                compressor.setBlockIndependence(independence);
+                compressor.setBlockChecksum(true);
+                Assert.assertArrayEquals(text, decompress(compress(compressor, text)));
+            }
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testContentChecksum() throws IOException {
+        byte[] frame = readResource("lz4/linked.lz4");
+        frame[frame.length - 1] ^= 1;
+        decompress(frame);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testBlockChecksum() throws IOException {
+        byte[] frame = readResource("lz4/independent.lz4");
+        // 第一块的数据: 魔法值 4 + FLG, BD 2 + 内容大小 8 + HC 1 + 块大小 4
+        frame[19 + 100] ^= 1;
+        decompress(frame);
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testTruncated() throws IOException {
+        byte[] frame = readResource("lz4/linked.lz4");
+        decompress(Arrays.copyOf(frame, frame.length - 5));
+    }
+
+    private static byte[] compress(LZ4Compressor compressor, byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compressor.compress(new ByteArrayInputStream(data), out);
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] compressed) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new LZ4Compressor().decompress(new ByteArrayInputStream(compressed), out);
+        return out.toByteArray();
+    }
+
+    static byte[] readResource(String name) throws IOException {
+        try (InputStream in = LZ4CompressorTest.class.getClassLoader().getResourceAsStream(name)) {
+            Assert.assertNotNull(name, in);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int number;
+            while ((number = in.read(buffer)) != -1) {
+                out.write(buffer, 0, number);
+            }
+            return out.toByteArray();
+        }
+    }
+}
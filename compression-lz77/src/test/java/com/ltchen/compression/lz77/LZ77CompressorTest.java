@@ -0,0 +1,201 @@
+package com.ltchen.compression.lz77;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static com.ltchen.compression.lz77.LZ77Compressor.BLOCK_SIZE;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc :
+ */
+public class LZ77CompressorTest {
+
+    /**
+     * 文本素材, 即 LZ4 对照样本的原文
+     */
+    private static final byte[] CORPUS;
+
+    static {
+        try {
+            CORPUS = LZ4CompressorTest.readResource("lz4/text.txt");
+        } catch (IOException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Test
+    public void testBlockSizes() {
+        Random random = new Random(1);
+        byte[] data = text(2 * BLOCK_SIZE + 100, random);
+        for (int size : new int[]{0, 1, 3, 4, 5, BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE + 1, 2 * BLOCK_SIZE}) {
+            byte[] input = Arrays.copyOf(data, size);
+            for (LZ77Compressor compressor : compressors(LZ77Compressor.DEFAULT_WINDOW_SIZE)) {
+                Assert.assertArrayEquals("size = " + size, input, roundTrip(compressor, input));
+            }
+        }
+    }
+
+    @Test
+    public void testStoredBlocks() {
+        Random random = new Random(2);
+        // 随机字节的块原样写出, 与可压缩的块交替
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        for (int i = 0; i < 3; i++) {
+            byte[] noise = new byte[BLOCK_SIZE];
+            random.nextBytes(noise);
+            data.write(noise, 0, noise.length);
+            byte[] text = text(BLOCK_SIZE, random);
+            data.write(text, 0, text.length);
+        }
+        byte[] input = data.toByteArray();
+        for (LZ77Compressor compressor : compressors(LZ77Compressor.DEFAULT_WINDOW_SIZE)) {
+            byte[] compressed = compress(compressor, input);
+            Assert.assertTrue(compressed.length < input.length);
+            Assert.assertArrayEquals(input, decompress(compressed));
+        }
+    }
+
+    @Test
+    public void testCrossBlockMatches() {
+        Random random = new Random(3);
+        // 同一段随机字节出现在不同的块中, 只有引用前面的块才能压缩
+        byte[] noise = new byte[100000];
+        random.nextBytes(noise);
+        byte[] input = new byte[3 * BLOCK_SIZE];
+        for (int pos = BLOCK_SIZE - 50000; pos + noise.length <= input.length; pos += 200000) {
+            System.arraycopy(noise, 0, input, pos, noise.length);
+        }
+        int windowSize = 1 << 20;
+        for (LZ77Compressor compressor : compressors(windowSize)) {
+            byte[] compressed = compress(compressor, input);
+            Assert.assertTrue("compressed = " + compressed.length, compressed.length < 150000);
+            Assert.assertArrayEquals(input, decompress(compressed));
+        }
+    }
+
+    @Test
+    public void testSlide() {
+        // 超过缓冲区大小的输入, 压缩和解压时都要前移缓冲区
+        byte[] input = text(3 << 20, new Random(4));
+        for (LZ77Compressor compressor : compressors(1 << 16)) {
+            Assert.assertArrayEquals(input, roundTrip(compressor, input));
+        }
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testBadOffset() throws IOException {
+        // 1 个字面量之后的匹配偏移为 2, 超出已解压的数据
+        decompress(container(5, 0x10, 'a', 2, 0x00));
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testOverlongLiterals() throws IOException {
+        // 字面量个数为 15 + 255 * 3 + 5, 超出块的数据
+        decompress(container(1000, 0xF0, 0xFF, 0xFF, 0xFF, 5, 'a', 'b'));
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testMissingMatch() throws IOException {
+        // 块的数据结束时解压的字节数少于块的原始字节数
+        decompress(container(10, 0x30, 'a', 'b', 'c'));
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testTruncatedBlock() {
+        byte[] compressed = compress(new LZ77Compressor(), text(100000, new Random(5)));
+        decompress(Arrays.copyOf(compressed, compressed.length / 2));
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testMissingEnd() {
+        byte[] compressed = compress(new LZ77Compressor(), text(100000, new Random(6)));
+        decompress(Arrays.copyOf(compressed, compressed.length - 4));
+    }
+
+    @Test
+    public void testCorrupt() {
+        byte[] compressed = compress(new LZ77Compressor(), text(20000, new Random(7)));
+        Random random = new Random(8);
+        // 改动文件头之后的任意字节, 只允许报 AssertionError (没有校验和, 不要求一定报错)
+        for (int i = 0; i < 2000; i++) {
+            byte[] corrupt = compressed.clone();
+            corrupt[5 + random.nextInt(corrupt.length - 5)] ^= 1 << random.nextInt(8);
+            try {
+                decompress(corrupt);
+            } catch (AssertionError e) {
+                // 预期的错误
+            }
+        }
+    }
+
+    /**
+     * 各压缩级别, 以及开启长距离匹配
+     */
+    private static LZ77Compressor[] compressors(int windowSize) {
+        LZ77Compressor[] compressors = new LZ77Compressor[4];
+        for (int level = LZ77Compressor.LEVEL_FAST; level <= LZ77Compressor.LEVEL_OPTIMAL; level++) {
+            compressors[level - 1] = new LZ77Compressor(windowSize);
+            compressors[level - 1].setLevel(level);
+        }
+        compressors[3] = new LZ77Compressor(windowSize);
+        compressors[3].setLongDistanceMatching(true);
+        return compressors;
+    }
+
+    /**
+     * 构造只有一个压缩块的数据, 窗口 64K
+     * @param len 块的原始字节数
+     * @param data 块的数据
+     */
+    private static byte[] container(int len, int... data) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(baos);
+        dos.writeInt(0x4C5A3737);
+        dos.writeByte(16);
+        dos.writeInt(len);
+        dos.writeInt(data.length);
+        for (int b : data) {
+            dos.writeByte(b);
+        }
+        dos.writeInt(0);
+        return baos.toByteArray();
+    }
+
+    private static byte[] roundTrip(LZ77Compressor compressor, byte[] data) {
+        return decompress(compress(compressor, data));
+    }
+
+    private static byte[] compress(LZ77Compressor compressor, byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compressor.compress(new ByteArrayInputStream(data), out);
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] compressed) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new LZ77Compressor().decompress(new ByteArrayInputStream(compressed), out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 拼接素材中随机位置, 随机长度的片段, 匹配的长度和距离都分布较广
+     */
+    static byte[] text(int size, Random random) {
+        byte[] buf = new byte[size];
+        for (int pos = 0; pos < size; ) {
+            int len = Math.min(size - pos, 16 + random.nextInt(2048));
+            System.arraycopy(CORPUS, random.nextInt(CORPUS.length - len + 1), buf, pos, len);
+            pos += len;
+        }
+        return buf;
+    }
+}
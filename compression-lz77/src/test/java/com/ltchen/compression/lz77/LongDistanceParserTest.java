@@ -0,0 +1,92 @@
+package com.ltchen.compression.lz77;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc :
+ */
+public class LongDistanceParserTest {
+
+    private static final int INNER_WINDOW_SIZE = LZ77Compressor.DEFAULT_WINDOW_SIZE;
+
+    @Test
+    public void testFarRepeat() {
+        // 随机字节在 300K 之后重复, 超出内部解析器的 64K 窗口
+        Random random = new Random(1);
+        byte[] noise = new byte[100000];
+        random.nextBytes(noise);
+        int distance = 300000;
+        byte[] buf = LZ77CompressorTest.text(distance + noise.length + 5000, random);
+        System.arraycopy(noise, 0, buf, 0, noise.length);
+        System.arraycopy(noise, 0, buf, distance, noise.length);
+
+        LongDistanceParser parser = new LongDistanceParser(new HashParser(), INNER_WINDOW_SIZE, 1 << 20);
+        final int[] longest = new int[2];
+        SequenceEncoder encoder = new SequenceEncoder(buf, 0) {
+            @Override
+            public void match(int pos, int offset, int length) {
+                Assert.assertTrue(offset <= 1 << 20);
+                if (length > longest[1]) {
+                    longest[0] = offset;
+                    longest[1] = length;
+                }
+                super.match(pos, offset, length);
+            }
+        };
+        parser.parse(buf, 0, buf.length, 1 << 20, encoder);
+        encoder.finish(buf.length);
+        // 重复的区域由一个长距离匹配覆盖 (抽样的位置之前可能还有少量字面量)
+        Assert.assertEquals(distance, longest[0]);
+        Assert.assertTrue("length = " + longest[1], longest[1] > noise.length - 1000);
+
+        byte[] out = new byte[buf.length];
+        SequenceDecoder.decodeBlock(encoder.array(), 0, encoder.size(), out, 0, out.length);
+        Assert.assertArrayEquals(buf, out);
+    }
+
+    @Test
+    public void testLargeWindow() {
+        // 256M 的窗口, 缓冲区随数据增长, 不会一开始就分配 512M
+        Random random = new Random(2);
+        byte[] noise = new byte[200000];
+        random.nextBytes(noise);
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        input.write(noise, 0, noise.length);
+        byte[] text = LZ77CompressorTest.text(1 << 20, random);
+        input.write(text, 0, text.length);
+        int firstSize = input.size();
+        input.write(noise, 0, noise.length);
+        byte[] data = input.toByteArray();
+
+        LZ77Compressor compressor = new LZ77Compressor(1 << 28);
+        compressor.setLongDistanceMatching(true);
+        compressor.setMaxWindowSize(1 << 28);
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        compressor.compress(new ByteArrayInputStream(data, 0, firstSize), first);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        compressor.compress(new ByteArrayInputStream(data), compressed);
+        // 重复的随机字节几乎不增加压缩后的大小
+        Assert.assertTrue(compressed.size() - first.size() < noise.length / 10);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compressor.decompress(new ByteArrayInputStream(compressed.toByteArray()), out);
+        Assert.assertArrayEquals(data, out.toByteArray());
+    }
+
+    @Test(expected = AssertionError.class)
+    public void testMaxWindowSize() {
+        LZ77Compressor compressor = new LZ77Compressor(1 << 28);
+        compressor.setLongDistanceMatching(true);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        compressor.compress(new ByteArrayInputStream(Arrays.copyOf(new byte[]{1, 2, 3}, 1000)), compressed);
+        // 默认的上限为 8M
+        new LZ77Compressor().decompress(new ByteArrayInputStream(compressed.toByteArray()), new ByteArrayOutputStream());
+    }
+}
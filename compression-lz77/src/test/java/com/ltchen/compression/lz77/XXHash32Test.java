@@ -0,0 +1,55 @@
+package com.ltchen.compression.lz77;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author : ltchen
+ * @date : 2026/10/19
+ * @desc :
+ */
+public class XXHash32Test {
+
+    private static final int PRIME = 0x9E3779B1;
+
+    /**
+     * xxHash 自检使用的测试数据
+     */
+    private static byte[] testBuffer(int len) {
+        byte[] buffer = new byte[len];
+        long byteGen = PRIME & 0xffffffffL;
+        for (int i = 0; i < len; i++) {
+            buffer[i] = (byte) (byteGen >>> 56);
+            byteGen *= 0x9E3779B185EBCA8DL;
+        }
+        return buffer;
+    }
+
+    @Test
+    public void testVectors() {
+        byte[] buffer = testBuffer(222);
+        Assert.assertEquals(0x02CC5D05, XXHash32.hash(buffer, 0, 0, 0));
+        Assert.assertEquals(0x36B78AE7, XXHash32.hash(buffer, 0, 0, PRIME));
+        Assert.assertEquals(0xCF65B03E, XXHash32.hash(buffer, 0, 1, 0));
+        Assert.assertEquals(0xB4545AA4, XXHash32.hash(buffer, 0, 1, PRIME));
+        Assert.assertEquals(0x1208E7E2, XXHash32.hash(buffer, 0, 14, 0));
+        Assert.assertEquals(0x6AF1D1FE, XXHash32.hash(buffer, 0, 14, PRIME));
+        Assert.assertEquals(0x5BD11DBD, XXHash32.hash(buffer, 0, 222, 0));
+        Assert.assertEquals(0x58803C5F, XXHash32.hash(buffer, 0, 222, PRIME));
+    }
+
+    @Test
+    public void testStreaming() {
+        byte[] buffer = testBuffer(222);
+        // 分成任意长度的片段输入, 结果与一次输入相同
+        for (int step = 1; step < 40; step += 3) {
+            XXHash32 xxHash32 = new XXHash32(PRIME);
+            for (int off = 0; off < buffer.length; off += step) {
+                xxHash32.update(buffer, off, Math.min(step, buffer.length - off));
+            }
+            Assert.assertEquals(0x58803C5F, (int) xxHash32.getValue());
+            xxHash32.reset();
+            Assert.assertEquals(0x36B78AE7, (int) xxHash32.getValue());
+        }
+    }
+}